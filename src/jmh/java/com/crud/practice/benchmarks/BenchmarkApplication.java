@@ -0,0 +1,103 @@
+package com.crud.practice.benchmarks;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.crud.practice.PracticeApplication;
+import com.crud.practice.util.TextNormalizer;
+
+/**
+ * Sobe a aplicação, sem servidor web ou com Tomcat para os testes de carga,
+ * sobre um H2 em memória exclusivo do benchmark e popula a base com pessoas sintéticas via JDBC em lote.
+ * O cache de pessoas e o cache de segundo nível do Hibernate ficam desligados,
+ * para que as leituras meçam o banco e a hidratação e não acertos de cache;
+ * quem quiser medir com cache passa as propriedades de volta em {@code properties}.
+ */
+public final class BenchmarkApplication {
+
+	public static final long FIRST_SEEDED_ID = 1000L;
+
+	private static final String[] FIRST_NAMES = { "Ana", "João", "Maria", "Pedro", "Beatriz", "Felipe", "Lucas",
+			"Júlia", "Gabriel", "Letícia", "Rafael", "Camila", "Thiago", "Larissa", "Mateus", "Fernanda" };
+
+	private static final String[] LAST_NAMES = { "Silva", "Santos", "Oliveira", "Souza", "Araújo", "Barbosa",
+			"Pereira", "Costa", "Ribeiro", "Almeida", "Carvalho", "Gomes", "Martins", "Rocha", "Lima", "Conceição" };
+
+	private static final int SEED_CHUNK = 5000;
+
+	private BenchmarkApplication() {
+	}
+
+	public static ConfigurableApplicationContext start(String databaseName, String... properties) {
+		return start(databaseName, WebApplicationType.NONE, properties);
+	}
+
+	/**
+	 * Como {@link #start(String, String...)}, mas com o Tomcat embutido em uma
+	 * porta livre; a porta fica em {@code local.server.port}.
+	 */
+	public static ConfigurableApplicationContext startWeb(String databaseName, String... properties) {
+		List<String> all = new ArrayList<>();
+		all.add("server.port=0");
+		all.addAll(List.of(properties));
+		return start(databaseName, WebApplicationType.SERVLET, all.toArray(new String[0]));
+	}
+
+	private static ConfigurableApplicationContext start(String databaseName, WebApplicationType webApplicationType,
+			String... properties) {
+		List<String> all = new ArrayList<>();
+		all.add("spring.datasource.url=jdbc:h2:mem:" + databaseName + ";DB_CLOSE_DELAY=-1");
+		all.add("spring.jpa.show-sql=false");
+		all.add("spring.cache.type=none");
+		all.add("app.person.l2-cache.enabled=false");
+		all.add("spring.jpa.properties.hibernate.cache.use_second_level_cache=false");
+		all.add("spring.jpa.properties.hibernate.cache.use_query_cache=false");
+		all.add("app.sql-metrics.enabled=false");
+		all.add("logging.level.root=WARN");
+		all.addAll(List.of(properties));
+		// como argumentos de linha de comando, para valer sobre application-*.properties
+		return new SpringApplicationBuilder(PracticeApplication.class)
+				.web(webApplicationType)
+				.run(all.stream().map(property -> "--" + property).toArray(String[]::new));
+	}
+
+	/**
+	 * Insere {@code count} pessoas a partir do id {@link #FIRST_SEEDED_ID},
+	 * junto com os termos de busca, e reposiciona a sequence após elas.
+	 */
+	public static void seed(JdbcTemplate jdbcTemplate, int count) {
+		Instant firstBirthDate = Instant.parse("1950-01-01T00:00:00Z");
+		List<Object[]> persons = new ArrayList<>(SEED_CHUNK);
+		List<Object[]> tokens = new ArrayList<>(SEED_CHUNK * 8);
+		for (int i = 0; i < count; i++) {
+			long id = FIRST_SEEDED_ID + i;
+			String name = FIRST_NAMES[i % FIRST_NAMES.length] + " " + LAST_NAMES[(i / FIRST_NAMES.length) % LAST_NAMES.length];
+			String adress = "Rua " + (i % 997) + ", bairro " + LAST_NAMES[i % LAST_NAMES.length] + ", número " + (i % 1000);
+			String cpfDigits = String.format("%011d", id);
+			String cpf = cpfDigits.substring(0, 3) + "." + cpfDigits.substring(3, 6) + "." + cpfDigits.substring(6, 9) + "-"
+					+ cpfDigits.substring(9);
+			Timestamp birthDate = Timestamp.from(firstBirthDate.plus(i % 20000, ChronoUnit.DAYS));
+			persons.add(new Object[] { id, name, birthDate, cpf, cpfDigits, adress, "(75)98129-0360" });
+			for (String token : TextNormalizer.tokens(name + " " + adress)) {
+				tokens.add(new Object[] { id, token });
+			}
+			if (persons.size() == SEED_CHUNK || i == count - 1) {
+				jdbcTemplate.batchUpdate("INSERT INTO tb_person (id,name,birth_date,cpf,cpf_normalized,adress,phone_number,version) "
+						+ "VALUES (?, ?, ?, ?, ?, ?, ?, 0)", persons);
+				jdbcTemplate.batchUpdate("INSERT INTO tb_person_search_token (person_id,token) VALUES (?, ?)", tokens);
+				persons.clear();
+				tokens.clear();
+			}
+		}
+		jdbcTemplate.execute("ALTER SEQUENCE seq_person RESTART WITH " + (FIRST_SEEDED_ID + count));
+	}
+
+}
@@ -0,0 +1,85 @@
+package com.crud.practice.benchmarks;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Compara dois resultados JMH em JSON ({@code -rf json}) e termina com código
+ * 1 quando algum benchmark piora mais que o limite percentual. Sem o arquivo
+ * da baseline a comparação é pulada e o código de saída é 0.
+ *
+ * <p>Uso: {@code BenchmarkComparison <baseline.json> <atual.json> [limite%]}
+ */
+public final class BenchmarkComparison {
+
+	private static final double DEFAULT_THRESHOLD_PERCENT = 10.0;
+
+	private BenchmarkComparison() {
+	}
+
+	public static void main(String[] args) throws IOException {
+		if (args.length < 2) {
+			System.err.println("Uso: BenchmarkComparison <baseline.json> <atual.json> [limite%]");
+			System.exit(2);
+		}
+		File baselineFile = new File(args[0]);
+		if (!baselineFile.isFile()) {
+			System.out.printf("Baseline %s não encontrada; comparação pulada. Para criá-la: cp %s %s%n", baselineFile,
+					args[1], baselineFile);
+			return;
+		}
+		double threshold = args.length > 2 ? Double.parseDouble(args[2]) : DEFAULT_THRESHOLD_PERCENT;
+		Map<String, JsonNode> baseline = read(baselineFile);
+		Map<String, JsonNode> current = read(new File(args[1]));
+
+		int regressions = 0;
+		System.out.printf("%-90s %14s %14s %9s%n", "benchmark", "baseline", "atual", "delta");
+		for (Map.Entry<String, JsonNode> entry : current.entrySet()) {
+			JsonNode before = baseline.get(entry.getKey());
+			JsonNode metric = entry.getValue().get("primaryMetric");
+			double score = metric.get("score").asDouble();
+			if (before == null) {
+				System.out.printf("%-90s %14s %14.3f %9s%n", entry.getKey(), "-", score, "novo");
+				continue;
+			}
+			double previous = before.get("primaryMetric").get("score").asDouble();
+			double delta = (score - previous) / previous * 100.0;
+			boolean higherIsBetter = "thrpt".equals(entry.getValue().get("mode").asText());
+			double worsening = higherIsBetter ? -delta : delta;
+			boolean regression = worsening > threshold;
+			if (regression) {
+				regressions++;
+			}
+			System.out.printf("%-90s %14.3f %14.3f %+8.1f%%%s%n", entry.getKey(), previous, score, delta,
+					regression ? "  REGRESSÃO" : "");
+		}
+		if (regressions > 0) {
+			System.out.printf("%d benchmark(s) pioraram mais de %.1f%%%n", regressions, threshold);
+			System.exit(1);
+		}
+	}
+
+	private static Map<String, JsonNode> read(File file) throws IOException {
+		Map<String, JsonNode> results = new LinkedHashMap<>();
+		for (JsonNode result : new ObjectMapper().readTree(file)) {
+			results.put(key(result), result);
+		}
+		return results;
+	}
+
+	private static String key(JsonNode result) {
+		Map<String, String> params = new TreeMap<>();
+		JsonNode node = result.get("params");
+		if (node != null) {
+			node.fields().forEachRemaining(field -> params.put(field.getKey(), field.getValue().asText()));
+		}
+		return result.get("benchmark").asText() + (params.isEmpty() ? "" : params.toString());
+	}
+
+}
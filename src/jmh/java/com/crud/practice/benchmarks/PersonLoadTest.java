@@ -0,0 +1,379 @@
+package com.crud.practice.benchmarks;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.crud.practice.dto.PersonDTO;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+
+/**
+ * Teste de carga HTTP do CRUD de pessoas. Sobe a aplicação com Tomcat sobre um
+ * H2 em memória, popula {@code persons} pessoas e dispara uma mistura de
+ * GET /persons, GET /persons/{id}, POST, PUT e DELETE a uma taxa fixa.
+ *
+ * <p>As chegadas seguem um modelo aberto (intervalos exponenciais, como um
+ * processo de Poisson): uma requisição atrasada não segura as próximas, e a
+ * latência é medida a partir do instante em que a requisição deveria ter
+ * saído, para não esconder filas (coordinated omission). O resultado é um JSON
+ * com vazão e percentis HdrHistogram por operação.
+ *
+ * <p>Opções no formato {@code chave=valor}, todas opcionais:
+ * <ul>
+ * <li>{@code persons=10000} pessoas na base</li>
+ * <li>{@code rate=200} requisições por segundo</li>
+ * <li>{@code warmup=10} e {@code duration=30} segundos</li>
+ * <li>{@code mix=list:10,get:60,post:10,put:15,delete:5} pesos por operação</li>
+ * <li>{@code max-in-flight=512} requisições pendentes; acima disso as chegadas
+ * são descartadas e contadas em {@code dropped}</li>
+ * <li>{@code async=false} usa /async/persons em vez de /persons</li>
+ * <li>{@code out=target/load-report.json}</li>
+ * </ul>
+ *
+ * <p>DELETE remove pessoas criadas pelos POSTs da própria execução; enquanto
+ * não houver nenhuma, a chegada vira um POST.
+ */
+public final class PersonLoadTest {
+
+	private static final int PAGE_SIZE = 20;
+
+	private static final long HIGHEST_TRACKABLE_MICROS = TimeUnit.MINUTES.toMicros(1);
+
+	private static final double[] PERCENTILES = { 50.0, 90.0, 95.0, 99.0, 99.9, 99.99 };
+
+	enum Operation {
+		LIST, GET, POST, PUT, DELETE
+	}
+
+	private final int persons;
+
+	private final double rate;
+
+	private final Duration warmup;
+
+	private final Duration duration;
+
+	private final Map<Operation, Integer> mix;
+
+	private final int totalWeight;
+
+	private final String basePath;
+
+	private final ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule())
+			.disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+
+	private final HttpClient client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1)
+			.connectTimeout(Duration.ofSeconds(5)).build();
+
+	private final int maxInFlight;
+
+	private final Semaphore inFlight;
+
+	private final Map<Operation, Stats> stats = new EnumMap<>(Operation.class);
+
+	private final ConcurrentLinkedQueue<Long> createdIds = new ConcurrentLinkedQueue<>();
+
+	private final AtomicLong cpfSequence = new AtomicLong(90_000_000_000L);
+
+	private String baseUrl;
+
+	private volatile long measureStartNanos;
+
+	private PersonLoadTest(Map<String, String> options) {
+		persons = Integer.parseInt(options.getOrDefault("persons", "10000"));
+		rate = Double.parseDouble(options.getOrDefault("rate", "200"));
+		warmup = Duration.ofSeconds(Long.parseLong(options.getOrDefault("warmup", "10")));
+		duration = Duration.ofSeconds(Long.parseLong(options.getOrDefault("duration", "30")));
+		mix = parseMix(options.getOrDefault("mix", "list:10,get:60,post:10,put:15,delete:5"));
+		totalWeight = mix.values().stream().mapToInt(Integer::intValue).sum();
+		basePath = Boolean.parseBoolean(options.getOrDefault("async", "false")) ? "/async/persons" : "/persons";
+		maxInFlight = Integer.parseInt(options.getOrDefault("max-in-flight", "512"));
+		inFlight = new Semaphore(maxInFlight);
+		for (Operation operation : Operation.values()) {
+			stats.put(operation, new Stats());
+		}
+	}
+
+	public static void main(String[] args) throws Exception {
+		Map<String, String> options = new LinkedHashMap<>();
+		for (String arg : args) {
+			int separator = arg.indexOf('=');
+			if (separator < 0) {
+				System.err.println("Opção inválida, use chave=valor: " + arg);
+				System.exit(2);
+			}
+			options.put(arg.substring(0, separator), arg.substring(separator + 1));
+		}
+		PersonLoadTest loadTest = new PersonLoadTest(options);
+		try (ConfigurableApplicationContext context = BenchmarkApplication.startWeb("person-load-test")) {
+			BenchmarkApplication.seed(context.getBean(JdbcTemplate.class), loadTest.persons);
+			loadTest.baseUrl = "http://localhost:" + context.getEnvironment().getProperty("local.server.port");
+			Map<String, Object> report = loadTest.run();
+			File out = new File(options.getOrDefault("out", "target/load-report.json"));
+			out.getAbsoluteFile().getParentFile().mkdirs();
+			loadTest.objectMapper.writerWithDefaultPrettyPrinter().writeValue(out, report);
+			printSummary(report);
+			System.out.println("Relatório gravado em " + out.getPath());
+		}
+		System.exit(0);
+	}
+
+	private Map<String, Object> run() throws InterruptedException {
+		long start = System.nanoTime();
+		measureStartNanos = start + warmup.toNanos();
+		long end = measureStartNanos + duration.toNanos();
+		double meanIntervalNanos = TimeUnit.SECONDS.toNanos(1) / rate;
+		long intended = start;
+		while (true) {
+			intended += (long) (-Math.log(1.0 - ThreadLocalRandom.current().nextDouble()) * meanIntervalNanos);
+			if (intended >= end) {
+				break;
+			}
+			long wait = intended - System.nanoTime();
+			if (wait > 0) {
+				LockSupport.parkNanos(wait);
+			}
+			fire(pickOperation(), intended);
+		}
+		// espera as requisições pendentes terminarem antes de fechar os números
+		if (!inFlight.tryAcquire(maxInFlight, 60, TimeUnit.SECONDS)) {
+			System.err.printf("%d requisições ainda pendentes após 60s%n", maxInFlight - inFlight.availablePermits());
+		}
+		return report();
+	}
+
+	private void fire(Operation operation, long intendedNanos) {
+		if (operation == Operation.DELETE && createdIds.isEmpty()) {
+			operation = Operation.POST;
+		}
+		boolean measured = intendedNanos >= measureStartNanos;
+		Stats operationStats = stats.get(operation);
+		if (!inFlight.tryAcquire()) {
+			if (measured) {
+				operationStats.dropped.increment();
+			}
+			return;
+		}
+		HttpRequest request;
+		try {
+			request = request(operation);
+		} catch (IOException e) {
+			inFlight.release();
+			throw new IllegalStateException(e);
+		}
+		Operation sent = operation;
+		client.sendAsync(request, HttpResponse.BodyHandlers.ofString()).whenComplete((response, error) -> {
+			try {
+				long latencyMicros = TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - intendedNanos);
+				if (response != null && sent == Operation.POST && response.statusCode() == 201) {
+					rememberCreated(response.body());
+				}
+				if (measured) {
+					operationStats.record(latencyMicros, response != null ? response.statusCode() : -1);
+				}
+			} finally {
+				inFlight.release();
+			}
+		});
+	}
+
+	private HttpRequest request(Operation operation) throws IOException {
+		ThreadLocalRandom random = ThreadLocalRandom.current();
+		HttpRequest.Builder builder = HttpRequest.newBuilder().timeout(Duration.ofSeconds(30))
+				.header("Accept", "application/json");
+		switch (operation) {
+		case LIST:
+			return builder.uri(uri(basePath + "?size=" + PAGE_SIZE + "&page=" + random.nextInt(Math.max(1, persons / PAGE_SIZE))))
+					.GET().build();
+		case GET:
+			return builder.uri(uri(basePath + "/" + randomSeededId())).GET().build();
+		case POST:
+			return builder.uri(uri(basePath)).header("Content-Type", "application/json")
+					.POST(body(person(cpf(cpfSequence.incrementAndGet())))).build();
+		case PUT:
+			long id = randomSeededId();
+			return builder.uri(uri(basePath + "/" + id)).header("Content-Type", "application/json")
+					.PUT(body(person(cpf(id)))).build();
+		case DELETE:
+			Long created = createdIds.poll();
+			return builder.uri(uri(basePath + "/" + created)).DELETE().build();
+		default:
+			throw new IllegalArgumentException(operation.name());
+		}
+	}
+
+	private HttpRequest.BodyPublisher body(PersonDTO dto) throws IOException {
+		return HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(dto));
+	}
+
+	private void rememberCreated(String body) {
+		try {
+			createdIds.add(objectMapper.readTree(body).get("id").asLong());
+		} catch (IOException e) {
+			// corpo inesperado: a pessoa só não entra na fila de DELETE
+		}
+	}
+
+	private PersonDTO person(String cpf) {
+		int n = ThreadLocalRandom.current().nextInt(1_000_000);
+		return new PersonDTO(null, "Carga " + n, cpf, "(75)98129-0360",
+				Instant.parse("1990-01-01T00:00:00Z").plus(Duration.ofDays(n % 10000)), "Rua " + n + ", bairro Carga", null);
+	}
+
+	private long randomSeededId() {
+		return BenchmarkApplication.FIRST_SEEDED_ID + ThreadLocalRandom.current().nextInt(persons);
+	}
+
+	/** Mesmo formato dos CPFs gerados por {@link BenchmarkApplication#seed}. */
+	private static String cpf(long number) {
+		String digits = String.format("%011d", number);
+		return digits.substring(0, 3) + "." + digits.substring(3, 6) + "." + digits.substring(6, 9) + "-"
+				+ digits.substring(9);
+	}
+
+	private URI uri(String path) {
+		return URI.create(baseUrl + path);
+	}
+
+	private Operation pickOperation() {
+		int roll = ThreadLocalRandom.current().nextInt(totalWeight);
+		for (Map.Entry<Operation, Integer> entry : mix.entrySet()) {
+			roll -= entry.getValue();
+			if (roll < 0) {
+				return entry.getKey();
+			}
+		}
+		throw new IllegalStateException();
+	}
+
+	private static Map<Operation, Integer> parseMix(String value) {
+		Map<Operation, Integer> mix = new EnumMap<>(Operation.class);
+		for (String part : value.split(",")) {
+			String[] entry = part.trim().split(":");
+			int weight = Integer.parseInt(entry[1]);
+			if (weight > 0) {
+				mix.put(Operation.valueOf(entry[0].toUpperCase()), weight);
+			}
+		}
+		if (mix.isEmpty()) {
+			throw new IllegalArgumentException("mix sem operações: " + value);
+		}
+		return mix;
+	}
+
+	private Map<String, Object> report() {
+		double seconds = duration.toMillis() / 1000.0;
+		Histogram total = new Histogram(HIGHEST_TRACKABLE_MICROS, 3);
+		Map<String, Object> operations = new LinkedHashMap<>();
+		long requests = 0;
+		for (Map.Entry<Operation, Stats> entry : stats.entrySet()) {
+			Histogram histogram = entry.getValue().recorder.getIntervalHistogram();
+			total.add(histogram);
+			requests += histogram.getTotalCount();
+			Map<String, Object> operation = summary(histogram, seconds);
+			operation.put("dropped", entry.getValue().dropped.sum());
+			operation.put("statuses", entry.getValue().statuses());
+			operations.put(entry.getKey().name().toLowerCase(), operation);
+		}
+
+		Map<String, Object> config = new LinkedHashMap<>();
+		config.put("persons", persons);
+		config.put("targetRate", rate);
+		config.put("warmupSeconds", warmup.getSeconds());
+		config.put("durationSeconds", duration.getSeconds());
+		config.put("basePath", basePath);
+		Map<String, Integer> weights = new LinkedHashMap<>();
+		mix.forEach((operation, weight) -> weights.put(operation.name().toLowerCase(), weight));
+		config.put("mix", weights);
+
+		Map<String, Object> report = new LinkedHashMap<>();
+		report.put("config", config);
+		report.put("requests", requests);
+		report.put("overall", summary(total, seconds));
+		report.put("operations", operations);
+		return report;
+	}
+
+	private static Map<String, Object> summary(Histogram histogram, double seconds) {
+		Map<String, Object> summary = new LinkedHashMap<>();
+		summary.put("count", histogram.getTotalCount());
+		summary.put("throughput", round(histogram.getTotalCount() / seconds));
+		Map<String, Object> latency = new LinkedHashMap<>();
+		latency.put("mean", millis(histogram.getMean()));
+		for (double percentile : PERCENTILES) {
+			latency.put("p" + (percentile == Math.rint(percentile) ? String.valueOf((int) percentile) : String.valueOf(percentile)),
+					millis(histogram.getValueAtPercentile(percentile)));
+		}
+		latency.put("max", millis(histogram.getMaxValue()));
+		summary.put("latencyMs", latency);
+		return summary;
+	}
+
+	private static double millis(double micros) {
+		return round(micros / 1000.0);
+	}
+
+	private static double round(double value) {
+		return Math.round(value * 1000.0) / 1000.0;
+	}
+
+	@SuppressWarnings("unchecked")
+	private static void printSummary(Map<String, Object> report) {
+		System.out.printf("%-8s %10s %10s %10s %10s %10s %10s%n", "op", "req/s", "p50 ms", "p99 ms", "p99.9 ms",
+				"max ms", "dropped");
+		Map<String, Object> rows = new LinkedHashMap<>((Map<String, Object>) report.get("operations"));
+		rows.put("overall", report.get("overall"));
+		rows.forEach((name, value) -> {
+			Map<String, Object> row = (Map<String, Object>) value;
+			Map<String, Object> latency = (Map<String, Object>) row.get("latencyMs");
+			System.out.printf("%-8s %10s %10s %10s %10s %10s %10s%n", name, row.get("throughput"), latency.get("p50"),
+					latency.get("p99"), latency.get("p99.9"), latency.get("max"), row.getOrDefault("dropped", "-"));
+		});
+	}
+
+	private static final class Stats {
+
+		private final Recorder recorder = new Recorder(HIGHEST_TRACKABLE_MICROS, 3);
+
+		private final LongAdder dropped = new LongAdder();
+
+		private final ConcurrentHashMap<Integer, LongAdder> statuses = new ConcurrentHashMap<>();
+
+		void record(long latencyMicros, int status) {
+			recorder.recordValue(Math.min(latencyMicros, HIGHEST_TRACKABLE_MICROS));
+			statuses.computeIfAbsent(status, key -> new LongAdder()).increment();
+		}
+
+		Map<String, Long> statuses() {
+			Map<String, Long> result = new TreeMap<>();
+			statuses.forEach((status, count) -> result.put(status < 0 ? "error" : String.valueOf(status), count.sum()));
+			return result;
+		}
+
+	}
+
+}
@@ -0,0 +1,125 @@
+package com.crud.practice.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import com.crud.practice.config.WebConfig;
+import com.crud.practice.tests.Factory;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.ser.impl.SimpleBeanPropertyFilter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
+
+/**
+ * Serialização Jackson com a mesma configuração que o Spring Boot aplica ao
+ * ObjectMapper da aplicação, em JSON e CBOR, do PageImpl, do envelope
+ * enxuto e da página esparsa de ?fields=id,name. O tamanho de cada payload é
+ * impresso no setup.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PersonSerializationBenchmark {
+
+	private static final int PAGE_SIZE = 20;
+
+	private ObjectMapper objectMapper;
+
+	private ObjectMapper cborMapper;
+
+	private PersonDTO dto;
+
+	private Page<PersonDTO> page;
+
+	private PersonPageDTO slimPage;
+
+	private Page<PersonDTO> sparsePage;
+
+	private ObjectWriter sparseWriter;
+
+	@Setup
+	public void setUp() {
+		Jackson2ObjectMapperBuilder jsonBuilder = Jackson2ObjectMapperBuilder.json()
+				.featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+		WebConfig.personFieldsFilterCustomizer().customize(jsonBuilder);
+		objectMapper = jsonBuilder.build();
+		sparseWriter = objectMapper.writer(new SimpleFilterProvider().addFilter(WebConfig.PERSON_FIELDS_FILTER,
+				SimpleBeanPropertyFilter.filterOutAllExcept("id", "name")));
+		dto = Factory.creatPersonDTO();
+		List<PersonDTO> content = new ArrayList<>(PAGE_SIZE);
+		for (int i = 0; i < PAGE_SIZE; i++) {
+			content.add(Factory.creatPersonDTO());
+		}
+		page = new PageImpl<>(content, PageRequest.of(0, PAGE_SIZE), 1_000_000L);
+		slimPage = new PersonPageDTO(page);
+		sparsePage = page.map(full -> {
+			PersonDTO sparse = new PersonDTO();
+			sparse.setId(full.getId());
+			sparse.setName(full.getName());
+			return sparse;
+		});
+		Jackson2ObjectMapperBuilder cborBuilder = Jackson2ObjectMapperBuilder.cbor()
+				.featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+		WebConfig.personFieldsFilterCustomizer().customize(cborBuilder);
+		cborMapper = cborBuilder.build();
+		try {
+			System.out.printf("payload bytes: page json=%d, slim json=%d, page cbor=%d, slim cbor=%d, sparse json=%d%n",
+					serializePage().length, serializeSlimPage().length, serializePageCbor().length,
+					serializeSlimPageCbor().length, serializeSparsePage().length);
+		} catch (JsonProcessingException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	@Benchmark
+	public byte[] serializePersonDTO() throws JsonProcessingException {
+		return objectMapper.writeValueAsBytes(dto);
+	}
+
+	@Benchmark
+	public byte[] serializePage() throws JsonProcessingException {
+		return objectMapper.writeValueAsBytes(page);
+	}
+
+	@Benchmark
+	public byte[] serializeSlimPage() throws JsonProcessingException {
+		return objectMapper.writeValueAsBytes(slimPage);
+	}
+
+	@Benchmark
+	public byte[] serializeSparsePage() throws JsonProcessingException {
+		return sparseWriter.writeValueAsBytes(sparsePage);
+	}
+
+	@Benchmark
+	public byte[] serializePageCbor() throws JsonProcessingException {
+		return cborMapper.writeValueAsBytes(page);
+	}
+
+	@Benchmark
+	public byte[] serializeSlimPageCbor() throws JsonProcessingException {
+		return cborMapper.writeValueAsBytes(slimPage);
+	}
+
+}
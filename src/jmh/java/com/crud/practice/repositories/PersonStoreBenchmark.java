@@ -0,0 +1,110 @@
+package com.crud.practice.repositories;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.crud.practice.benchmarks.BenchmarkApplication;
+import com.crud.practice.dto.PersonDTO;
+
+/**
+ * Leitura por id pelo caminho JPA/H2 ({@link PersonRepository#findDTOById})
+ * contra o {@link MappedPersonStore} com os mesmos dados, e o custo de
+ * acrescentar uma versão nova ao log (inclui as compactações que ela
+ * dispara). Rode com {@code -prof gc} para comparar a alocação por leitura.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = { "-Xms2g", "-Xmx2g" })
+public class PersonStoreBenchmark {
+
+	private static final int LOAD_CHUNK = 5000;
+
+	@Param({ "10000", "100000", "1000000" })
+	public int persons;
+
+	private ConfigurableApplicationContext context;
+
+	private PersonRepository repository;
+
+	private Path directory;
+
+	private MappedPersonStore store;
+
+	private final AtomicLong version = new AtomicLong();
+
+	@Setup(Level.Trial)
+	public void setUp() throws IOException {
+		context = BenchmarkApplication.start("person-store-benchmark");
+		BenchmarkApplication.seed(context.getBean(JdbcTemplate.class), persons);
+		repository = context.getBean(PersonRepository.class);
+		directory = Files.createTempDirectory("person-store-benchmark");
+		store = new MappedPersonStore(directory, 64 << 20, 0.5, false);
+		for (long from = 0; from < persons; from += LOAD_CHUNK) {
+			List<Long> ids = LongStream.range(from, Math.min(from + LOAD_CHUNK, persons))
+					.mapToObj(i -> BenchmarkApplication.FIRST_SEEDED_ID + i).collect(Collectors.toList());
+			store.saveAll(repository.findAllDTOByIdIn(ids));
+		}
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() throws IOException {
+		store.close();
+		context.close();
+		try (Stream<Path> files = Files.walk(directory)) {
+			for (Path file : files.sorted(Comparator.reverseOrder()).collect(Collectors.toList())) {
+				Files.delete(file);
+			}
+		}
+	}
+
+	@Benchmark
+	public Optional<PersonDTO> jpaFindDTOById() {
+		return repository.findDTOById(randomId());
+	}
+
+	@Benchmark
+	public Optional<PersonDTO> storeFindDTOById() {
+		return store.findDTOById(randomId());
+	}
+
+	@Benchmark
+	public void storeSave() {
+		PersonDTO dto = store.findDTOById(randomId()).get();
+		dto.setVersion(version.incrementAndGet());
+		store.saveAll(List.of(dto));
+	}
+
+	private long randomId() {
+		return BenchmarkApplication.FIRST_SEEDED_ID + ThreadLocalRandom.current().nextInt(persons);
+	}
+
+}
@@ -0,0 +1,74 @@
+package com.crud.practice.services;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.crud.practice.benchmarks.BenchmarkApplication;
+import com.crud.practice.dto.PersonDTO;
+import com.crud.practice.entities.Person;
+import com.crud.practice.tests.Factory;
+
+/**
+ * Vazão de inserções concorrentes com um commit por pessoa
+ * ({@code PersonService.insert}) e com o {@link PersonInsertCoalescer}, que
+ * junta as chamadas em transações maiores. Rode com {@code -t} maior para ver
+ * o efeito da concorrência.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(32)
+@Fork(value = 1, jvmArgs = { "-Xms2g", "-Xmx2g" })
+public class PersonInsertCoalescingBenchmark {
+
+	@Param({ "direct", "coalesced" })
+	public String mode;
+
+	private ConfigurableApplicationContext context;
+
+	private PersonService service;
+
+	private PersonInsertCoalescer coalescer;
+
+	private final AtomicLong cpfSequence = new AtomicLong(90_000_000_000L);
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		context = BenchmarkApplication.start("person-insert-coalescing-benchmark",
+				"app.person.insert-coalescing.enabled=" + "coalesced".equals(mode));
+		service = context.getBean(PersonService.class);
+		coalescer = "coalesced".equals(mode) ? context.getBean(PersonInsertCoalescer.class) : null;
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		context.close();
+	}
+
+	@Benchmark
+	public PersonDTO insert() {
+		Person person = Factory.createPersonNullId();
+		person.setCpf(Long.toString(cpfSequence.incrementAndGet()));
+		PersonDTO dto = new PersonDTO(person);
+		return coalescer != null ? coalescer.insert(dto) : service.insert(dto);
+	}
+
+}
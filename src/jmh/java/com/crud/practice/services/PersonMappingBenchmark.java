@@ -0,0 +1,52 @@
+package com.crud.practice.services;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.crud.practice.dto.PersonDTO;
+import com.crud.practice.entities.Person;
+import com.crud.practice.tests.Factory;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PersonMappingBenchmark {
+
+	private final PersonService service = new PersonService();
+
+	private Person person;
+
+	private PersonDTO dto;
+
+	@Setup
+	public void setUp() {
+		person = Factory.createPerson();
+		dto = Factory.creatPersonDTO();
+	}
+
+	@Benchmark
+	public PersonDTO personToDTO() {
+		return new PersonDTO(person);
+	}
+
+	@Benchmark
+	public Person copyDTOtoEntity() {
+		Person entity = new Person();
+		service.copyDTOtoEntity(entity, dto);
+		return entity;
+	}
+
+}
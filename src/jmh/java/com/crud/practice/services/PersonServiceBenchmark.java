@@ -0,0 +1,147 @@
+package com.crud.practice.services;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.crud.practice.benchmarks.BenchmarkApplication;
+import com.crud.practice.dto.PersonCursorPageDTO;
+import com.crud.practice.dto.PersonDTO;
+import com.crud.practice.entities.Person;
+import com.crud.practice.repositories.PersonRepository;
+import com.crud.practice.tests.Factory;
+
+/**
+ * Caminhos quentes do {@link PersonService} contra H2 em memória com
+ * 10k/100k/1M pessoas. Os métodos "ThroughEntity" refazem a leitura antiga
+ * (entidade gerenciada + cópia para DTO) para comparar com as projeções;
+ * rode com {@code -prof gc} para ver a alocação por operação. Os métodos
+ * "Fields" leem só id e name, como em ?fields=id,name. O cache de segundo
+ * nível fica desligado por padrão; {@code -p secondLevelCache=true,false}
+ * compara as duas situações.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = { "-Xms2g", "-Xmx2g" })
+public class PersonServiceBenchmark {
+
+	private static final int PAGE_SIZE = 20;
+
+	private static final Set<String> ID_AND_NAME = PersonService.parseFields("id,name");
+
+	@Param({ "10000", "100000", "1000000" })
+	public int persons;
+
+	@Param({ "false" })
+	public boolean secondLevelCache;
+
+	private ConfigurableApplicationContext context;
+
+	private PersonService service;
+
+	private PersonRepository repository;
+
+	private final AtomicLong cpfSequence = new AtomicLong(90_000_000_000L);
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		context = BenchmarkApplication.start("person-service-benchmark",
+				"app.person.l2-cache.enabled=" + secondLevelCache);
+		BenchmarkApplication.seed(context.getBean(JdbcTemplate.class), persons);
+		service = context.getBean(PersonService.class);
+		repository = context.getBean(PersonRepository.class);
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		context.close();
+	}
+
+	@Benchmark
+	public PersonDTO findById() {
+		return service.findById(randomId());
+	}
+
+	@Benchmark
+	public PersonDTO findByIdThroughEntity() {
+		return new PersonDTO(repository.findById(randomId()).get());
+	}
+
+	@Benchmark
+	public Page<PersonDTO> findAllPaged() {
+		return service.findAllPaged(PageRequest.of(randomPage(), PAGE_SIZE));
+	}
+
+	@Benchmark
+	public Slice<PersonDTO> findAllSliced() {
+		return service.findAllSliced(PageRequest.of(randomPage(), PAGE_SIZE));
+	}
+
+	@Benchmark
+	public Page<PersonDTO> findAllFieldsIdAndName() {
+		return service.findAllFields(ID_AND_NAME, null, null, PageRequest.of(randomPage(), PAGE_SIZE));
+	}
+
+	@Benchmark
+	public PersonDTO findByIdFieldsIdAndName() {
+		return service.findByIdFields(randomId(), ID_AND_NAME);
+	}
+
+	@Benchmark
+	public Page<PersonDTO> findAllPagedThroughEntity() {
+		return repository.findAll(PageRequest.of(randomPage(), PAGE_SIZE)).map(PersonDTO::new);
+	}
+
+	@Benchmark
+	public PersonCursorPageDTO findAllByCursor() {
+		String after = Base64.getUrlEncoder().withoutPadding()
+				.encodeToString(Long.toString(randomId()).getBytes(StandardCharsets.UTF_8));
+		return service.findAllByCursor(after, PAGE_SIZE);
+	}
+
+	@Benchmark
+	public Page<PersonDTO> search() {
+		return service.search("mar silv", PageRequest.of(0, PAGE_SIZE));
+	}
+
+	@Benchmark
+	public PersonDTO insert() {
+		Person person = Factory.createPersonNullId();
+		person.setCpf(Long.toString(cpfSequence.incrementAndGet()));
+		return service.insert(new PersonDTO(person));
+	}
+
+	private long randomId() {
+		return BenchmarkApplication.FIRST_SEEDED_ID + ThreadLocalRandom.current().nextInt(persons);
+	}
+
+	private int randomPage() {
+		return ThreadLocalRandom.current().nextInt(persons / PAGE_SIZE);
+	}
+
+}
@@ -0,0 +1,68 @@
+package com.crud.practice.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+
+@Configuration
+public class AsyncConfig {
+
+	public static final String PERSON_EXECUTOR = "personTaskExecutor";
+
+	public static final String PERSON_IMPORT_EXECUTOR = "personImportExecutor";
+
+	public static final String PERSON_CHANGES_SCHEDULER = "personChangesScheduler";
+
+	/**
+	 * Bulkhead do banco: no máximo uma thread por conexão do pool e uma fila
+	 * limitada. Quando a fila enche, a submissão falha com
+	 * TaskRejectedException em vez de acumular requisições. As tarefas levam o
+	 * cliente da requisição para o roteamento entre primário e réplica.
+	 */
+	@Bean(name = PERSON_EXECUTOR)
+	public ThreadPoolTaskExecutor personTaskExecutor(
+			@Value("${app.person.async.pool-size:${spring.datasource.hikari.maximum-pool-size:10}}") int poolSize,
+			@Value("${app.person.async.queue-capacity:100}") int queueCapacity) {
+		ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+		executor.setCorePoolSize(poolSize);
+		executor.setMaxPoolSize(poolSize);
+		executor.setQueueCapacity(queueCapacity);
+		executor.setThreadNamePrefix("person-db-");
+		executor.setTaskDecorator(ReadWriteRoutingDataSource::propagateClient);
+		executor.setWaitForTasksToCompleteOnShutdown(true);
+		return executor;
+	}
+
+	/**
+	 * Importações de CSV são longas; ficam em um executor próprio para não
+	 * ocupar o bulkhead das requisições.
+	 */
+	@Bean(name = PERSON_IMPORT_EXECUTOR)
+	public ThreadPoolTaskExecutor personImportExecutor(
+			@Value("${app.person.import.concurrency:1}") int concurrency,
+			@Value("${app.person.import.queue-capacity:10}") int queueCapacity) {
+		ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+		executor.setCorePoolSize(concurrency);
+		executor.setMaxPoolSize(concurrency);
+		executor.setQueueCapacity(queueCapacity);
+		executor.setThreadNamePrefix("person-import-");
+		return executor;
+	}
+
+	/**
+	 * Consulta o change log para as conexões SSE. Cada conexão é uma tarefa
+	 * periódica curta, então poucas threads atendem muitos assinantes.
+	 */
+	@Bean(name = PERSON_CHANGES_SCHEDULER)
+	public ThreadPoolTaskScheduler personChangesScheduler(
+			@Value("${app.person.changes.stream.pool-size:2}") int poolSize) {
+		ThreadPoolTaskScheduler scheduler = new ThreadPoolTaskScheduler();
+		scheduler.setPoolSize(poolSize);
+		scheduler.setThreadNamePrefix("person-changes-");
+		scheduler.setRemoveOnCancelPolicy(true);
+		return scheduler;
+	}
+
+}
@@ -0,0 +1,12 @@
+package com.crud.practice.config;
+
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@EnableCaching
+public class CacheConfig {
+
+	public static final String PERSONS_CACHE = "persons";
+
+}
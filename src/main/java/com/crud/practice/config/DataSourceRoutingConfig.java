@@ -0,0 +1,74 @@
+package com.crud.practice.config;
+
+import java.time.Duration;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+/**
+ * Separa leitura e escrita entre dois pools quando
+ * app.datasource.replica.enabled=true. O primário usa spring.datasource.* e a
+ * réplica app.datasource.replica.*; sem a propriedade, o DataSource
+ * auto-configurado do Spring Boot continua sendo usado.
+ */
+@Configuration
+@ConditionalOnProperty(name = "app.datasource.replica.enabled", havingValue = "true")
+public class DataSourceRoutingConfig {
+
+	@Bean
+	@ConfigurationProperties("spring.datasource.hikari")
+	public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+		HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+		dataSource.setPoolName("primary");
+		return dataSource;
+	}
+
+	/**
+	 * Não falha na subida quando a réplica está fora; as leituras caem no
+	 * primário até ela voltar.
+	 */
+	@Bean
+	@ConfigurationProperties("app.datasource.replica.hikari")
+	public HikariDataSource replicaDataSource(
+			@Value("${app.datasource.replica.url}") String url,
+			@Value("${app.datasource.replica.username:${spring.datasource.username:}}") String username,
+			@Value("${app.datasource.replica.password:${spring.datasource.password:}}") String password) {
+		HikariDataSource dataSource = DataSourceBuilder.create().type(HikariDataSource.class)
+				.url(url).username(username).password(password).build();
+		dataSource.setPoolName("replica");
+		dataSource.setReadOnly(true);
+		dataSource.setInitializationFailTimeout(-1);
+		return dataSource;
+	}
+
+	@Bean
+	@Primary
+	public DataSource dataSource(@Qualifier("primaryDataSource") DataSource primary,
+			@Qualifier("replicaDataSource") DataSource replica,
+			@Value("${app.datasource.replica.lag-window:0s}") Duration lagWindow,
+			@Value("${app.datasource.replica.retry-interval:30s}") Duration retryInterval) {
+		ReadWriteRoutingDataSource routing = new ReadWriteRoutingDataSource(primary, replica);
+		routing.setLagWindow(lagWindow);
+		routing.setRetryInterval(retryInterval);
+		return new LazyConnectionDataSourceProxy(routing);
+	}
+
+	@Bean
+	public ReadYourWritesFilter readYourWritesFilter(
+			@Value("${app.datasource.replica.lag-window:0s}") Duration lagWindow) {
+		return new ReadYourWritesFilter(lagWindow);
+	}
+
+}
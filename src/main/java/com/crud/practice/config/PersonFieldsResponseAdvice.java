@@ -0,0 +1,70 @@
+package com.crud.practice.config;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Parameter;
+
+import javax.servlet.http.HttpServletRequest;
+
+import org.springframework.core.MethodParameter;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.json.MappingJacksonValue;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.http.server.ServletServerHttpRequest;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.servlet.mvc.method.annotation.AbstractMappingJacksonResponseBodyAdvice;
+
+import com.crud.practice.controllers.PersonAsyncController;
+import com.crud.practice.controllers.PersonController;
+import com.crud.practice.services.PersonService;
+import com.fasterxml.jackson.databind.ser.impl.SimpleBeanPropertyFilter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
+
+/**
+ * Nos GETs de {@link PersonController} e {@link PersonAsyncController} que
+ * aceitam o parâmetro {@value #FIELDS_PARAM}, escreve de cada pessoa apenas as
+ * propriedades pedidas, em JSON ou CBOR. Os campos não selecionados no banco chegam nulos e
+ * também ficam fora da resposta. As demais rotas ignoram o parâmetro.
+ */
+@ControllerAdvice(assignableTypes = { PersonController.class, PersonAsyncController.class })
+public class PersonFieldsResponseAdvice extends AbstractMappingJacksonResponseBodyAdvice {
+
+	public static final String FIELDS_PARAM = "fields";
+
+	@Override
+	public boolean supports(MethodParameter returnType, Class<? extends HttpMessageConverter<?>> converterType) {
+		return super.supports(returnType, converterType) && acceptsFields(returnType.getMethod());
+	}
+
+	@Override
+	protected void beforeBodyWriteInternal(MappingJacksonValue bodyContainer, MediaType contentType,
+			MethodParameter returnType, ServerHttpRequest request, ServerHttpResponse response) {
+		if (request.getMethod() != HttpMethod.GET || !(request instanceof ServletServerHttpRequest)) {
+			return;
+		}
+		HttpServletRequest servletRequest = ((ServletServerHttpRequest) request).getServletRequest();
+		String fields = servletRequest.getParameter(FIELDS_PARAM);
+		if (fields == null) {
+			return;
+		}
+		bodyContainer.setFilters(new SimpleFilterProvider().addFilter(WebConfig.PERSON_FIELDS_FILTER,
+				SimpleBeanPropertyFilter.filterOutAllExcept(PersonService.parseFields(fields))));
+	}
+
+	private static boolean acceptsFields(Method method) {
+		if (method == null) {
+			return false;
+		}
+		for (Parameter parameter : method.getParameters()) {
+			RequestParam param = parameter.getAnnotation(RequestParam.class);
+			if (param != null && (FIELDS_PARAM.equals(param.value()) || FIELDS_PARAM.equals(param.name()))) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+}
@@ -0,0 +1,70 @@
+package com.crud.practice.config;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.unit.DataSize;
+
+import com.crud.practice.dto.PersonDTO;
+import com.crud.practice.repositories.MappedPersonStore;
+import com.crud.practice.repositories.PersonRepository;
+import com.crud.practice.services.PersonChangeService;
+
+/**
+ * Com o profile {@value #MAPPED_STORE_PROFILE}, as leituras por id do
+ * PersonService saem de um {@link MappedPersonStore} em
+ * app.person.store.directory. Um store vazio é preenchido a partir do banco
+ * antes de a aplicação começar a atender, e o
+ * {@link com.crud.practice.services.PersonStoreSynchronizer} segue o change log
+ * a partir da última mudança visível antes da carga; para reconstruí-lo basta
+ * apagar o diretório.
+ */
+@Configuration
+@Profile(PersonStoreConfig.MAPPED_STORE_PROFILE)
+public class PersonStoreConfig {
+
+	public static final String MAPPED_STORE_PROFILE = "mapped-store";
+
+	private static final int BOOTSTRAP_BATCH_SIZE = 1000;
+
+	@Bean(destroyMethod = "close")
+	public MappedPersonStore personStore(PersonRepository repository, PersonChangeService changeService,
+			TransactionTemplate transactionTemplate, @Value("${app.person.store.directory}") Path directory,
+			@Value("${app.person.store.initial-size:16MB}") DataSize initialSize,
+			@Value("${app.person.store.compaction-threshold:0.5}") double compactionThreshold,
+			@Value("${app.person.store.sync-writes:false}") boolean syncWrites) throws IOException {
+		MappedPersonStore store = new MappedPersonStore(directory, Math.toIntExact(initialSize.toBytes()),
+				compactionThreshold, syncWrites);
+		if (store.count() == 0 && store.findChangeToken().isEmpty()) {
+			String head = changeService.findHead();
+			bootstrap(store, repository, transactionTemplate);
+			store.saveChangeToken(head);
+		}
+		return store;
+	}
+
+	private static void bootstrap(MappedPersonStore store, PersonRepository repository,
+			TransactionTemplate transactionTemplate) {
+		long after = 0L;
+		List<PersonDTO> batch;
+		do {
+			long from = after;
+			batch = transactionTemplate.execute(status -> repository
+					.findByIdGreaterThanOrderByIdAsc(from, PageRequest.of(0, BOOTSTRAP_BATCH_SIZE)).stream()
+					.map(PersonDTO::new).collect(Collectors.toList()));
+			store.saveAll(batch);
+			if (!batch.isEmpty()) {
+				after = batch.get(batch.size() - 1).getId();
+			}
+		} while (batch.size() == BOOTSTRAP_BATCH_SIZE);
+	}
+
+}
@@ -0,0 +1,198 @@
+package com.crud.practice.config;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.Map;
+import java.util.function.LongConsumer;
+
+import javax.sql.DataSource;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Envia transações somente leitura para a réplica e todo o resto para o
+ * primário. Deve ficar atrás de um LazyConnectionDataSourceProxy, porque o
+ * flag de somente leitura só é publicado depois que a transação começa.
+ *
+ * Depois de um commit no primário, as leituras do mesmo cliente continuam no
+ * primário durante {@code lagWindow}, para não devolver dados anteriores à
+ * escrita; os demais clientes seguem na réplica. O cliente é a thread
+ * corrente, ou, em uma requisição HTTP, quem {@link ReadYourWritesFilter}
+ * associou a ela com {@link #bindClient(Long, LongConsumer)}. Se a réplica não
+ * entregar conexão, a leitura vai para o primário e a réplica só é tentada de
+ * novo depois de {@code retryInterval}.
+ *
+ * Resultados lidos da réplica não devem ir para caches compartilhados: ela pode
+ * estar atrás do primário, e o cache também atende quem precisa ler as
+ * próprias escritas. {@link #isCurrentTransactionOnReplica()} diz se a
+ * transação corrente já leu da réplica.
+ */
+public class ReadWriteRoutingDataSource extends AbstractRoutingDataSource {
+
+	private static final Logger LOG = LoggerFactory.getLogger(ReadWriteRoutingDataSource.class);
+
+	enum Route {
+		PRIMARY, REPLICA
+	}
+
+	private final DataSource primary;
+
+	private volatile Duration lagWindow = Duration.ZERO;
+
+	private volatile Duration retryInterval = Duration.ofSeconds(30);
+
+	private static final ThreadLocal<Long> CLIENT_LAST_WRITE_MILLIS = new ThreadLocal<>();
+
+	private static final ThreadLocal<LongConsumer> CLIENT_WRITE_LISTENER = new ThreadLocal<>();
+
+	private static final String REPLICA_READ = ReadWriteRoutingDataSource.class.getName() + ".REPLICA_READ";
+
+	private volatile long replicaDownUntilNanos = System.nanoTime();
+
+	public ReadWriteRoutingDataSource(DataSource primary, DataSource replica) {
+		this.primary = primary;
+		setTargetDataSources(Map.of(Route.PRIMARY, primary, Route.REPLICA, replica));
+		setDefaultTargetDataSource(primary);
+		afterPropertiesSet();
+	}
+
+	public void setLagWindow(Duration lagWindow) {
+		this.lagWindow = lagWindow;
+	}
+
+	public void setRetryInterval(Duration retryInterval) {
+		this.retryInterval = retryInterval;
+	}
+
+	/**
+	 * Associa à thread corrente um cliente que escreveu pela última vez em
+	 * {@code lastWriteMillis} (epoch, ou nulo se não se sabe). Cada novo commit
+	 * no primário é avisado a {@code onWrite}, que pode ser nulo.
+	 */
+	public static void bindClient(Long lastWriteMillis, LongConsumer onWrite) {
+		CLIENT_LAST_WRITE_MILLIS.set(lastWriteMillis);
+		CLIENT_WRITE_LISTENER.set(onWrite);
+	}
+
+	public static void unbindClient() {
+		CLIENT_LAST_WRITE_MILLIS.remove();
+		CLIENT_WRITE_LISTENER.remove();
+	}
+
+	/**
+	 * Registra para o cliente da thread corrente uma escrita confirmada em
+	 * {@code writtenAtMillis} e avisa o listener dele. Para escritas cujo
+	 * commit aconteceu em outra thread, como as inserções agrupadas.
+	 */
+	public static void recordClientWrite(long writtenAtMillis) {
+		CLIENT_LAST_WRITE_MILLIS.set(writtenAtMillis);
+		LongConsumer onWrite = CLIENT_WRITE_LISTENER.get();
+		if (onWrite != null) {
+			onWrite.accept(writtenAtMillis);
+		}
+	}
+
+	/**
+	 * Leva o cliente da thread que submete a tarefa para a thread que a
+	 * executa, para as escritas feitas pelos executores assíncronos.
+	 */
+	public static Runnable propagateClient(Runnable task) {
+		Long lastWriteMillis = CLIENT_LAST_WRITE_MILLIS.get();
+		LongConsumer onWrite = CLIENT_WRITE_LISTENER.get();
+		return () -> {
+			bindClient(lastWriteMillis, onWrite);
+			try {
+				task.run();
+			} finally {
+				unbindClient();
+			}
+		};
+	}
+
+	/**
+	 * Verdadeiro quando a transação corrente recebeu alguma conexão da réplica.
+	 * Com LazyConnectionDataSourceProxy a conexão só é pedida no primeiro
+	 * comando, então consulte depois da leitura.
+	 */
+	public static boolean isCurrentTransactionOnReplica() {
+		return TransactionSynchronizationManager.hasResource(REPLICA_READ);
+	}
+
+	@Override
+	protected Object determineCurrentLookupKey() {
+		Long lastWriteMillis = CLIENT_LAST_WRITE_MILLIS.get();
+		boolean replicaUsable = TransactionSynchronizationManager.isCurrentTransactionReadOnly()
+				&& System.nanoTime() - replicaDownUntilNanos >= 0
+				&& (lastWriteMillis == null || System.currentTimeMillis() - lastWriteMillis >= lagWindow.toMillis());
+		return replicaUsable ? Route.REPLICA : Route.PRIMARY;
+	}
+
+	@Override
+	public Connection getConnection() throws SQLException {
+		if (determineCurrentLookupKey() == Route.REPLICA) {
+			try {
+				Connection connection = determineTargetDataSource().getConnection();
+				recordReplicaRead();
+				return connection;
+			} catch (SQLException e) {
+				replicaDown(e);
+			}
+		}
+		recordWrite();
+		return primary.getConnection();
+	}
+
+	@Override
+	public Connection getConnection(String username, String password) throws SQLException {
+		if (determineCurrentLookupKey() == Route.REPLICA) {
+			try {
+				Connection connection = determineTargetDataSource().getConnection(username, password);
+				recordReplicaRead();
+				return connection;
+			} catch (SQLException e) {
+				replicaDown(e);
+			}
+		}
+		recordWrite();
+		return primary.getConnection(username, password);
+	}
+
+	private void replicaDown(SQLException e) {
+		replicaDownUntilNanos = System.nanoTime() + retryInterval.toNanos();
+		LOG.warn("Réplica indisponível, lendo do primário pelos próximos {}", retryInterval, e);
+	}
+
+	private void recordReplicaRead() {
+		if (!TransactionSynchronizationManager.isSynchronizationActive()
+				|| TransactionSynchronizationManager.hasResource(REPLICA_READ)) {
+			return;
+		}
+		TransactionSynchronizationManager.bindResource(REPLICA_READ, Boolean.TRUE);
+		TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+			@Override
+			public void afterCompletion(int status) {
+				TransactionSynchronizationManager.unbindResourceIfPossible(REPLICA_READ);
+			}
+		});
+	}
+
+	private void recordWrite() {
+		if (TransactionSynchronizationManager.isSynchronizationActive()
+				&& !TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+			TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+				@Override
+				public void afterCompletion(int status) {
+					if (status == STATUS_COMMITTED) {
+						recordClientWrite(System.currentTimeMillis());
+					}
+				}
+			});
+		}
+	}
+
+}
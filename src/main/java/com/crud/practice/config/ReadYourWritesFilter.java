@@ -0,0 +1,62 @@
+package com.crud.practice.config;
+
+import java.io.IOException;
+import java.time.Duration;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.Cookie;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.WebUtils;
+
+/**
+ * Guarda no cookie {@value #COOKIE} o instante (epoch em ms) do último commit
+ * feito pelo cliente e o devolve ao {@link ReadWriteRoutingDataSource} em cada
+ * requisição, para que só quem escreveu leia do primário durante a janela de
+ * atraso da réplica. O cookie expira junto com a janela. Instâncias diferentes
+ * comparam o instante com o próprio relógio, então a janela precisa cobrir
+ * também a diferença entre eles.
+ */
+public class ReadYourWritesFilter extends OncePerRequestFilter {
+
+	public static final String COOKIE = "last-write";
+
+	private final int maxAgeSeconds;
+
+	public ReadYourWritesFilter(Duration lagWindow) {
+		this.maxAgeSeconds = (int) Math.max(1, (lagWindow.toMillis() + 999) / 1000);
+	}
+
+	@Override
+	protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+			throws ServletException, IOException {
+		ReadWriteRoutingDataSource.bindClient(lastWriteMillis(request), writtenAt -> {
+			Cookie cookie = new Cookie(COOKIE, String.valueOf(writtenAt));
+			cookie.setPath("/");
+			cookie.setMaxAge(maxAgeSeconds);
+			cookie.setHttpOnly(true);
+			response.addCookie(cookie);
+		});
+		try {
+			filterChain.doFilter(request, response);
+		} finally {
+			ReadWriteRoutingDataSource.unbindClient();
+		}
+	}
+
+	private static Long lastWriteMillis(HttpServletRequest request) {
+		Cookie cookie = WebUtils.getCookie(request, COOKIE);
+		if (cookie == null) {
+			return null;
+		}
+		try {
+			return Long.valueOf(cookie.getValue());
+		} catch (NumberFormatException e) {
+			return null;
+		}
+	}
+
+}
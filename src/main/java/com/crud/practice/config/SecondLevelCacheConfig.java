@@ -0,0 +1,83 @@
+package com.crud.practice.config;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.OptionalLong;
+import java.util.UUID;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+
+/**
+ * Cache de consultas do Hibernate (JCache sobre Caffeine) para as consultas
+ * marcadas como cacheáveis. Person não tem região de entidade: a leitura por id
+ * já passa pelo cache de pessoas de {@link CacheConfig}, e os UPDATE/DELETE em
+ * massa limpariam a região inteira a cada escrita. Por isso as consultas
+ * cacheáveis devem ser projeções em DTO; uma consulta de entidades guardaria só
+ * os ids e releria cada linha do banco. Cada contexto Spring tem seu próprio
+ * CacheManager, para que bancos diferentes no mesmo processo (nos testes, por
+ * exemplo) não compartilhem entradas.
+ *
+ * Fica desligado com app.datasource.replica.enabled=true: o Hibernate valida
+ * cada resultado pelo horário das escritas no primário, e uma página lida da
+ * réplica atrasada passaria por atual, inclusive para quem acabou de escrever.
+ */
+@Configuration
+@ConditionalOnExpression("${app.person.l2-cache.enabled:true} and !${app.datasource.replica.enabled:false}")
+public class SecondLevelCacheConfig {
+
+	public static final String QUERY_RESULTS_REGION = "default-query-results-region";
+
+	public static final String UPDATE_TIMESTAMPS_REGION = "default-update-timestamps-region";
+
+	@Value("${app.person.l2-cache.query.maximum-size:1000}")
+	private long queryMaximumSize;
+
+	@Value("${app.person.l2-cache.query.time-to-live:1m}")
+	private Duration queryTimeToLive;
+
+	@Value("${app.person.l2-cache.statistics:true}")
+	private boolean statistics;
+
+	@Bean(destroyMethod = "close")
+	public CacheManager hibernateCacheManager() {
+		CacheManager cacheManager = Caching.getCachingProvider(CaffeineCachingProvider.class.getName())
+				.getCacheManager(URI.create("hibernate-" + UUID.randomUUID()), getClass().getClassLoader());
+		cacheManager.createCache(QUERY_RESULTS_REGION, region(queryMaximumSize, queryTimeToLive));
+		// os timestamps de atualização não podem expirar antes dos resultados de consulta
+		cacheManager.createCache(UPDATE_TIMESTAMPS_REGION, new CaffeineConfiguration<Object, Object>());
+		return cacheManager;
+	}
+
+	@Bean
+	public HibernatePropertiesCustomizer secondLevelCacheCustomizer(CacheManager hibernateCacheManager) {
+		return properties -> {
+			// o cache de consultas depende do cache de segundo nível ligado, mesmo sem regiões de entidade
+			properties.put("hibernate.cache.use_second_level_cache", true);
+			properties.put("hibernate.cache.use_query_cache", true);
+			properties.put("hibernate.cache.region.factory_class", "jcache");
+			properties.put(ConfigSettings.CACHE_MANAGER, hibernateCacheManager);
+			properties.put(ConfigSettings.MISSING_CACHE_STRATEGY, "fail");
+		};
+	}
+
+	private CaffeineConfiguration<Object, Object> region(long maximumSize, Duration timeToLive) {
+		CaffeineConfiguration<Object, Object> configuration = new CaffeineConfiguration<>();
+		configuration.setMaximumSize(OptionalLong.of(maximumSize));
+		configuration.setExpireAfterWrite(OptionalLong.of(timeToLive.toNanos()));
+		configuration.setStatisticsEnabled(statistics);
+		configuration.setNativeStatisticsEnabled(statistics);
+		return configuration;
+	}
+
+}
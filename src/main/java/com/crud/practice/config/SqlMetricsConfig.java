@@ -0,0 +1,44 @@
+package com.crud.practice.config;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import net.ttddyy.dsproxy.support.ProxyDataSource;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+
+/**
+ * Envolve o DataSource da aplicação com o datasource-proxy, que conta os
+ * comandos SQL e o tempo gasto no banco por thread. Os contadores são lidos por
+ * requisição em {@link SqlMetricsFilter}. Só é ligado com
+ * {@value #ENABLED_PROPERTY}=true, como no perfil test.
+ */
+@Configuration
+@ConditionalOnProperty(name = SqlMetricsConfig.ENABLED_PROPERTY, havingValue = "true")
+public class SqlMetricsConfig {
+
+	public static final String ENABLED_PROPERTY = "app.sql-metrics.enabled";
+
+	public static final String DATA_SOURCE_NAME = "dataSource";
+
+	/**
+	 * Só o bean "dataSource" é envolvido: com a réplica ligada, os pools
+	 * primário e réplica ficam atrás dele e não são contados duas vezes.
+	 */
+	@Bean
+	public static BeanPostProcessor sqlMetricsDataSourcePostProcessor() {
+		return new BeanPostProcessor() {
+			@Override
+			public Object postProcessAfterInitialization(Object bean, String beanName) {
+				if (DATA_SOURCE_NAME.equals(beanName) && bean instanceof DataSource && !(bean instanceof ProxyDataSource)) {
+					return ProxyDataSourceBuilder.create((DataSource) bean).name(DATA_SOURCE_NAME).countQuery().build();
+				}
+				return bean;
+			}
+		};
+	}
+
+}
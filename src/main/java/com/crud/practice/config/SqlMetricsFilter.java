@@ -0,0 +1,77 @@
+package com.crud.practice.config;
+
+import java.io.IOException;
+import java.util.function.BiConsumer;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import net.ttddyy.dsproxy.QueryCount;
+import net.ttddyy.dsproxy.QueryCountHolder;
+
+/**
+ * Zera os contadores SQL da thread no início de cada requisição e, no fim,
+ * registra no log quantos comandos foram executados e quanto tempo levaram.
+ * Quando a resposta ainda não foi enviada, os totais também vão nos cabeçalhos
+ * X-Query-Count e X-Query-Time-Ms; respostas com corpo recebem os cabeçalhos
+ * de {@link SqlMetricsResponseAdvice}, antes da serialização.
+ *
+ * Só é contado o que roda na thread da requisição: consultas feitas em outros
+ * executores (os endpoints /async, a importação de CSV) ficam de fora.
+ */
+@Component
+@ConditionalOnProperty(name = SqlMetricsConfig.ENABLED_PROPERTY, havingValue = "true")
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class SqlMetricsFilter extends OncePerRequestFilter {
+
+	public static final String QUERY_COUNT_HEADER = "X-Query-Count";
+
+	public static final String QUERY_TIME_HEADER = "X-Query-Time-Ms";
+
+	private static final Logger LOG = LoggerFactory.getLogger(SqlMetricsFilter.class);
+
+	@Override
+	protected boolean shouldNotFilterAsyncDispatch() {
+		return false;
+	}
+
+	@Override
+	protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+			throws ServletException, IOException {
+		QueryCountHolder.clear();
+		try {
+			filterChain.doFilter(request, response);
+		} finally {
+			if (!request.isAsyncStarted()) {
+				QueryCount count = current();
+				if (!response.isCommitted()) {
+					writeHeaders(response::setHeader, count);
+				}
+				LOG.debug("{} {} executou {} comandos SQL em {} ms", request.getMethod(), request.getRequestURI(),
+						count.getTotal(), count.getTime());
+			}
+			QueryCountHolder.clear();
+		}
+	}
+
+	static QueryCount current() {
+		QueryCount count = QueryCountHolder.get(SqlMetricsConfig.DATA_SOURCE_NAME);
+		return count != null ? count : new QueryCount();
+	}
+
+	static void writeHeaders(BiConsumer<String, String> writer, QueryCount count) {
+		writer.accept(QUERY_COUNT_HEADER, String.valueOf(count.getTotal()));
+		writer.accept(QUERY_TIME_HEADER, String.valueOf(count.getTime()));
+	}
+
+}
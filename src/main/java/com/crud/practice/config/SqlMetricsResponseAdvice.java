@@ -0,0 +1,34 @@
+package com.crud.practice.config;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+
+/**
+ * Respostas com corpo são enviadas antes de {@link SqlMetricsFilter} terminar,
+ * então os cabeçalhos com os totais SQL são escritos aqui, logo antes da
+ * serialização.
+ */
+@ControllerAdvice
+@ConditionalOnProperty(name = SqlMetricsConfig.ENABLED_PROPERTY, havingValue = "true")
+public class SqlMetricsResponseAdvice implements ResponseBodyAdvice<Object> {
+
+	@Override
+	public boolean supports(MethodParameter returnType, Class<? extends HttpMessageConverter<?>> converterType) {
+		return true;
+	}
+
+	@Override
+	public Object beforeBodyWrite(Object body, MethodParameter returnType, MediaType selectedContentType,
+			Class<? extends HttpMessageConverter<?>> selectedConverterType, ServerHttpRequest request,
+			ServerHttpResponse response) {
+		SqlMetricsFilter.writeHeaders(response.getHeaders()::set, SqlMetricsFilter.current());
+		return body;
+	}
+
+}
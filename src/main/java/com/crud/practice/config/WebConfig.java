@@ -0,0 +1,81 @@
+package com.crud.practice.config;
+
+import java.util.List;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.jackson.Jackson2ObjectMapperBuilderCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import com.crud.practice.dto.PersonDTO;
+import com.fasterxml.jackson.annotation.JsonFilter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleBeanPropertyFilter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+
+@Configuration
+public class WebConfig implements WebMvcConfigurer {
+
+	public static final String PERSON_FIELDS_FILTER = "personFields";
+
+	public static final String PERSONS_VARY = HttpHeaders.ACCEPT + ", " + HttpHeaders.ACCEPT_ENCODING;
+
+	@Autowired
+	private Jackson2ObjectMapperBuilder objectMapperBuilder;
+
+	/**
+	 * Troca o conversor CBOR padrão por um criado com a mesma configuração
+	 * Jackson do Spring Boot, mantendo-o depois do JSON para que JSON continue
+	 * sendo a resposta quando o cliente aceita qualquer tipo.
+	 */
+	@Override
+	public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+		converters.removeIf(converter -> converter instanceof MappingJackson2CborHttpMessageConverter);
+		converters.add(new MappingJackson2CborHttpMessageConverter(
+				objectMapperBuilder.createXmlMapper(false).factory(new CBORFactory()).build()));
+	}
+
+	/**
+	 * A mesma URL de pessoas pode ser escrita em JSON ou CBOR, com ou sem gzip.
+	 * O Vary avisa os caches intermediários para guardar cada representação
+	 * separadamente, inclusive nas respostas 304 e nas que o Tomcat não
+	 * comprime.
+	 */
+	@Override
+	public void addInterceptors(InterceptorRegistry registry) {
+		registry.addInterceptor(new HandlerInterceptor() {
+			@Override
+			public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+				response.setHeader(HttpHeaders.VARY, PERSONS_VARY);
+				return true;
+			}
+		}).addPathPatterns("/persons/**", "/async/persons/**");
+	}
+
+	/**
+	 * Associa {@link PersonDTO} ao filtro {@value #PERSON_FIELDS_FILTER} apenas
+	 * nos mapeadores do Spring. Sem filtro na resposta todas as propriedades
+	 * são escritas; {@link PersonFieldsResponseAdvice} restringe ao pedido em
+	 * ?fields=.
+	 */
+	@Bean
+	public static Jackson2ObjectMapperBuilderCustomizer personFieldsFilterCustomizer() {
+		return builder -> builder.mixIn(PersonDTO.class, PersonFieldsMixIn.class)
+				.filters(new SimpleFilterProvider().setDefaultFilter(SimpleBeanPropertyFilter.serializeAll()));
+	}
+
+	@JsonFilter(PERSON_FIELDS_FILTER)
+	interface PersonFieldsMixIn {
+	}
+
+}
@@ -0,0 +1,158 @@
+package com.crud.practice.controllers;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.format.annotation.DateTimeFormat.ISO;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PatchMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+import com.crud.practice.config.AsyncConfig;
+import com.crud.practice.dto.PersonAgeBucketDTO;
+import com.crud.practice.dto.PersonBatchResultDTO;
+import com.crud.practice.dto.PersonCursorPageDTO;
+import com.crud.practice.dto.PersonDTO;
+import com.crud.practice.dto.PersonDeleteResultDTO;
+import com.crud.practice.dto.PersonPageDTO;
+
+/**
+ * Mesmas rotas de {@link PersonController}, sob /async/persons, com o trabalho
+ * de banco no executor limitado {@link AsyncConfig#PERSON_EXECUTOR}, liberando
+ * a thread do servlet. Cada rota chama o método correspondente de
+ * {@link PersonController}, então ETag, If-Match, ?fields= e envelope=slim se
+ * comportam igual nos dois caminhos. Com a fila cheia a requisição recebe 503
+ * imediatamente. A exportação fica só em /persons/export, que já escreve a
+ * resposta fora da thread do servlet.
+ */
+@RestController
+@RequestMapping(value = "/async/persons")
+public class PersonAsyncController {
+
+	@Autowired
+	private PersonController controller;
+
+	@Autowired
+	@Qualifier(AsyncConfig.PERSON_EXECUTOR)
+	private Executor executor;
+
+	@GetMapping
+	public CompletableFuture<ResponseEntity<Page<PersonDTO>>> findAllPaged(Pageable pageable,
+			@RequestParam(value = "bornFrom", required = false) @DateTimeFormat(iso = ISO.DATE) LocalDate bornFrom,
+			@RequestParam(value = "bornTo", required = false) @DateTimeFormat(iso = ISO.DATE) LocalDate bornTo,
+			@RequestParam(value = "fields", required = false) String fields){
+		return async(() -> controller.findAllPaged(pageable, bornFrom, bornTo, fields));
+	}
+
+	@GetMapping(params = "envelope=slim")
+	public CompletableFuture<ResponseEntity<PersonPageDTO>> findAllPagedSlim(Pageable pageable,
+			@RequestParam(value = "bornFrom", required = false) @DateTimeFormat(iso = ISO.DATE) LocalDate bornFrom,
+			@RequestParam(value = "bornTo", required = false) @DateTimeFormat(iso = ISO.DATE) LocalDate bornTo,
+			@RequestParam(value = "fields", required = false) String fields){
+		return async(() -> controller.findAllPagedSlim(pageable, bornFrom, bornTo, fields));
+	}
+
+	@GetMapping("/stats/age-histogram")
+	public CompletableFuture<ResponseEntity<List<PersonAgeBucketDTO>>> ageHistogram(
+			@RequestParam(value = "bucketSize", defaultValue = "10") Integer bucketSize){
+		return async(() -> controller.ageHistogram(bucketSize));
+	}
+
+	@GetMapping("/search")
+	public CompletableFuture<ResponseEntity<Page<PersonDTO>>> search(@RequestParam(value = "q") String q, Pageable pageable){
+		return async(() -> controller.search(q, pageable));
+	}
+
+	@GetMapping(value = "/search", params = "envelope=slim")
+	public CompletableFuture<ResponseEntity<PersonPageDTO>> searchSlim(@RequestParam(value = "q") String q, Pageable pageable){
+		return async(() -> controller.searchSlim(q, pageable));
+	}
+
+	@GetMapping("/cursor")
+	public CompletableFuture<ResponseEntity<PersonCursorPageDTO>> findAllByCursor(
+			@RequestParam(value = "after", required = false) String after,
+			@RequestParam(value = "size", defaultValue = "20") Integer size){
+		return async(() -> controller.findAllByCursor(after, size));
+	}
+
+	@GetMapping("/{id}")
+	public CompletableFuture<ResponseEntity<PersonDTO>> findById(@PathVariable Long id,
+			@RequestParam(value = "fields", required = false) String fields,
+			@RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept){
+		return async(() -> controller.findById(id, fields, accept));
+	}
+
+	@GetMapping("/by-cpf/{cpf}")
+	public CompletableFuture<ResponseEntity<PersonDTO>> findByCpf(@PathVariable String cpf){
+		return async(() -> controller.findByCpf(cpf));
+	}
+
+	@PostMapping
+	public CompletableFuture<ResponseEntity<PersonDTO>> insert(@RequestBody PersonDTO dto){
+		return async(() -> controller.insert(dto));
+	}
+
+	@PostMapping("/batch")
+	public CompletableFuture<ResponseEntity<List<PersonBatchResultDTO>>> insertAll(@RequestBody List<PersonDTO> dtos){
+		return async(() -> controller.insertAll(dtos));
+	}
+
+	@PutMapping("/{id}")
+	public CompletableFuture<ResponseEntity<PersonDTO>> update(@RequestBody PersonDTO dto, @PathVariable Long id,
+			@RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+			@RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept){
+		return async(() -> controller.update(dto, id, ifMatch, accept));
+	}
+
+	@PatchMapping("/{id}")
+	public CompletableFuture<ResponseEntity<Void>> patch(@RequestBody PersonDTO dto, @PathVariable Long id){
+		return async(() -> controller.patch(dto, id));
+	}
+
+	@DeleteMapping("/{id}")
+	public CompletableFuture<ResponseEntity<Void>> delete(@PathVariable Long id){
+		return async(() -> controller.delete(id));
+	}
+
+	@DeleteMapping
+	public CompletableFuture<ResponseEntity<PersonDeleteResultDTO>> deleteAll(@RequestBody List<Long> ids){
+		return async(() -> controller.deleteAll(ids));
+	}
+
+	/**
+	 * Executa a chamada no executor com a requisição atual vinculada à thread,
+	 * para que o Location do POST seja montado a partir da URL recebida.
+	 */
+	private <T> CompletableFuture<T> async(Supplier<T> call) {
+		RequestAttributes attributes = RequestContextHolder.currentRequestAttributes();
+		return CompletableFuture.supplyAsync(() -> {
+			RequestContextHolder.setRequestAttributes(attributes);
+			try {
+				return call.get();
+			} finally {
+				RequestContextHolder.resetRequestAttributes();
+			}
+		}, executor);
+	}
+
+}
@@ -0,0 +1,40 @@
+package com.crud.practice.controllers;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import com.crud.practice.dto.PersonChangePageDTO;
+import com.crud.practice.services.PersonChangeService;
+import com.crud.practice.services.PersonChangeStreamService;
+
+@RestController
+@RequestMapping(value = "/persons/changes")
+public class PersonChangeController {
+
+	@Autowired
+	private PersonChangeService service;
+
+	@Autowired
+	private PersonChangeStreamService streamService;
+
+	@GetMapping
+	public ResponseEntity<PersonChangePageDTO> findChanges(@RequestParam(value = "since", required = false) String since,
+			@RequestParam(value = "size", defaultValue = "100") int size) {
+		PersonChangePageDTO page = service.findChanges(since, size);
+		return ResponseEntity.ok().body(page);
+	}
+
+	@GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+	public SseEmitter stream(@RequestParam(value = "since", required = false) String since,
+			@RequestHeader(value = "Last-Event-ID", required = false) String lastEventId) {
+		return streamService.subscribe(lastEventId != null ? lastEventId : since);
+	}
+
+}
@@ -1,54 +1,171 @@
 package com.crud.practice.controllers;
 
 import java.net.URI;
+import java.time.LocalDate;
+import java.util.List;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.format.annotation.DateTimeFormat.ISO;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PatchMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
+import com.crud.practice.dto.PersonAgeBucketDTO;
+import com.crud.practice.dto.PersonBatchResultDTO;
+import com.crud.practice.dto.PersonCursorPageDTO;
 import com.crud.practice.dto.PersonDTO;
+import com.crud.practice.dto.PersonDeleteResultDTO;
+import com.crud.practice.dto.PersonPageDTO;
+import com.crud.practice.services.PersonInsertCoalescer;
 import com.crud.practice.services.PersonService;
+import com.crud.practice.services.exceptions.PreconditionFailedException;
 
 @RestController
 @RequestMapping(value = "/persons")
 public class PersonController {
 	
+	/**
+	 * Sufixo da ETag quando a resposta é CBOR, para que JSON e CBOR da mesma
+	 * versão não compartilhem uma ETag forte.
+	 */
+	public static final String CBOR_ETAG_SUFFIX = "-cbor";
+	
 	@Autowired
 	private PersonService service;
+
+	@Autowired(required = false)
+	private PersonInsertCoalescer insertCoalescer;
 	
 	@GetMapping
-	public ResponseEntity<Page<PersonDTO>> findAllPaged(Pageable pageable){
-		Page<PersonDTO> list = service.findAllPaged(pageable);
+	public ResponseEntity<Page<PersonDTO>> findAllPaged(Pageable pageable,
+			@RequestParam(value = "bornFrom", required = false) @DateTimeFormat(iso = ISO.DATE) LocalDate bornFrom,
+			@RequestParam(value = "bornTo", required = false) @DateTimeFormat(iso = ISO.DATE) LocalDate bornTo,
+			@RequestParam(value = "fields", required = false) String fields){
+		Page<PersonDTO> list = fields != null
+				? service.findAllFields(PersonService.parseFields(fields), bornFrom, bornTo, pageable)
+				: findPage(pageable, bornFrom, bornTo);
+		return ResponseEntity.ok().body(list);
+	}
+	
+	@GetMapping(params = "envelope=slim")
+	public ResponseEntity<PersonPageDTO> findAllPagedSlim(Pageable pageable,
+			@RequestParam(value = "bornFrom", required = false) @DateTimeFormat(iso = ISO.DATE) LocalDate bornFrom,
+			@RequestParam(value = "bornTo", required = false) @DateTimeFormat(iso = ISO.DATE) LocalDate bornTo,
+			@RequestParam(value = "fields", required = false) String fields){
+		if (fields != null) {
+			Slice<PersonDTO> list = service.findAllFieldsSliced(PersonService.parseFields(fields), bornFrom, bornTo, pageable);
+			return ResponseEntity.ok().body(new PersonPageDTO(list,
+					bornFrom == null && bornTo == null ? service.approximateTotal() : null));
+		}
+		if (bornFrom == null && bornTo == null) {
+			Slice<PersonDTO> list = service.findAllSliced(pageable);
+			return ResponseEntity.ok().body(new PersonPageDTO(list, service.approximateTotal()));
+		}
+		Slice<PersonDTO> list = service.findAllByBirthDateSliced(bornFrom, bornTo, pageable);
+		return ResponseEntity.ok().body(new PersonPageDTO(list));
+	}
+	
+	@GetMapping("/stats/age-histogram")
+	public ResponseEntity<List<PersonAgeBucketDTO>> ageHistogram(
+			@RequestParam(value = "bucketSize", defaultValue = "10") Integer bucketSize){
+		List<PersonAgeBucketDTO> buckets = service.ageHistogram(bucketSize);
+		return ResponseEntity.ok().body(buckets);
+	}
+	
+	@GetMapping("/search")
+	public ResponseEntity<Page<PersonDTO>> search(@RequestParam(value = "q") String q, Pageable pageable){
+		Page<PersonDTO> list = service.search(q, pageable);
 		return ResponseEntity.ok().body(list);
 	}
 	
+	@GetMapping(value = "/search", params = "envelope=slim")
+	public ResponseEntity<PersonPageDTO> searchSlim(@RequestParam(value = "q") String q, Pageable pageable){
+		Page<PersonDTO> list = service.search(q, pageable);
+		return ResponseEntity.ok().body(new PersonPageDTO(list));
+	}
+	
+	@GetMapping("/cursor")
+	public ResponseEntity<PersonCursorPageDTO> findAllByCursor(
+			@RequestParam(value = "after", required = false) String after,
+			@RequestParam(value = "size", defaultValue = "20") Integer size){
+		PersonCursorPageDTO page = service.findAllByCursor(after, size);
+		return ResponseEntity.ok().body(page);
+	}
+	
+	@GetMapping(value = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+	public ResponseEntity<StreamingResponseBody> exportAll(){
+		StreamingResponseBody body = out -> service.exportAll(out);
+		return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
+	}
+	
+	/**
+	 * Responde com ETag forte derivada da versão e da representação (JSON ou
+	 * CBOR, conforme o Accept). Como a leitura vem do cache de pessoas, um
+	 * If-None-Match correspondente vira 304 sem carregar nem serializar a
+	 * entidade. Com ?fields= apenas as colunas pedidas são lidas e escritas.
+	 */
 	@GetMapping("/{id}")
-	public ResponseEntity<PersonDTO> findById(@PathVariable Long id){
-		PersonDTO personDTO = service.findById(id);
+	public ResponseEntity<PersonDTO> findById(@PathVariable Long id,
+			@RequestParam(value = "fields", required = false) String fields,
+			@RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept){
+		PersonDTO personDTO = fields != null
+				? service.findByIdFields(id, PersonService.parseFields(fields))
+				: service.findById(id);
+		return withETag(ResponseEntity.ok(), personDTO, accept).body(personDTO);
+	}
+	
+	@GetMapping("/by-cpf/{cpf}")
+	public ResponseEntity<PersonDTO> findByCpf(@PathVariable String cpf){
+		PersonDTO personDTO = service.findByCpf(cpf);
 		return ResponseEntity.ok().body(personDTO);
 	}
 	
 	@PostMapping
 	public ResponseEntity<PersonDTO> insert(@RequestBody PersonDTO dto){
-		dto = service.insert(dto);
+		dto = insertCoalescer != null ? insertCoalescer.insert(dto) : service.insert(dto);
 		URI uri = ServletUriComponentsBuilder.fromCurrentRequest().path("/{id}").buildAndExpand(dto.getId()).toUri();
 		return ResponseEntity.created(uri).body(dto);
 	}
 	
+	@PostMapping("/batch")
+	public ResponseEntity<List<PersonBatchResultDTO>> insertAll(@RequestBody List<PersonDTO> dtos){
+		List<PersonBatchResultDTO> results = service.insertAll(dtos);
+		return ResponseEntity.ok().body(results);
+	}
+	
 	@PutMapping("/{id}")
-	public ResponseEntity<PersonDTO> update(@RequestBody PersonDTO dto, @PathVariable Long id){
+	public ResponseEntity<PersonDTO> update(@RequestBody PersonDTO dto, @PathVariable Long id,
+			@RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+			@RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept){
+		if (ifMatch != null && !ifMatch.trim().equals("*")) {
+			dto.setVersion(parseVersion(ifMatch));
+		}
 		dto = service.update(dto, id);
-		return ResponseEntity.ok().body(dto);
+		return withETag(ResponseEntity.ok(), dto, accept).body(dto);
+	}
+	
+	@PatchMapping("/{id}")
+	public ResponseEntity<Void> patch(@RequestBody PersonDTO dto, @PathVariable Long id){
+		service.patch(dto, id);
+		return ResponseEntity.noContent().build();
 	}
 	
 	@DeleteMapping("/{id}")
@@ -57,9 +174,77 @@ public class PersonController {
 		return ResponseEntity.noContent().build();
 	}
 	
+	@DeleteMapping
+	public ResponseEntity<PersonDeleteResultDTO> deleteAll(@RequestBody List<Long> ids){
+		PersonDeleteResultDTO result = service.deleteAll(ids);
+		return ResponseEntity.ok().body(result);
+	}
 	
+	/**
+	 * A ETag continua forte porque o If-Match do PUT exige comparação forte.
+	 * O gzip não a reaproveita: o Tomcat não comprime respostas com ETag
+	 * forte.
+	 */
+	private static ResponseEntity.BodyBuilder withETag(ResponseEntity.BodyBuilder builder, PersonDTO dto, String accept) {
+		if (dto.getVersion() == null) {
+			return builder;
+		}
+		String tag = prefersCbor(accept) ? dto.getVersion() + CBOR_ETAG_SUFFIX : String.valueOf(dto.getVersion());
+		return builder.eTag(tag);
+	}
 	
+	/**
+	 * Mesma escolha da negociação de conteúdo: JSON vem antes de CBOR nos
+	 * conversores, então CBOR só é escrito quando o tipo aceito de maior
+	 * preferência é compatível com CBOR e não com JSON.
+	 */
+	private static boolean prefersCbor(String accept) {
+		if (accept == null) {
+			return false;
+		}
+		List<MediaType> accepted;
+		try {
+			accepted = MediaType.parseMediaTypes(accept);
+		} catch (InvalidMediaTypeException e) {
+			return false;
+		}
+		MediaType.sortBySpecificityAndQuality(accepted);
+		for (MediaType type : accepted) {
+			if (type.isCompatibleWith(MediaType.APPLICATION_JSON)) {
+				return false;
+			}
+			if (type.isCompatibleWith(MediaType.APPLICATION_CBOR)) {
+				return true;
+			}
+		}
+		return false;
+	}
 	
+	/**
+	 * Aceita qualquer ETag emitida por {@link #withETag}: a versão entre aspas,
+	 * com ou sem {@value #CBOR_ETAG_SUFFIX}.
+	 */
+	private static Long parseVersion(String ifMatch) {
+		String value = ifMatch.trim();
+		if (value.length() > 2 && value.startsWith("\"") && value.endsWith("\"")) {
+			String version = value.substring(1, value.length() - 1);
+			if (version.endsWith(CBOR_ETAG_SUFFIX)) {
+				version = version.substring(0, version.length() - CBOR_ETAG_SUFFIX.length());
+			}
+			try {
+				return Long.valueOf(version);
+			} catch (NumberFormatException e) {
+				// cai no erro abaixo
+			}
+		}
+		throw new PreconditionFailedException("If-Match inválido: " + ifMatch);
+	}
 	
+	private Page<PersonDTO> findPage(Pageable pageable, LocalDate bornFrom, LocalDate bornTo) {
+		if (bornFrom == null && bornTo == null) {
+			return service.findAllPaged(pageable);
+		}
+		return service.findAllByBirthDate(bornFrom, bornTo, pageable);
+	}
 	
 }
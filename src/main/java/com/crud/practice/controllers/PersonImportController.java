@@ -0,0 +1,44 @@
+package com.crud.practice.controllers;
+
+import java.net.URI;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+
+import com.crud.practice.dto.PersonImportStatusDTO;
+import com.crud.practice.services.PersonImportService;
+
+@RestController
+@RequestMapping(value = "/persons/import")
+public class PersonImportController {
+	
+	@Autowired
+	private PersonImportService service;
+	
+	/**
+	 * Recebe o CSV e responde 202 assim que a importação é enfileirada; o
+	 * andamento é consultado no endereço do cabeçalho Location.
+	 */
+	@PostMapping(consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+	public ResponseEntity<PersonImportStatusDTO> submit(@RequestParam("file") MultipartFile file){
+		PersonImportStatusDTO status = service.submit(file);
+		URI uri = ServletUriComponentsBuilder.fromCurrentRequest().path("/{id}").buildAndExpand(status.getId()).toUri();
+		return ResponseEntity.accepted().location(uri).body(status);
+	}
+	
+	@GetMapping("/{id}")
+	public ResponseEntity<PersonImportStatusDTO> findStatus(@PathVariable String id){
+		PersonImportStatusDTO status = service.findStatus(id);
+		return ResponseEntity.ok().body(status);
+	}
+	
+}
@@ -1,18 +1,31 @@
 package com.crud.practice.controllers.exceptions;
 
 import java.time.Instant;
+import java.util.concurrent.RejectedExecutionException;
 
 import javax.servlet.http.HttpServletRequest;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ControllerAdvice;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 
+import com.crud.practice.entities.Person;
+import com.crud.practice.services.exceptions.BadRequestException;
+import com.crud.practice.services.exceptions.PreconditionFailedException;
+import com.crud.practice.services.exceptions.ResourceConflictException;
 import com.crud.practice.services.exceptions.ResourceNotFoundException;
+import com.crud.practice.util.ConstraintViolations;
 
 @ControllerAdvice
 public class ControllerExceptionHandler {
+
+	private static final Logger LOG = LoggerFactory.getLogger(ControllerExceptionHandler.class);
 	
 	@ExceptionHandler(ResourceNotFoundException.class)
 	public ResponseEntity<StandardError> ResourceNotFoundHandler(ResourceNotFoundException e, HttpServletRequest request) {
@@ -26,4 +39,91 @@ public class ControllerExceptionHandler {
 		return ResponseEntity.status(status).body(error);
 		
 	}
+	
+	@ExceptionHandler(BadRequestException.class)
+	public ResponseEntity<StandardError> BadRequestHandler(BadRequestException e, HttpServletRequest request) {
+		HttpStatus status = HttpStatus.BAD_REQUEST;
+		StandardError error = new StandardError();
+		error.setTimestamp(Instant.now());
+		error.setMessage(e.getMessage());
+		error.setStatus(status.value());
+		error.setError("Requisição inválida");
+		error.setPath(request.getRequestURI());
+		return ResponseEntity.status(status).body(error);
+		
+	}
+	
+	@ExceptionHandler(ResourceConflictException.class)
+	public ResponseEntity<StandardError> ResourceConflictHandler(ResourceConflictException e, HttpServletRequest request) {
+		HttpStatus status = HttpStatus.CONFLICT;
+		StandardError error = new StandardError();
+		error.setTimestamp(Instant.now());
+		error.setMessage(e.getMessage());
+		error.setStatus(status.value());
+		error.setError("Recurso já existente");
+		error.setPath(request.getRequestURI());
+		return ResponseEntity.status(status).body(error);
+		
+	}
+	
+	/**
+	 * O texto do driver traz o SQL, o nome do índice e os valores gravados;
+	 * ele só vai para o log, e o cliente recebe uma mensagem fixa.
+	 */
+	@ExceptionHandler(DataIntegrityViolationException.class)
+	public ResponseEntity<StandardError> DataIntegrityViolationHandler(DataIntegrityViolationException e, HttpServletRequest request) {
+		HttpStatus status = HttpStatus.CONFLICT;
+		StandardError error = new StandardError();
+		error.setTimestamp(Instant.now());
+		if (ConstraintViolations.isViolationOf(e, Person.CPF_NORMALIZED_INDEX)) {
+			error.setMessage("CPF já cadastrado");
+		} else {
+			LOG.warn("Violação de integridade em {} {}", request.getMethod(), request.getRequestURI(), e);
+			error.setMessage("A operação viola uma restrição dos dados");
+		}
+		error.setStatus(status.value());
+		error.setError("Violação de integridade");
+		error.setPath(request.getRequestURI());
+		return ResponseEntity.status(status).body(error);
+		
+	}
+	
+	@ExceptionHandler(RejectedExecutionException.class)
+	public ResponseEntity<StandardError> RejectedExecutionHandler(RejectedExecutionException e, HttpServletRequest request) {
+		HttpStatus status = HttpStatus.SERVICE_UNAVAILABLE;
+		StandardError error = new StandardError();
+		error.setTimestamp(Instant.now());
+		error.setMessage("Capacidade de processamento esgotada, tente novamente");
+		error.setStatus(status.value());
+		error.setError("Serviço indisponível");
+		error.setPath(request.getRequestURI());
+		return ResponseEntity.status(status).header(HttpHeaders.RETRY_AFTER, "1").body(error);
+		
+	}
+	
+	@ExceptionHandler(PreconditionFailedException.class)
+	public ResponseEntity<StandardError> PreconditionFailedHandler(PreconditionFailedException e, HttpServletRequest request) {
+		HttpStatus status = HttpStatus.PRECONDITION_FAILED;
+		StandardError error = new StandardError();
+		error.setTimestamp(Instant.now());
+		error.setMessage(e.getMessage());
+		error.setStatus(status.value());
+		error.setError("Pré-condição falhou");
+		error.setPath(request.getRequestURI());
+		return ResponseEntity.status(status).body(error);
+		
+	}
+	
+	@ExceptionHandler(OptimisticLockingFailureException.class)
+	public ResponseEntity<StandardError> OptimisticLockingFailureHandler(OptimisticLockingFailureException e, HttpServletRequest request) {
+		HttpStatus status = HttpStatus.CONFLICT;
+		StandardError error = new StandardError();
+		error.setTimestamp(Instant.now());
+		error.setMessage("Recurso alterado por outra requisição");
+		error.setStatus(status.value());
+		error.setError("Conflito de versão");
+		error.setPath(request.getRequestURI());
+		return ResponseEntity.status(status).body(error);
+		
+	}
 }
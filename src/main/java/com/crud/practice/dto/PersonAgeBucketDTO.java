@@ -0,0 +1,26 @@
+package com.crud.practice.dto;
+
+import java.io.Serializable;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Faixa do histograma de idades: pessoas com idade entre {@code ageFrom} e
+ * {@code ageTo}, inclusive.
+ */
+@AllArgsConstructor
+@NoArgsConstructor
+@Data
+public class PersonAgeBucketDTO implements Serializable{
+	
+	private static final long serialVersionUID = 1L;
+	
+	private Integer ageFrom;
+	
+	private Integer ageTo;
+	
+	private Long count;
+	
+}
@@ -0,0 +1,26 @@
+package com.crud.practice.dto;
+
+import java.io.Serializable;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Resultado de um item da inserção em lote: {@code id} gerado em caso de
+ * sucesso ou {@code error} com o motivo da falha.
+ */
+@AllArgsConstructor
+@NoArgsConstructor
+@Data
+public class PersonBatchResultDTO implements Serializable{
+	
+	private static final long serialVersionUID = 1L;
+	
+	private Integer index;
+	
+	private Long id;
+	
+	private String error;
+	
+}
@@ -0,0 +1,32 @@
+package com.crud.practice.dto;
+
+import java.io.Serializable;
+import java.time.Instant;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Uma mudança do change log. {@code person} traz o estado atual da pessoa, e
+ * não o da época da mudança; é nulo em remoções e quando a pessoa já foi
+ * removida (a remoção aparece mais adiante no log).
+ */
+@AllArgsConstructor
+@NoArgsConstructor
+@Data
+public class PersonChangeDTO implements Serializable {
+
+	private static final long serialVersionUID = 1L;
+
+	private String token;
+
+	private String type;
+
+	private Long personId;
+
+	private Instant changedAt;
+
+	private PersonDTO person;
+
+}
@@ -0,0 +1,28 @@
+package com.crud.practice.dto;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Página do change log. {@code next} é o token para a próxima chamada; quando
+ * não há mudanças novas ele repete o {@code since} recebido.
+ */
+@AllArgsConstructor
+@NoArgsConstructor
+@Data
+public class PersonChangePageDTO implements Serializable {
+
+	private static final long serialVersionUID = 1L;
+
+	private List<PersonChangeDTO> changes = new ArrayList<>();
+
+	private String next;
+
+	private boolean hasMore;
+
+}
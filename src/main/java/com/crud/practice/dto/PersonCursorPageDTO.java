@@ -0,0 +1,28 @@
+package com.crud.practice.dto;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Página de uma listagem por cursor (keyset). Não carrega total de elementos:
+ * o cliente continua enquanto {@code nextCursor} não for nulo.
+ */
+@AllArgsConstructor
+@NoArgsConstructor
+@Data
+public class PersonCursorPageDTO implements Serializable{
+	
+	private static final long serialVersionUID = 1L;
+	
+	private List<PersonDTO> content = new ArrayList<>();
+	
+	private Integer size;
+	
+	private String nextCursor;
+	
+}
@@ -28,6 +28,8 @@ public class PersonDTO implements Serializable{
 	
 	private String adress;
 	
+	private Long version;
+	
 	public PersonDTO(Person person) {
 		this.name = person.getName();
 		this.adress = person.getAdress();
@@ -35,7 +37,16 @@ public class PersonDTO implements Serializable{
 		this.cpf = person.getCpf();
 		this.id = person.getId();
 		this.phoneNumber = person.getPhoneNumber();
+		this.version = person.getVersion();
+	
+	}
 	
+	/**
+	 * Cópia independente, para guardar no cache ou devolver a partir dele
+	 * sem compartilhar a instância.
+	 */
+	public PersonDTO copy() {
+		return new PersonDTO(id, name, cpf, phoneNumber, birthDate, adress, version);
 	}
 	
 	
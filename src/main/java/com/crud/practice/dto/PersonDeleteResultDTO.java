@@ -0,0 +1,20 @@
+package com.crud.practice.dto;
+
+import java.io.Serializable;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@AllArgsConstructor
+@NoArgsConstructor
+@Data
+public class PersonDeleteResultDTO implements Serializable{
+	
+	private static final long serialVersionUID = 1L;
+	
+	private Integer requested;
+	
+	private Integer deleted;
+	
+}
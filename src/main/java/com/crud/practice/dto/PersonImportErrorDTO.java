@@ -0,0 +1,24 @@
+package com.crud.practice.dto;
+
+import java.io.Serializable;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Falha de uma linha do CSV importado ({@code line} começa em 1, contando o
+ * cabeçalho).
+ */
+@AllArgsConstructor
+@NoArgsConstructor
+@Data
+public class PersonImportErrorDTO implements Serializable{
+	
+	private static final long serialVersionUID = 1L;
+	
+	private Long line;
+	
+	private String error;
+	
+}
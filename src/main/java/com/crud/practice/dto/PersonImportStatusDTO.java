@@ -0,0 +1,46 @@
+package com.crud.practice.dto;
+
+import java.io.Serializable;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Situação de uma importação de CSV. {@code bytesRead}/{@code totalBytes} dão
+ * o progresso; {@code errors} guarda no máximo app.person.import.max-errors
+ * linhas, enquanto {@code failed} conta todas.
+ */
+@AllArgsConstructor
+@NoArgsConstructor
+@Data
+public class PersonImportStatusDTO implements Serializable{
+	
+	private static final long serialVersionUID = 1L;
+	
+	private String id;
+	
+	private String status;
+	
+	private Long totalBytes;
+	
+	private Long bytesRead;
+	
+	private Long processedLines;
+	
+	private Long imported;
+	
+	private Long failed;
+	
+	private List<PersonImportErrorDTO> errors = new ArrayList<>();
+	
+	private String message;
+	
+	private Instant createdAt;
+	
+	private Instant finishedAt;
+	
+}
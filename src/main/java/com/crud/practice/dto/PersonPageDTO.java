@@ -0,0 +1,51 @@
+package com.crud.practice.dto;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.data.domain.Slice;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Envelope enxuto de página ({@code envelope=slim}): só o conteúdo, a posição
+ * e se existe próxima página, sem os metadados de pageable e sort do PageImpl.
+ * {@code approximateTotal} só aparece quando há um total aproximado
+ * disponível, e não vem de um COUNT(*) da própria requisição.
+ */
+@AllArgsConstructor
+@NoArgsConstructor
+@Data
+public class PersonPageDTO implements Serializable{
+	
+	private static final long serialVersionUID = 1L;
+	
+	private List<PersonDTO> content = new ArrayList<>();
+	
+	private Integer number;
+	
+	private Integer size;
+	
+	private Boolean hasNext;
+	
+	@JsonInclude(JsonInclude.Include.NON_NULL)
+	private Long approximateTotal;
+	
+	public PersonPageDTO(Slice<PersonDTO> slice) {
+		this(slice, null);
+	}
+	
+	public PersonPageDTO(Slice<PersonDTO> slice, Long approximateTotal) {
+		this.content = slice.getContent();
+		this.number = slice.getNumber();
+		this.size = slice.getSize();
+		this.hasNext = slice.hasNext();
+		this.approximateTotal = approximateTotal;
+	}
+	
+}
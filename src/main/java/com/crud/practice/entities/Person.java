@@ -2,42 +2,113 @@ package com.crud.practice.entities;
 
 import java.io.Serializable;
 import java.time.Instant;
+import java.util.HashSet;
+import java.util.Set;
 
+import javax.persistence.CollectionTable;
 import javax.persistence.Column;
+import javax.persistence.ElementCollection;
 import javax.persistence.Entity;
 import javax.persistence.GeneratedValue;
 import javax.persistence.GenerationType;
 import javax.persistence.Id;
+import javax.persistence.Index;
+import javax.persistence.JoinColumn;
 import javax.persistence.Table;
+import javax.persistence.Version;
 
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.OnDelete;
+import org.hibernate.annotations.OnDeleteAction;
+import org.hibernate.annotations.OptimisticLock;
+import org.hibernate.annotations.Parameter;
+
+import com.crud.practice.util.TextNormalizer;
+
+import lombok.AccessLevel;
 import lombok.AllArgsConstructor;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
 
 @Data
 @AllArgsConstructor
 @NoArgsConstructor
 @Entity
-@Table(name = "tb_person")
+@Table(name = "tb_person", indexes = {
+		@Index(name = Person.CPF_NORMALIZED_INDEX, columnList = "cpf_normalized", unique = true),
+		@Index(name = "idx_person_birth_date", columnList = "birth_date") })
 public class Person implements Serializable {
 	
 	private static final long serialVersionUID = 1L;
 
+	public static final String CPF_NORMALIZED_INDEX = "uk_person_cpf_normalized";
+
+	public static final int CPF_DIGITS = 11;
+
 	@Id
-	@GeneratedValue(strategy = GenerationType.IDENTITY)
+	@GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "seq_person")
+	@GenericGenerator(name = "seq_person", strategy = "org.hibernate.id.enhanced.SequenceStyleGenerator", parameters = {
+			@Parameter(name = "sequence_name", value = "seq_person"),
+			@Parameter(name = "increment_size", value = "50"),
+			@Parameter(name = "optimizer", value = "pooled-lo") })
 	private Long id;
 	
 	private String name;
 	
 	private String cpf;
 	
+	@Column(name = "cpf_normalized", length = CPF_DIGITS)
+	private String cpfNormalized;
+	
 	private String phoneNumber;
 	
-	@Column(columnDefinition = "TIMESTAMP WITHOUT TIME ZONE")
+	@Column(name = "birth_date", columnDefinition = "TIMESTAMP WITHOUT TIME ZONE")
 	private Instant birthDate;
 	
 	private String adress;
 
+	@Version
+	private Long version;
+
+	@ElementCollection
+	@CollectionTable(name = "tb_person_search_token", joinColumns = @JoinColumn(name = "person_id"), indexes = {
+			@Index(name = "idx_person_search_token", columnList = "token") })
+	@Column(name = "token", length = TextNormalizer.MAX_TOKEN_LENGTH, nullable = false)
+	@JoinColumn(name = "person_id")
+	@OnDelete(action = OnDeleteAction.CASCADE)
+	@OptimisticLock(excluded = true)
+	@Setter(AccessLevel.NONE)
+	@EqualsAndHashCode.Exclude
+	@ToString.Exclude
+	private Set<String> searchTokens = new HashSet<>();
+
+	public void setCpf(String cpf) {
+		this.cpf = cpf;
+		this.cpfNormalized = TextNormalizer.digitsOnly(cpf);
+	}
+
+	public void setName(String name) {
+		this.name = name;
+		refreshSearchTokens();
+	}
+
+	public void setAdress(String adress) {
+		this.adress = adress;
+		refreshSearchTokens();
+	}
+
+	/**
+	 * Recalcula os termos do índice de busca a partir de nome e endereço.
+	 */
+	public void refreshSearchTokens() {
+		Set<String> tokens = TextNormalizer.tokens(name);
+		tokens.addAll(TextNormalizer.tokens(adress));
+		searchTokens.retainAll(tokens);
+		searchTokens.addAll(tokens);
+	}
 	
 
 	
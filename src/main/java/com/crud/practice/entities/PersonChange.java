@@ -0,0 +1,71 @@
+package com.crud.practice.entities;
+
+import java.io.Serializable;
+import java.time.Instant;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.EnumType;
+import javax.persistence.Enumerated;
+import javax.persistence.GeneratedValue;
+import javax.persistence.GenerationType;
+import javax.persistence.Id;
+import javax.persistence.Table;
+
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Immutable;
+import org.hibernate.annotations.Parameter;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Registro do change log de pessoas (tb_person_change). Cada inserção,
+ * atualização ou remoção feita pelo PersonService grava uma linha na mesma
+ * transação da mudança, então o log nunca perde nem inventa alterações. Não há
+ * chave estrangeira para tb_person: o registro de remoção sobrevive à pessoa.
+ * <p>
+ * O id vem de seq_person_change sem pool de valores: com blocos reservados
+ * por instância, uma instância publicaria ids menores que os já lidos de
+ * outra, e o change log perderia esses eventos.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Entity
+@Immutable
+@Table(name = "tb_person_change")
+public class PersonChange implements Serializable {
+
+	private static final long serialVersionUID = 1L;
+
+	public enum Type {
+		INSERT, UPDATE, DELETE
+	}
+
+	@Id
+	@GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "seq_person_change")
+	@GenericGenerator(name = "seq_person_change", strategy = "org.hibernate.id.enhanced.SequenceStyleGenerator", parameters = {
+			@Parameter(name = "sequence_name", value = "seq_person_change"),
+			@Parameter(name = "increment_size", value = "1"),
+			@Parameter(name = "optimizer", value = "none") })
+	private Long id;
+
+	@Column(name = "person_id", nullable = false)
+	private Long personId;
+
+	@Enumerated(EnumType.STRING)
+	@Column(length = 6, nullable = false)
+	private Type type;
+
+	@Column(name = "changed_at", nullable = false)
+	private Instant changedAt;
+
+	public PersonChange(Long personId, Type type, Instant changedAt) {
+		this.personId = personId;
+		this.type = type;
+		this.changedAt = changedAt;
+	}
+
+}
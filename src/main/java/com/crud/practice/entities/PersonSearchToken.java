@@ -0,0 +1,56 @@
+package com.crud.practice.entities;
+
+import java.io.Serializable;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.IdClass;
+import javax.persistence.Table;
+
+import org.hibernate.annotations.Immutable;
+
+import com.crud.practice.util.TextNormalizer;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Visão somente leitura de tb_person_search_token, mantida pela coleção
+ * {@code Person.searchTokens}. Existe para que a busca consulte o índice de
+ * termos sem passar por tb_person.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Entity
+@Immutable
+@IdClass(PersonSearchToken.Key.class)
+@Table(name = "tb_person_search_token")
+public class PersonSearchToken implements Serializable {
+
+	private static final long serialVersionUID = 1L;
+
+	@Id
+	@Column(name = "person_id", insertable = false, updatable = false)
+	private Long personId;
+
+	@Id
+	@Column(length = TextNormalizer.MAX_TOKEN_LENGTH, insertable = false, updatable = false)
+	private String token;
+
+	@Data
+	@AllArgsConstructor
+	@NoArgsConstructor
+	public static class Key implements Serializable {
+
+		private static final long serialVersionUID = 1L;
+
+		private Long personId;
+
+		private String token;
+
+	}
+
+}
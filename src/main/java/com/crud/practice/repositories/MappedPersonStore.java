@@ -0,0 +1,471 @@
+package com.crud.practice.repositories;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.zip.CRC32;
+
+import com.crud.practice.dto.PersonDTO;
+
+/**
+ * {@link PersonStore} em um log append-only mapeado em memória. Cada registro
+ * é um cabeçalho (tamanho do corpo e CRC32) seguido do corpo:
+ *
+ * <pre>
+ * tipo(1) flags(1) id(8) version(8) birthDate segundos(8) nanos(4)
+ * tamanhos UTF-8 de name, cpf, phoneNumber e adress (2 cada, 0xFFFF = nulo)
+ * bytes das strings
+ * </pre>
+ *
+ * Atualizações e remoções acrescentam registros; {@link PersonOffsetIndex}
+ * aponta para o último de cada id. Uma remoção fica no índice como lápide, que
+ * barra qualquer versão gravada depois para o mesmo id: os ids vêm de
+ * seq_person e não são reaproveitados. Quando a fração de bytes mortos passa
+ * de {@code compactionThreshold} o log é reescrito só com os registros vivos e
+ * as lápides em um arquivo novo, que substitui o atual com um move atômico.
+ * <p>
+ * O tamanho é gravado por último, então um processo morto no meio de uma
+ * escrita deixa um registro com tamanho zero ou CRC inválido. Na abertura o
+ * log é lido até o primeiro registro assim, e o restante é zerado.
+ */
+public class MappedPersonStore implements PersonStore, Closeable {
+
+	static final String LOG_FILE = "persons.log";
+
+	static final String COMPACTION_FILE = "persons.log.compacting";
+
+	static final String TOKEN_FILE = "persons.token";
+
+	static final int HEADER_BYTES = 8;
+
+	private static final int MAX_CAPACITY = Integer.MAX_VALUE - 8;
+
+	private static final int COMPACTION_MIN_BYTES = 1 << 20;
+
+	private static final byte PUT = 1;
+
+	private static final byte DELETE = 2;
+
+	private static final byte HAS_VERSION = 1;
+
+	private static final byte HAS_BIRTH_DATE = 2;
+
+	private static final int STRING_LENGTHS = 30;
+
+	private static final int FIXED_BYTES = STRING_LENGTHS + 4 * 2;
+
+	private static final int DELETE_BYTES = 10;
+
+	private static final int NULL_STRING = 0xFFFF;
+
+	private final Path directory;
+
+	private final int initialSize;
+
+	private final double compactionThreshold;
+
+	private final boolean syncWrites;
+
+	private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+	private final CRC32 crc = new CRC32();
+
+	private FileChannel channel;
+
+	private MappedByteBuffer buffer;
+
+	private PersonOffsetIndex index;
+
+	private int end;
+
+	private long liveBytes;
+
+	private int tombstones;
+
+	private byte[] scratch = new byte[256];
+
+	public MappedPersonStore(Path directory, int initialSize, double compactionThreshold, boolean syncWrites)
+			throws IOException {
+		this.directory = directory;
+		this.initialSize = initialSize;
+		this.compactionThreshold = compactionThreshold;
+		this.syncWrites = syncWrites;
+		Files.createDirectories(directory);
+		Files.deleteIfExists(directory.resolve(COMPACTION_FILE));
+		Files.deleteIfExists(directory.resolve(TOKEN_FILE + ".tmp"));
+		recover();
+	}
+
+	@Override
+	public Optional<PersonDTO> findDTOById(Long id) {
+		if (id == null) {
+			return Optional.empty();
+		}
+		lock.readLock().lock();
+		try {
+			int offset = index.get(id);
+			return isPresent(offset) ? Optional.of(read(offset)) : Optional.empty();
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	@Override
+	public List<PersonDTO> findAllDTOByIdIn(Collection<Long> ids) {
+		List<PersonDTO> dtos = new ArrayList<>(ids.size());
+		lock.readLock().lock();
+		try {
+			for (Long id : ids) {
+				int offset = index.get(id);
+				if (isPresent(offset)) {
+					dtos.add(read(offset));
+				}
+			}
+		} finally {
+			lock.readLock().unlock();
+		}
+		return dtos;
+	}
+
+	@Override
+	public long count() {
+		lock.readLock().lock();
+		try {
+			return index.size() - tombstones;
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	@Override
+	public void saveAll(Collection<PersonDTO> dtos) {
+		lock.writeLock().lock();
+		try {
+			int from = end;
+			for (PersonDTO dto : dtos) {
+				int current = index.get(dto.getId());
+				if (current != PersonOffsetIndex.ABSENT && (isTombstone(current) || isSameOrNewer(current, dto.getVersion()))) {
+					continue;
+				}
+				apply(append(encode(dto)));
+			}
+			afterWrite(from);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	@Override
+	public void deleteAllById(Collection<Long> ids) {
+		lock.writeLock().lock();
+		try {
+			int from = end;
+			for (Long id : ids) {
+				int current = index.get(id);
+				if (current == PersonOffsetIndex.ABSENT || !isTombstone(current)) {
+					apply(append(encodeDelete(id)));
+				}
+			}
+			afterWrite(from);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	@Override
+	public Optional<String> findChangeToken() {
+		Path file = directory.resolve(TOKEN_FILE);
+		try {
+			return Files.exists(file) ? Optional.of(Files.readString(file, StandardCharsets.UTF_8)) : Optional.empty();
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	/**
+	 * Força o log para o disco antes de gravar o token, para que o token nunca
+	 * aponte além do que o log guardou.
+	 */
+	@Override
+	public void saveChangeToken(String token) {
+		lock.writeLock().lock();
+		try {
+			buffer.force();
+			Path temporary = directory.resolve(TOKEN_FILE + ".tmp");
+			Files.writeString(temporary, token, StandardCharsets.UTF_8);
+			Files.move(temporary, directory.resolve(TOKEN_FILE), StandardCopyOption.ATOMIC_MOVE,
+					StandardCopyOption.REPLACE_EXISTING);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	/**
+	 * Reescreve o log apenas com o último registro de cada pessoa.
+	 */
+	public void compact() throws IOException {
+		lock.writeLock().lock();
+		try {
+			Path target = directory.resolve(COMPACTION_FILE);
+			PersonOffsetIndex compacted = new PersonOffsetIndex(index.size());
+			int[] position = { 0 };
+			try (FileChannel out = FileChannel.open(target, StandardOpenOption.CREATE,
+					StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+				MappedByteBuffer mapped = out.map(FileChannel.MapMode.READ_WRITE, 0,
+						Math.max(initialSize, Math.min(MAX_CAPACITY, liveBytes * 2)));
+				index.forEach((id, offset) -> {
+					int size = recordSize(offset);
+					mapped.put(position[0], buffer, offset, size);
+					compacted.put(id, position[0]);
+					position[0] += size;
+				});
+				mapped.force();
+			}
+			channel.close();
+			Files.move(target, directory.resolve(LOG_FILE), StandardCopyOption.ATOMIC_MOVE,
+					StandardCopyOption.REPLACE_EXISTING);
+			channel = FileChannel.open(directory.resolve(LOG_FILE), StandardOpenOption.READ, StandardOpenOption.WRITE);
+			buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, channel.size());
+			index = compacted;
+			end = position[0];
+			liveBytes = end;
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	@Override
+	public void close() throws IOException {
+		lock.writeLock().lock();
+		try {
+			buffer.force();
+			channel.close();
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	/**
+	 * Bytes ocupados por registros, vivos ou não.
+	 */
+	int logSize() {
+		lock.readLock().lock();
+		try {
+			return end;
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	private void recover() throws IOException {
+		channel = FileChannel.open(directory.resolve(LOG_FILE), StandardOpenOption.CREATE, StandardOpenOption.READ,
+				StandardOpenOption.WRITE);
+		buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, Math.max(channel.size(), initialSize));
+		index = new PersonOffsetIndex(1024);
+		int offset = 0;
+		while (offset <= buffer.capacity() - HEADER_BYTES) {
+			int length = buffer.getInt(offset);
+			if (length == 0) {
+				break;
+			}
+			if (!isValid(offset, length)) {
+				zero(offset, buffer.capacity());
+				break;
+			}
+			apply(offset);
+			offset += HEADER_BYTES + length;
+		}
+		end = offset;
+	}
+
+	private boolean isValid(int offset, int length) {
+		if (length < DELETE_BYTES || length > buffer.capacity() - offset - HEADER_BYTES) {
+			return false;
+		}
+		crc.reset();
+		crc.update(buffer.slice(offset + HEADER_BYTES, length));
+		return (int) crc.getValue() == buffer.getInt(offset + 4);
+	}
+
+	private void apply(int offset) {
+		int body = offset + HEADER_BYTES;
+		long id = buffer.getLong(body + 2);
+		int previous = index.put(id, offset);
+		liveBytes += recordSize(offset);
+		if (isTombstone(offset)) {
+			tombstones++;
+		}
+		if (previous != PersonOffsetIndex.ABSENT) {
+			liveBytes -= recordSize(previous);
+			if (isTombstone(previous)) {
+				tombstones--;
+			}
+		}
+	}
+
+	private void afterWrite(int from) throws IOException {
+		if (syncWrites && end > from) {
+			buffer.force(from, end - from);
+		}
+		long dead = end - liveBytes;
+		if (end >= COMPACTION_MIN_BYTES && dead > end * compactionThreshold) {
+			compact();
+		}
+	}
+
+	/**
+	 * Acrescenta o corpo em {@code scratch} ao fim do log e devolve sua
+	 * posição. O tamanho só é escrito depois do corpo e do CRC.
+	 */
+	private int append(int length) throws IOException {
+		int offset = end;
+		int size = HEADER_BYTES + length;
+		if ((long) offset + size + HEADER_BYTES > buffer.capacity()) {
+			grow((long) offset + size + HEADER_BYTES);
+		}
+		crc.reset();
+		crc.update(scratch, 0, length);
+		buffer.put(offset + HEADER_BYTES, scratch, 0, length);
+		buffer.putInt(offset + 4, (int) crc.getValue());
+		buffer.putInt(offset, length);
+		end = offset + size;
+		return offset;
+	}
+
+	private void grow(long required) throws IOException {
+		if (required > MAX_CAPACITY) {
+			throw new IllegalStateException("Log de pessoas excede o limite de " + MAX_CAPACITY + " bytes");
+		}
+		long capacity = Math.min(MAX_CAPACITY, Math.max(required, (long) buffer.capacity() * 2));
+		buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, capacity);
+	}
+
+	private void zero(int from, int to) {
+		byte[] zeros = new byte[8192];
+		for (int position = from; position < to; position += zeros.length) {
+			buffer.put(position, zeros, 0, Math.min(zeros.length, to - position));
+		}
+		buffer.force();
+	}
+
+	private int recordSize(int offset) {
+		return HEADER_BYTES + buffer.getInt(offset);
+	}
+
+	private boolean isPresent(int offset) {
+		return offset != PersonOffsetIndex.ABSENT && !isTombstone(offset);
+	}
+
+	private boolean isTombstone(int offset) {
+		return buffer.get(offset + HEADER_BYTES) == DELETE;
+	}
+
+	private boolean isSameOrNewer(int offset, Long version) {
+		int body = offset + HEADER_BYTES;
+		return version != null && (buffer.get(body + 1) & HAS_VERSION) != 0 && buffer.getLong(body + 10) >= version;
+	}
+
+	private int encode(PersonDTO dto) {
+		byte[][] strings = { utf8(dto.getName()), utf8(dto.getCpf()), utf8(dto.getPhoneNumber()),
+				utf8(dto.getAdress()) };
+		int length = FIXED_BYTES;
+		for (byte[] value : strings) {
+			length += value == null ? 0 : value.length;
+		}
+		ByteBuffer body = scratch(length);
+		byte flags = 0;
+		if (dto.getVersion() != null) {
+			flags |= HAS_VERSION;
+		}
+		if (dto.getBirthDate() != null) {
+			flags |= HAS_BIRTH_DATE;
+		}
+		body.put(PUT).put(flags).putLong(dto.getId());
+		body.putLong(dto.getVersion() == null ? 0 : dto.getVersion());
+		body.putLong(dto.getBirthDate() == null ? 0 : dto.getBirthDate().getEpochSecond());
+		body.putInt(dto.getBirthDate() == null ? 0 : dto.getBirthDate().getNano());
+		for (byte[] value : strings) {
+			body.putShort((short) (value == null ? NULL_STRING : value.length));
+		}
+		for (byte[] value : strings) {
+			if (value != null) {
+				body.put(value);
+			}
+		}
+		return length;
+	}
+
+	private int encodeDelete(long id) {
+		scratch(DELETE_BYTES).put(DELETE).put((byte) 0).putLong(id);
+		return DELETE_BYTES;
+	}
+
+	private ByteBuffer scratch(int length) {
+		if (scratch.length < length) {
+			scratch = new byte[Math.max(length, scratch.length * 2)];
+		}
+		return ByteBuffer.wrap(scratch, 0, length);
+	}
+
+	private PersonDTO read(int offset) {
+		int body = offset + HEADER_BYTES;
+		byte flags = buffer.get(body + 1);
+		PersonDTO dto = new PersonDTO();
+		dto.setId(buffer.getLong(body + 2));
+		if ((flags & HAS_VERSION) != 0) {
+			dto.setVersion(buffer.getLong(body + 10));
+		}
+		if ((flags & HAS_BIRTH_DATE) != 0) {
+			dto.setBirthDate(Instant.ofEpochSecond(buffer.getLong(body + 18), buffer.getInt(body + 26)));
+		}
+		int position = body + FIXED_BYTES;
+		String[] strings = new String[4];
+		for (int i = 0; i < strings.length; i++) {
+			int length = buffer.getShort(body + STRING_LENGTHS + i * 2) & 0xFFFF;
+			if (length != NULL_STRING) {
+				byte[] bytes = new byte[length];
+				buffer.get(position, bytes);
+				strings[i] = new String(bytes, StandardCharsets.UTF_8);
+				position += length;
+			}
+		}
+		dto.setName(strings[0]);
+		dto.setCpf(strings[1]);
+		dto.setPhoneNumber(strings[2]);
+		dto.setAdress(strings[3]);
+		return dto;
+	}
+
+	private static byte[] utf8(String value) {
+		if (value == null) {
+			return null;
+		}
+		byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+		if (bytes.length >= NULL_STRING) {
+			throw new IllegalArgumentException("Campo com " + bytes.length + " bytes excede o limite do store");
+		}
+		return bytes;
+	}
+
+}
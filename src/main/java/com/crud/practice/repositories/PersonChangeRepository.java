@@ -0,0 +1,28 @@
+package com.crud.practice.repositories;
+
+import java.time.Instant;
+import java.util.List;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import com.crud.practice.entities.PersonChange;
+
+@Repository
+public interface PersonChangeRepository extends JpaRepository<PersonChange, Long> {
+
+	/**
+	 * Mudanças depois de {@code afterId}, em ordem, ignorando as gravadas depois
+	 * de {@code visibleUntil}.
+	 */
+	@Query("SELECT c FROM PersonChange c WHERE c.id > :afterId AND c.changedAt <= :visibleUntil ORDER BY c.id")
+	List<PersonChange> findVisibleAfter(@Param("afterId") Long afterId, @Param("visibleUntil") Instant visibleUntil,
+			Pageable pageable);
+
+	@Query("SELECT COALESCE(MAX(c.id), 0) FROM PersonChange c WHERE c.changedAt <= :visibleUntil")
+	Long findMaxIdVisibleUntil(@Param("visibleUntil") Instant visibleUntil);
+
+}
@@ -0,0 +1,152 @@
+package com.crud.practice.repositories;
+
+import java.util.Arrays;
+
+/**
+ * Mapa id → posição no log de {@link MappedPersonStore}, em arrays
+ * primitivos com endereçamento aberto e sondagem linear: consultas não
+ * alocam nem fazem boxing. Não é thread-safe; o store sincroniza o acesso.
+ */
+final class PersonOffsetIndex {
+
+	static final int ABSENT = -1;
+
+	private static final long EMPTY = Long.MIN_VALUE;
+
+	private static final float LOAD_FACTOR = 0.5f;
+
+	private long[] keys;
+
+	private int[] offsets;
+
+	private int mask;
+
+	private int size;
+
+	PersonOffsetIndex(int expectedSize) {
+		allocate(capacityFor(expectedSize));
+	}
+
+	int size() {
+		return size;
+	}
+
+	int get(long id) {
+		int slot = slot(id);
+		long key;
+		while ((key = keys[slot]) != EMPTY) {
+			if (key == id) {
+				return offsets[slot];
+			}
+			slot = (slot + 1) & mask;
+		}
+		return ABSENT;
+	}
+
+	/**
+	 * Grava a posição de {@code id} e devolve a anterior, ou {@link #ABSENT}.
+	 */
+	int put(long id, int offset) {
+		if (id == EMPTY) {
+			throw new IllegalArgumentException("Id não suportado: " + id);
+		}
+		int slot = slot(id);
+		long key;
+		while ((key = keys[slot]) != EMPTY) {
+			if (key == id) {
+				int previous = offsets[slot];
+				offsets[slot] = offset;
+				return previous;
+			}
+			slot = (slot + 1) & mask;
+		}
+		keys[slot] = id;
+		offsets[slot] = offset;
+		if (++size > keys.length * LOAD_FACTOR) {
+			rehash(keys.length << 1);
+		}
+		return ABSENT;
+	}
+
+	/**
+	 * Remove {@code id} e devolve sua posição, ou {@link #ABSENT}. As entradas
+	 * seguintes da mesma sequência são recuadas, sem marcadores de remoção.
+	 */
+	int remove(long id) {
+		int slot = slot(id);
+		long key;
+		while ((key = keys[slot]) != id) {
+			if (key == EMPTY) {
+				return ABSENT;
+			}
+			slot = (slot + 1) & mask;
+		}
+		int removed = offsets[slot];
+		int hole = slot;
+		int next = (hole + 1) & mask;
+		while ((key = keys[next]) != EMPTY) {
+			int ideal = slot(key);
+			if (((next - ideal) & mask) >= ((next - hole) & mask)) {
+				keys[hole] = key;
+				offsets[hole] = offsets[next];
+				hole = next;
+			}
+			next = (next + 1) & mask;
+		}
+		keys[hole] = EMPTY;
+		size--;
+		return removed;
+	}
+
+	void forEach(EntryConsumer consumer) {
+		for (int i = 0; i < keys.length; i++) {
+			if (keys[i] != EMPTY) {
+				consumer.accept(keys[i], offsets[i]);
+			}
+		}
+	}
+
+	@FunctionalInterface
+	interface EntryConsumer {
+
+		void accept(long id, int offset);
+
+	}
+
+	private int slot(long id) {
+		long hash = id * 0x9E3779B97F4A7C15L;
+		return (int) (hash ^ (hash >>> 32)) & mask;
+	}
+
+	private void rehash(int capacity) {
+		long[] oldKeys = keys;
+		int[] oldOffsets = offsets;
+		allocate(capacity);
+		for (int i = 0; i < oldKeys.length; i++) {
+			if (oldKeys[i] != EMPTY) {
+				int slot = slot(oldKeys[i]);
+				while (keys[slot] != EMPTY) {
+					slot = (slot + 1) & mask;
+				}
+				keys[slot] = oldKeys[i];
+				offsets[slot] = oldOffsets[i];
+			}
+		}
+	}
+
+	private void allocate(int capacity) {
+		keys = new long[capacity];
+		offsets = new int[capacity];
+		Arrays.fill(keys, EMPTY);
+		mask = capacity - 1;
+	}
+
+	private static int capacityFor(int expectedSize) {
+		int capacity = 16;
+		while (capacity * LOAD_FACTOR < expectedSize) {
+			capacity <<= 1;
+		}
+		return capacity;
+	}
+
+}
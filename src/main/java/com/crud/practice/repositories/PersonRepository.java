@@ -1,11 +1,118 @@
 package com.crud.practice.repositories;
 
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import javax.persistence.QueryHint;
+
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import com.crud.practice.dto.PersonDTO;
 import com.crud.practice.entities.Person;
 
 @Repository
-public interface PersonRepository extends JpaRepository<Person, Long> {
+public interface PersonRepository extends JpaRepository<Person, Long>, JpaSpecificationExecutor<Person>,
+		PersonRepositoryCustom {
+
+	/**
+	 * Seleciona direto para {@link PersonDTO}, sem entidades gerenciadas nem
+	 * snapshots de dirty checking no contexto de persistência.
+	 */
+	String SELECT_PERSON_DTO = "SELECT new com.crud.practice.dto.PersonDTO(p.id, p.name, p.cpf, p.phoneNumber, p.birthDate, p.adress, p.version) FROM Person p";
+
+	@Query(SELECT_PERSON_DTO + " WHERE p.id = :id")
+	Optional<PersonDTO> findDTOById(@Param("id") Long id);
+
+	@Query(SELECT_PERSON_DTO + " WHERE p.id IN :ids")
+	List<PersonDTO> findAllDTOByIdIn(@Param("ids") Collection<Long> ids);
+
+	@Query("SELECT p.id FROM Person p WHERE p.id IN :ids")
+	List<Long> findIdsByIdIn(@Param("ids") Collection<Long> ids);
+
+	/**
+	 * Página e contagem ficam no cache de consultas do Hibernate; qualquer
+	 * escrita em tb_person invalida os resultados.
+	 */
+	@Query(value = SELECT_PERSON_DTO, countQuery = "SELECT COUNT(p) FROM Person p")
+	@QueryHints(@QueryHint(name = "org.hibernate.cacheable", value = "true"))
+	Page<PersonDTO> findAllDTO(Pageable pageable);
+
+	/**
+	 * Como {@link #findAllDTO(Pageable)}, sem a contagem: o Spring Data lê uma
+	 * linha a mais para saber se existe próxima página.
+	 */
+	@Query(SELECT_PERSON_DTO)
+	@QueryHints(@QueryHint(name = "org.hibernate.cacheable", value = "true"))
+	Slice<PersonDTO> findAllDTOSlice(Pageable pageable);
+
+	/**
+	 * Intervalo semiaberto [from, to) sobre birth_date, resolvido pelo índice
+	 * idx_person_birth_date.
+	 */
+	@Query(value = SELECT_PERSON_DTO + " WHERE p.birthDate >= :from AND p.birthDate < :to",
+			countQuery = "SELECT COUNT(p) FROM Person p WHERE p.birthDate >= :from AND p.birthDate < :to")
+	Page<PersonDTO> findAllDTOByBirthDateBetween(@Param("from") Instant from, @Param("to") Instant to, Pageable pageable);
+
+	@Query(SELECT_PERSON_DTO + " WHERE p.birthDate >= :from AND p.birthDate < :to")
+	Slice<PersonDTO> findAllDTOSliceByBirthDateBetween(@Param("from") Instant from, @Param("to") Instant to,
+			Pageable pageable);
+
+	/**
+	 * Conta pessoas por faixa de idade completa em {@code today}, em um único
+	 * GROUP BY no banco. Cada linha traz o início da faixa e a quantidade.
+	 */
+	@Query(nativeQuery = true, value = "SELECT age_bucket * :bucketSize AS age_from, COUNT(*) AS total FROM ("
+			+ "SELECT FLOOR((DATEDIFF('YEAR', birth_date, :today) - CASE WHEN DATEADD('YEAR', "
+			+ "DATEDIFF('YEAR', birth_date, :today), birth_date) > :today THEN 1 ELSE 0 END) / :bucketSize) AS age_bucket "
+			+ "FROM tb_person WHERE birth_date <= :today) ages GROUP BY age_bucket ORDER BY age_bucket")
+	List<Object[]> countByAgeBucket(@Param("today") Instant today, @Param("bucketSize") int bucketSize);
+
+	List<Person> findByIdGreaterThanOrderByIdAsc(Long id, Pageable pageable);
+
+	Optional<Person> findByCpfNormalized(String cpfNormalized);
+
+	boolean existsByCpfNormalized(String cpfNormalized);
+
+	boolean existsByCpfNormalizedAndIdNot(String cpfNormalized, Long id);
+
+	/**
+	 * Atualiza em um único UPDATE apenas os campos não nulos, incrementando a
+	 * versão. Retorna a quantidade de linhas afetadas (0 quando o id não
+	 * existe). O CPF normalizado acompanha o CPF, mesmo quando fica nulo por
+	 * não ter dígitos.
+	 */
+	@Modifying(flushAutomatically = true, clearAutomatically = true)
+	@Query("UPDATE VERSIONED Person p SET p.name = COALESCE(:name, p.name), p.cpf = COALESCE(:cpf, p.cpf), "
+			+ "p.cpfNormalized = CASE WHEN :cpf IS NULL THEN p.cpfNormalized ELSE :cpfNormalized END, p.phoneNumber = COALESCE(:phoneNumber, p.phoneNumber), "
+			+ "p.birthDate = COALESCE(:birthDate, p.birthDate), p.adress = COALESCE(:adress, p.adress) WHERE p.id = :id")
+	int patch(@Param("id") Long id, @Param("name") String name, @Param("cpf") String cpf,
+			@Param("cpfNormalized") String cpfNormalized, @Param("phoneNumber") String phoneNumber,
+			@Param("birthDate") Instant birthDate, @Param("adress") String adress);
+
+	@Modifying(flushAutomatically = true, clearAutomatically = true)
+	@Query("DELETE FROM Person p WHERE p.id = :id")
+	int deletePersonById(@Param("id") Long id);
+
+	@Modifying(flushAutomatically = true, clearAutomatically = true)
+	@Query("DELETE FROM Person p WHERE p.id IN :ids")
+	int deletePersonsByIdIn(@Param("ids") Collection<Long> ids);
+
+	@QueryHints(value = {
+			@QueryHint(name = "org.hibernate.fetchSize", value = "500"),
+			@QueryHint(name = "org.hibernate.readOnly", value = "true") })
+	@Query("SELECT p FROM Person p ORDER BY p.id")
+	Stream<Person> streamAllOrderedById();
 
 }
@@ -0,0 +1,38 @@
+package com.crud.practice.repositories;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+
+import com.crud.practice.dto.PersonDTO;
+
+/**
+ * Consultas com seleção dinâmica de colunas: apenas os atributos pedidos vão
+ * para o SELECT e os demais campos do {@link PersonDTO} ficam nulos.
+ */
+public interface PersonRepositoryCustom {
+
+	/**
+	 * Atributos de {@link PersonDTO} que podem ser selecionados, na ordem do DTO.
+	 */
+	List<String> SELECTABLE_FIELDS = List.of("id", "name", "cpf", "phoneNumber", "birthDate", "adress", "version");
+
+	/**
+	 * Página com as colunas {@code fields}. Com {@code from} e {@code to}
+	 * preenchidos filtra o intervalo semiaberto [from, to) sobre birth_date.
+	 */
+	Page<PersonDTO> findAllDTOFields(Collection<String> fields, Instant from, Instant to, Pageable pageable);
+
+	/**
+	 * Como {@link #findAllDTOFields}, sem a consulta de contagem.
+	 */
+	Slice<PersonDTO> findAllDTOSliceFields(Collection<String> fields, Instant from, Instant to, Pageable pageable);
+
+	Optional<PersonDTO> findDTOFieldsById(Long id, Collection<String> fields);
+
+}
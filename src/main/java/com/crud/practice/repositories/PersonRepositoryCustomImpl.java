@@ -0,0 +1,131 @@
+package com.crud.practice.repositories;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.BiConsumer;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.Tuple;
+import javax.persistence.TypedQuery;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Predicate;
+import javax.persistence.criteria.Root;
+import javax.persistence.criteria.Selection;
+
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+import org.springframework.data.support.PageableExecutionUtils;
+
+import com.crud.practice.dto.PersonDTO;
+import com.crud.practice.entities.Person;
+
+class PersonRepositoryCustomImpl implements PersonRepositoryCustom {
+
+	private static final Map<String, BiConsumer<PersonDTO, Object>> SETTERS = Map.of(
+			"id", (dto, value) -> dto.setId((Long) value),
+			"name", (dto, value) -> dto.setName((String) value),
+			"cpf", (dto, value) -> dto.setCpf((String) value),
+			"phoneNumber", (dto, value) -> dto.setPhoneNumber((String) value),
+			"birthDate", (dto, value) -> dto.setBirthDate((Instant) value),
+			"adress", (dto, value) -> dto.setAdress((String) value),
+			"version", (dto, value) -> dto.setVersion((Long) value));
+
+	@PersistenceContext
+	private EntityManager entityManager;
+
+	@Override
+	public Page<PersonDTO> findAllDTOFields(Collection<String> fields, Instant from, Instant to, Pageable pageable) {
+		List<PersonDTO> content = select(fields, from, to, pageable, 0);
+		return PageableExecutionUtils.getPage(content, pageable, () -> count(from, to));
+	}
+
+	@Override
+	public Slice<PersonDTO> findAllDTOSliceFields(Collection<String> fields, Instant from, Instant to,
+			Pageable pageable) {
+		List<PersonDTO> content = select(fields, from, to, pageable, 1);
+		boolean hasNext = pageable.isPaged() && content.size() > pageable.getPageSize();
+		if (hasNext) {
+			content = content.subList(0, pageable.getPageSize());
+		}
+		return new SliceImpl<>(content, pageable, hasNext);
+	}
+
+	@Override
+	public Optional<PersonDTO> findDTOFieldsById(Long id, Collection<String> fields) {
+		CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+		CriteriaQuery<Tuple> query = cb.createTupleQuery();
+		Root<Person> root = query.from(Person.class);
+		query.multiselect(selections(fields, root)).where(cb.equal(root.get("id"), id));
+		return entityManager.createQuery(query).getResultList().stream().findFirst().map(tuple -> toDTO(tuple, fields));
+	}
+
+	/**
+	 * Lê a página pedida mais {@code extraRows} linhas, para que fatias saibam
+	 * se há próxima página sem contar.
+	 */
+	private List<PersonDTO> select(Collection<String> fields, Instant from, Instant to, Pageable pageable,
+			int extraRows) {
+		CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+		CriteriaQuery<Tuple> query = cb.createTupleQuery();
+		Root<Person> root = query.from(Person.class);
+		query.multiselect(selections(fields, root));
+		if (from != null && to != null) {
+			query.where(birthDateBetween(cb, root, from, to));
+		}
+		query.orderBy(QueryUtils.toOrders(pageable.getSort(), root, cb));
+		TypedQuery<Tuple> typedQuery = entityManager.createQuery(query);
+		if (pageable.isPaged()) {
+			typedQuery.setFirstResult((int) pageable.getOffset()).setMaxResults(pageable.getPageSize() + extraRows);
+		}
+		List<Tuple> tuples = typedQuery.getResultList();
+		List<PersonDTO> content = new ArrayList<>(tuples.size());
+		for (Tuple tuple : tuples) {
+			content.add(toDTO(tuple, fields));
+		}
+		return content;
+	}
+
+	private long count(Instant from, Instant to) {
+		CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+		CriteriaQuery<Long> query = cb.createQuery(Long.class);
+		Root<Person> root = query.from(Person.class);
+		query.select(cb.count(root));
+		if (from != null && to != null) {
+			query.where(birthDateBetween(cb, root, from, to));
+		}
+		return entityManager.createQuery(query).getSingleResult();
+	}
+
+	private static Predicate birthDateBetween(CriteriaBuilder cb, Root<Person> root, Instant from, Instant to) {
+		return cb.and(cb.greaterThanOrEqualTo(root.get("birthDate"), from), cb.lessThan(root.get("birthDate"), to));
+	}
+
+	private static List<Selection<?>> selections(Collection<String> fields, Root<Person> root) {
+		List<Selection<?>> selections = new ArrayList<>(fields.size());
+		for (String field : fields) {
+			if (!SETTERS.containsKey(field)) {
+				throw new IllegalArgumentException("Campo não selecionável: " + field);
+			}
+			selections.add(root.get(field).alias(field));
+		}
+		return selections;
+	}
+
+	private static PersonDTO toDTO(Tuple tuple, Collection<String> fields) {
+		PersonDTO dto = new PersonDTO();
+		for (String field : fields) {
+			SETTERS.get(field).accept(dto, tuple.get(field));
+		}
+		return dto;
+	}
+
+}
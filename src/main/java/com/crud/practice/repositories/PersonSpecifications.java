@@ -0,0 +1,38 @@
+package com.crud.practice.repositories;
+
+import java.util.Collection;
+
+import javax.persistence.criteria.Predicate;
+import javax.persistence.criteria.Root;
+import javax.persistence.criteria.Subquery;
+
+import org.springframework.data.jpa.domain.Specification;
+
+import com.crud.practice.entities.Person;
+import com.crud.practice.entities.PersonSearchToken;
+
+public final class PersonSpecifications {
+
+	private PersonSpecifications() {
+	}
+
+	/**
+	 * Pessoas que possuem, para cada termo informado, algum termo indexado que
+	 * comece com ele. Cada termo vira um {@code id IN (subquery)} que lê apenas
+	 * o índice de tb_person_search_token, evitando varrer tb_person.
+	 */
+	public static Specification<Person> hasTokensStartingWith(Collection<String> prefixes) {
+		return (root, query, cb) -> {
+			Predicate[] predicates = new Predicate[prefixes.size()];
+			int i = 0;
+			for (String prefix : prefixes) {
+				Subquery<Long> subquery = query.subquery(Long.class);
+				Root<PersonSearchToken> token = subquery.from(PersonSearchToken.class);
+				subquery.select(token.get("personId")).where(cb.like(token.get("token"), prefix + "%"));
+				predicates[i++] = root.get("id").in(subquery);
+			}
+			return cb.and(predicates);
+		};
+	}
+
+}
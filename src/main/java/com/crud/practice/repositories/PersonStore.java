@@ -0,0 +1,45 @@
+package com.crud.practice.repositories;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+import com.crud.practice.dto.PersonDTO;
+
+/**
+ * Leituras por id que {@code PersonService} faz em {@link PersonRepository},
+ * atendidas por um backend fora do banco relacional. O banco continua sendo a
+ * fonte da verdade: o serviço replica nele cada escrita confirmada, e o
+ * {@code PersonStoreSynchronizer} aplica o change log, que também traz as
+ * escritas das outras instâncias.
+ */
+public interface PersonStore {
+
+	Optional<PersonDTO> findDTOById(Long id);
+
+	List<PersonDTO> findAllDTOByIdIn(Collection<Long> ids);
+
+	long count();
+
+	/**
+	 * Grava as pessoas; uma versão igual ou mais antiga que a já guardada é
+	 * ignorada, para que réplicas fora de ordem não voltem o estado.
+	 */
+	void saveAll(Collection<PersonDTO> dtos);
+
+	/**
+	 * Remove as pessoas de forma definitiva: nenhuma versão gravada depois
+	 * para esses ids é aceita, então uma réplica atrasada não ressuscita quem
+	 * já foi removido.
+	 */
+	void deleteAllById(Collection<Long> ids);
+
+	/**
+	 * Token do change log até onde o store já foi sincronizado; vazio se
+	 * nunca foi.
+	 */
+	Optional<String> findChangeToken();
+
+	void saveChangeToken(String token);
+
+}
@@ -0,0 +1,87 @@
+package com.crud.practice.services;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.crud.practice.dto.PersonChangeDTO;
+import com.crud.practice.dto.PersonChangePageDTO;
+import com.crud.practice.dto.PersonDTO;
+import com.crud.practice.entities.PersonChange;
+import com.crud.practice.repositories.PersonChangeRepository;
+import com.crud.practice.repositories.PersonRepository;
+import com.crud.practice.services.exceptions.BadRequestException;
+
+/**
+ * Leitura do change log de pessoas para sincronização incremental. O cliente
+ * guarda o token {@code next} de cada página e o envia como {@code since} na
+ * chamada seguinte; sem {@code since}, a leitura começa do início do log.
+ *
+ * Os ids do log saem de uma sequência do banco, compartilhada por todas as
+ * instâncias, mas são reservados pouco antes do commit; uma transação ainda
+ * em commit pode publicar um id menor do que outro já lido. Por isso só
+ * aparecem mudanças gravadas há mais de app.person.changes.visibility-delay.
+ * O PersonService grava o log e o changed_at depois do flush das pessoas, então
+ * o atraso cobre só o commit, não a transação inteira.
+ */
+@Service
+public class PersonChangeService {
+
+	private static final int MAX_PAGE_SIZE = 1000;
+
+	@Autowired
+	private PersonChangeRepository changeRepository;
+
+	@Autowired
+	private PersonRepository personRepository;
+
+	@Value("${app.person.changes.visibility-delay:1s}")
+	private Duration visibilityDelay;
+
+	/**
+	 * Token da última mudança visível agora: lendo a partir dele chegam só as
+	 * mudanças posteriores.
+	 */
+	@Transactional(readOnly = true)
+	public String findHead() {
+		return PersonService.encodeCursor(changeRepository.findMaxIdVisibleUntil(Instant.now().minus(visibilityDelay)));
+	}
+
+	@Transactional(readOnly = true)
+	public PersonChangePageDTO findChanges(String since, int size) {
+		if (size < 1 || size > MAX_PAGE_SIZE) {
+			throw new BadRequestException("Tamanho de página inválido: " + size);
+		}
+		Long afterId = PersonService.decodeCursor(since);
+		List<PersonChange> changes = changeRepository.findVisibleAfter(afterId, Instant.now().minus(visibilityDelay),
+				PageRequest.of(0, size + 1));
+		boolean hasMore = changes.size() > size;
+		if (hasMore) {
+			changes = changes.subList(0, size);
+		}
+
+		List<Long> livePersonIds = changes.stream().filter(change -> change.getType() != PersonChange.Type.DELETE)
+				.map(PersonChange::getPersonId).distinct().collect(Collectors.toList());
+		Map<Long, PersonDTO> persons = livePersonIds.isEmpty() ? Map.of()
+				: personRepository.findAllDTOByIdIn(livePersonIds).stream()
+						.collect(Collectors.toMap(PersonDTO::getId, Function.identity()));
+
+		List<PersonChangeDTO> content = changes.stream()
+				.map(change -> new PersonChangeDTO(PersonService.encodeCursor(change.getId()), change.getType().name(),
+						change.getPersonId(), change.getChangedAt(),
+						change.getType() == PersonChange.Type.DELETE ? null : persons.get(change.getPersonId())))
+				.collect(Collectors.toList());
+		String next = content.isEmpty() ? PersonService.encodeCursor(afterId) : content.get(content.size() - 1).getToken();
+		return new PersonChangePageDTO(content, next, hasMore);
+	}
+
+}
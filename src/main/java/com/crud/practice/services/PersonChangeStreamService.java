@@ -0,0 +1,149 @@
+package com.crud.practice.services;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledFuture;
+
+import javax.annotation.PreDestroy;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import com.crud.practice.config.AsyncConfig;
+import com.crud.practice.dto.PersonChangeDTO;
+import com.crud.practice.dto.PersonChangePageDTO;
+
+/**
+ * Entrega o change log de pessoas por Server-Sent Events. Cada assinante é uma
+ * tarefa que lê o log a cada app.person.changes.stream.poll-interval a partir
+ * do próprio token e envia um evento por mudança, com o token como id do
+ * evento; ao reconectar, o cliente retoma pelo cabeçalho Last-Event-ID.
+ */
+@Service
+public class PersonChangeStreamService {
+
+	private static final Logger LOG = LoggerFactory.getLogger(PersonChangeStreamService.class);
+
+	private static final int MAX_PAGES_PER_POLL = 20;
+
+	@Autowired
+	private PersonChangeService changeService;
+
+	@Autowired
+	@Qualifier(AsyncConfig.PERSON_CHANGES_SCHEDULER)
+	private TaskScheduler scheduler;
+
+	@Value("${app.person.changes.stream.poll-interval:1s}")
+	private Duration pollInterval;
+
+	@Value("${app.person.changes.stream.heartbeat:15s}")
+	private Duration heartbeat;
+
+	@Value("${app.person.changes.stream.timeout:30m}")
+	private Duration timeout;
+
+	@Value("${app.person.changes.stream.max-subscribers:100}")
+	private int maxSubscribers;
+
+	@Value("${app.person.changes.stream.batch-size:500}")
+	private int batchSize;
+
+	private final Set<Subscription> subscriptions = ConcurrentHashMap.newKeySet();
+
+	public SseEmitter subscribe(String since) {
+		PersonService.decodeCursor(since);
+		if (subscriptions.size() >= maxSubscribers) {
+			throw new RejectedExecutionException("Limite de assinantes do change log atingido");
+		}
+		SseEmitter emitter = new SseEmitter(timeout.toMillis());
+		Subscription subscription = new Subscription(emitter, since);
+		subscriptions.add(subscription);
+		emitter.onCompletion(subscription::cancel);
+		emitter.onTimeout(subscription::cancel);
+		emitter.onError(e -> subscription.cancel());
+		subscription.task = scheduler.scheduleWithFixedDelay(subscription::poll, pollInterval);
+		return emitter;
+	}
+
+	@PreDestroy
+	void completeAll() {
+		subscriptions.forEach(subscription -> {
+			subscription.cancel();
+			subscription.emitter.complete();
+		});
+	}
+
+	private final class Subscription {
+
+		private final SseEmitter emitter;
+
+		private String cursor;
+
+		private long lastSentNanos = System.nanoTime();
+
+		private volatile ScheduledFuture<?> task;
+
+		private volatile boolean cancelled;
+
+		Subscription(SseEmitter emitter, String cursor) {
+			this.emitter = emitter;
+			this.cursor = cursor;
+		}
+
+		void poll() {
+			if (cancelled) {
+				return;
+			}
+			try {
+				boolean sent = false;
+				for (int pages = 0; pages < MAX_PAGES_PER_POLL; pages++) {
+					PersonChangePageDTO page = changeService.findChanges(cursor, batchSize);
+					for (PersonChangeDTO change : page.getChanges()) {
+						emitter.send(SseEmitter.event().id(change.getToken()).name(change.getType().toLowerCase())
+								.data(change, MediaType.APPLICATION_JSON));
+						sent = true;
+					}
+					cursor = page.getNext();
+					if (!page.isHasMore()) {
+						break;
+					}
+				}
+				long now = System.nanoTime();
+				if (sent) {
+					lastSentNanos = now;
+				} else if (now - lastSentNanos >= heartbeat.toNanos()) {
+					emitter.send(SseEmitter.event().comment("keep-alive"));
+					lastSentNanos = now;
+				}
+			} catch (IOException | IllegalStateException e) {
+				// o cliente desconectou ou o emitter já foi encerrado
+				cancel();
+			} catch (RuntimeException e) {
+				LOG.warn("Falha ao enviar o change log de pessoas", e);
+				cancel();
+				emitter.completeWithError(e);
+			}
+		}
+
+		void cancel() {
+			cancelled = true;
+			subscriptions.remove(this);
+			ScheduledFuture<?> scheduled = task;
+			if (scheduled != null) {
+				scheduled.cancel(false);
+			}
+		}
+
+	}
+
+}
@@ -0,0 +1,97 @@
+package com.crud.practice.services;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import com.crud.practice.dto.PersonImportErrorDTO;
+import com.crud.practice.dto.PersonImportStatusDTO;
+
+/**
+ * Estado de uma importação em andamento. É escrito apenas pela thread da
+ * importação e lido pelo endpoint de status, que recebe uma cópia.
+ */
+class PersonImportJob {
+
+	enum Status {
+		QUEUED, RUNNING, COMPLETED, FAILED
+	}
+
+	private final String id = UUID.randomUUID().toString();
+
+	private final Instant createdAt = Instant.now();
+
+	private final long totalBytes;
+
+	private final int maxErrors;
+
+	private final List<PersonImportErrorDTO> errors = new ArrayList<>();
+
+	private volatile Status status = Status.QUEUED;
+
+	private volatile long bytesRead;
+
+	private volatile long processedLines;
+
+	private volatile long imported;
+
+	private volatile long failed;
+
+	private volatile String message;
+
+	private volatile Instant finishedAt;
+
+	PersonImportJob(long totalBytes, int maxErrors) {
+		this.totalBytes = totalBytes;
+		this.maxErrors = maxErrors;
+	}
+
+	String getId() {
+		return id;
+	}
+
+	void start() {
+		status = Status.RUNNING;
+	}
+
+	void progress(long bytesRead, long processedLines) {
+		this.bytesRead = bytesRead;
+		this.processedLines = processedLines;
+	}
+
+	void imported(long count) {
+		imported += count;
+	}
+
+	synchronized void failed(long line, String error) {
+		failed++;
+		if (errors.size() < maxErrors) {
+			errors.add(new PersonImportErrorDTO(line, error));
+		}
+	}
+
+	void complete() {
+		finish(Status.COMPLETED, null);
+	}
+
+	void fail(String message) {
+		finish(Status.FAILED, message);
+	}
+
+	boolean isFinishedBefore(Instant instant) {
+		return finishedAt != null && finishedAt.isBefore(instant);
+	}
+
+	synchronized PersonImportStatusDTO toDTO() {
+		return new PersonImportStatusDTO(id, status.name(), totalBytes, bytesRead, processedLines, imported, failed,
+				new ArrayList<>(errors), message, createdAt, finishedAt);
+	}
+
+	private void finish(Status status, String message) {
+		this.message = message;
+		this.finishedAt = Instant.now();
+		this.status = status;
+	}
+
+}
@@ -0,0 +1,265 @@
+package com.crud.practice.services;
+
+import java.io.BufferedReader;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import com.crud.practice.config.AsyncConfig;
+import com.crud.practice.dto.PersonBatchResultDTO;
+import com.crud.practice.dto.PersonDTO;
+import com.crud.practice.dto.PersonImportStatusDTO;
+import com.crud.practice.services.exceptions.BadRequestException;
+import com.crud.practice.services.exceptions.ResourceNotFoundException;
+import com.crud.practice.util.CsvParser;
+
+/**
+ * Importação de pessoas a partir de CSV com cabeçalho (colunas name, cpf,
+ * phoneNumber, birthDate e adress, em qualquer ordem). O arquivo é lido linha a
+ * linha e gravado em lotes de app.person.import.chunk-size, cada lote em sua
+ * transação, então a memória usada não depende do tamanho do arquivo.
+ */
+@Service
+public class PersonImportService {
+
+	private static final Logger LOG = LoggerFactory.getLogger(PersonImportService.class);
+
+	private static final List<String> COLUMNS = List.of("name", "cpf", "phonenumber", "birthdate", "adress");
+
+	@Autowired
+	private PersonService personService;
+
+	@Autowired
+	@Qualifier(AsyncConfig.PERSON_IMPORT_EXECUTOR)
+	private Executor executor;
+
+	@Value("${app.person.import.chunk-size:500}")
+	private int chunkSize;
+
+	@Value("${app.person.import.max-errors:1000}")
+	private int maxErrors;
+
+	@Value("${app.person.import.retention:1h}")
+	private Duration retention;
+
+	private final Map<String, PersonImportJob> jobs = new ConcurrentHashMap<>();
+
+	public PersonImportStatusDTO submit(MultipartFile file) {
+		jobs.values().removeIf(job -> job.isFinishedBefore(Instant.now().minus(retention)));
+		Path path = null;
+		try {
+			path = Files.createTempFile("person-import-", ".csv");
+			file.transferTo(path);
+			Map<String, Integer> columns = readHeader(path);
+			PersonImportJob job = new PersonImportJob(Files.size(path), maxErrors);
+			jobs.put(job.getId(), job);
+			Path upload = path;
+			try {
+				executor.execute(() -> run(job, upload, columns));
+			} catch (RejectedExecutionException e) {
+				jobs.remove(job.getId());
+				throw e;
+			}
+			return job.toDTO();
+		} catch (IOException e) {
+			deleteQuietly(path);
+			throw new UncheckedIOException(e);
+		} catch (RuntimeException e) {
+			deleteQuietly(path);
+			throw e;
+		}
+	}
+
+	public PersonImportStatusDTO findStatus(String id) {
+		PersonImportJob job = jobs.get(id);
+		if (job == null) {
+			throw new ResourceNotFoundException("Importação não encontrada: " + id);
+		}
+		return job.toDTO();
+	}
+
+	private void run(PersonImportJob job, Path path, Map<String, Integer> columns) {
+		job.start();
+		try (CountingInputStream in = new CountingInputStream(Files.newInputStream(path));
+				BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8))) {
+			reader.readLine();
+			List<PersonDTO> chunk = new ArrayList<>(chunkSize);
+			List<Long> chunkLines = new ArrayList<>(chunkSize);
+			long lineNumber = 1;
+			String line;
+			while ((line = reader.readLine()) != null) {
+				lineNumber++;
+				if (line.isBlank()) {
+					continue;
+				}
+				try {
+					chunk.add(toDTO(CsvParser.parseLine(line), columns));
+					chunkLines.add(lineNumber);
+				} catch (IllegalArgumentException e) {
+					job.failed(lineNumber, e.getMessage());
+				}
+				if (chunk.size() == chunkSize) {
+					insertChunk(job, chunk, chunkLines);
+				}
+				job.progress(in.getCount(), lineNumber - 1);
+			}
+			insertChunk(job, chunk, chunkLines);
+			job.progress(in.getCount(), lineNumber - 1);
+			job.complete();
+		} catch (IOException | RuntimeException e) {
+			LOG.error("Falha na importação {}", job.getId(), e);
+			job.fail(e.getMessage());
+		} finally {
+			deleteQuietly(path);
+		}
+	}
+
+	private void insertChunk(PersonImportJob job, List<PersonDTO> chunk, List<Long> chunkLines) {
+		if (chunk.isEmpty()) {
+			return;
+		}
+		List<PersonBatchResultDTO> results = personService.insertAll(chunk);
+		long imported = 0;
+		for (PersonBatchResultDTO result : results) {
+			if (result.getError() == null) {
+				imported++;
+			} else {
+				job.failed(chunkLines.get(result.getIndex()), result.getError());
+			}
+		}
+		job.imported(imported);
+		chunk.clear();
+		chunkLines.clear();
+	}
+
+	private Map<String, Integer> readHeader(Path path) throws IOException {
+		String header;
+		try (BufferedReader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+			header = reader.readLine();
+		}
+		if (header == null) {
+			throw new BadRequestException("Arquivo vazio");
+		}
+		if (header.startsWith("\uFEFF")) {
+			header = header.substring(1);
+		}
+		Map<String, Integer> columns = new HashMap<>();
+		List<String> names = CsvParser.parseLine(header);
+		for (int i = 0; i < names.size(); i++) {
+			String name = names.get(i).trim().toLowerCase(Locale.ROOT);
+			if (COLUMNS.contains(name)) {
+				columns.put(name, i);
+			}
+		}
+		if (!columns.containsKey("name") || !columns.containsKey("cpf")) {
+			throw new BadRequestException("Cabeçalho deve conter as colunas name e cpf: " + header);
+		}
+		return columns;
+	}
+
+	private PersonDTO toDTO(List<String> fields, Map<String, Integer> columns) {
+		PersonDTO dto = new PersonDTO();
+		dto.setName(field(fields, columns, "name"));
+		dto.setCpf(field(fields, columns, "cpf"));
+		dto.setPhoneNumber(field(fields, columns, "phonenumber"));
+		dto.setAdress(field(fields, columns, "adress"));
+		dto.setBirthDate(parseBirthDate(field(fields, columns, "birthdate")));
+		if (dto.getName() == null || dto.getCpf() == null) {
+			throw new IllegalArgumentException("Nome e CPF são obrigatórios");
+		}
+		return dto;
+	}
+
+	private String field(List<String> fields, Map<String, Integer> columns, String column) {
+		Integer index = columns.get(column);
+		if (index == null || index >= fields.size()) {
+			return null;
+		}
+		String value = fields.get(index).trim();
+		return value.isEmpty() ? null : value;
+	}
+
+	private Instant parseBirthDate(String value) {
+		if (value == null) {
+			return null;
+		}
+		try {
+			if (value.length() == 10) {
+				return LocalDate.parse(value).atStartOfDay().toInstant(ZoneOffset.UTC);
+			}
+			return Instant.parse(value);
+		} catch (DateTimeParseException e) {
+			throw new IllegalArgumentException("Data de nascimento inválida: " + value);
+		}
+	}
+
+	private void deleteQuietly(Path path) {
+		if (path == null) {
+			return;
+		}
+		try {
+			Files.deleteIfExists(path);
+		} catch (IOException e) {
+			LOG.warn("Não foi possível apagar {}", path, e);
+		}
+	}
+
+	private static class CountingInputStream extends FilterInputStream {
+
+		private volatile long count;
+
+		CountingInputStream(InputStream in) {
+			super(in);
+		}
+
+		long getCount() {
+			return count;
+		}
+
+		@Override
+		public int read() throws IOException {
+			int b = super.read();
+			if (b != -1) {
+				count++;
+			}
+			return b;
+		}
+
+		@Override
+		public int read(byte[] b, int off, int len) throws IOException {
+			int n = super.read(b, off, len);
+			if (n > 0) {
+				count += n;
+			}
+			return n;
+		}
+
+	}
+
+}
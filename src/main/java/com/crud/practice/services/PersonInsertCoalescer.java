@@ -0,0 +1,276 @@
+package com.crud.practice.services;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicReference;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.crud.practice.config.ReadWriteRoutingDataSource;
+import com.crud.practice.config.ReadYourWritesFilter;
+import com.crud.practice.dto.PersonDTO;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Agrupa inserções concorrentes de pessoas em uma única transação. Cada
+ * chamada a {@link #insert(PersonDTO)} entra em uma fila e espera; uma thread
+ * dedicada junta o que chegou até app.person.insert-coalescing.max-batch-size
+ * pessoas ou app.person.insert-coalescing.max-delay depois da primeira, e grava
+ * tudo com um commit só.
+ *
+ * Se o lote falhar antes do commit (um CPF repetido, por exemplo), cada
+ * pessoa é regravada sozinha por {@link PersonService#insert(PersonDTO)}, e
+ * cada chamador recebe o próprio id ou a própria exceção, como sem o
+ * agrupamento. Um lote já confirmado nunca é regravado, mesmo que algo falhe
+ * depois do commit.
+ *
+ * O commit acontece na thread do agrupador, então a escrita é registrada
+ * para o cliente na thread do chamador, depois do resultado, e o cookie de
+ * {@link ReadYourWritesFilter} sai na resposta como numa inserção comum.
+ *
+ * O chamador espera no máximo app.person.insert-coalescing.wait-timeout e
+ * recebe RejectedExecutionException se o lote não sair a tempo; uma pessoa
+ * que ainda estava na fila é descartada, mas uma que já estava no lote em
+ * gravação pode ser gravada mesmo assim.
+ */
+@Service
+@ConditionalOnProperty(name = "app.person.insert-coalescing.enabled", havingValue = "true")
+public class PersonInsertCoalescer {
+
+	private static final Logger LOG = LoggerFactory.getLogger(PersonInsertCoalescer.class);
+
+	private static final long IDLE_POLL_MILLIS = 100;
+
+	@Autowired
+	private PersonService personService;
+
+	@Autowired
+	private TransactionTemplate transactionTemplate;
+
+	@Autowired
+	private MeterRegistry meterRegistry;
+
+	@Value("${app.person.insert-coalescing.max-batch-size:500}")
+	private int maxBatchSize;
+
+	@Value("${app.person.insert-coalescing.max-delay:5ms}")
+	private Duration maxDelay;
+
+	@Value("${app.person.insert-coalescing.queue-capacity:10000}")
+	private int queueCapacity;
+
+	@Value("${app.person.insert-coalescing.wait-timeout:30s}")
+	private Duration waitTimeout;
+
+	private BlockingQueue<PendingInsert> queue;
+
+	private Thread flusher;
+
+	private volatile boolean running;
+
+	private DistributionSummary batchSize;
+
+	private Timer flushTimer;
+
+	private Counter fallbacks;
+
+	@PostConstruct
+	void start() {
+		queue = new ArrayBlockingQueue<>(queueCapacity);
+		batchSize = DistributionSummary.builder("person.insert.coalesced.batch.size")
+				.description("Pessoas gravadas por transação agrupada")
+				.publishPercentiles(0.5, 0.95, 0.99)
+				.register(meterRegistry);
+		flushTimer = Timer.builder("person.insert.coalesced.flush")
+				.description("Tempo para gravar um lote agrupado")
+				.register(meterRegistry);
+		fallbacks = Counter.builder("person.insert.coalesced.fallback")
+				.description("Lotes que falharam e foram regravados pessoa a pessoa")
+				.register(meterRegistry);
+		running = true;
+		flusher = new Thread(this::run, "person-insert-coalescer");
+		flusher.setDaemon(true);
+		flusher.start();
+	}
+
+	/**
+	 * Para de aceitar inserções e espera a fila ser gravada.
+	 */
+	@PreDestroy
+	void stop() throws InterruptedException {
+		running = false;
+		flusher.join(TimeUnit.SECONDS.toMillis(30));
+	}
+
+	public PersonDTO insert(PersonDTO dto) {
+		PendingInsert pending = new PendingInsert(dto);
+		if (!running || !queue.offer(pending)) {
+			throw new RejectedExecutionException("Fila de inserções cheia");
+		}
+		// o flusher pode ter saído entre a checagem e o offer
+		if (!running && queue.remove(pending)) {
+			throw new RejectedExecutionException("Agrupador de inserções encerrado");
+		}
+		try {
+			return written(pending.result.get(waitTimeout.toNanos(), TimeUnit.NANOSECONDS));
+		} catch (ExecutionException e) {
+			if (e.getCause() instanceof RuntimeException) {
+				throw (RuntimeException) e.getCause();
+			}
+			throw new CompletionException(e.getCause());
+		} catch (TimeoutException e) {
+			RejectedExecutionException timeout = new RejectedExecutionException(
+					"Inserção agrupada não concluída em " + waitTimeout);
+			if (pending.result.completeExceptionally(timeout)) {
+				throw timeout;
+			}
+			return written(pending.result.join());
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			pending.result.completeExceptionally(e);
+			throw new RejectedExecutionException("Espera pela inserção agrupada interrompida", e);
+		}
+	}
+
+	/**
+	 * Roda na thread do chamador, depois do commit; o instante é o do
+	 * resultado, nunca anterior ao commit.
+	 */
+	private static PersonDTO written(PersonDTO inserted) {
+		ReadWriteRoutingDataSource.recordClientWrite(System.currentTimeMillis());
+		return inserted;
+	}
+
+	private void run() {
+		List<PendingInsert> batch = new ArrayList<>(maxBatchSize);
+		try {
+			while (running || !queue.isEmpty()) {
+				PendingInsert first = queue.poll(IDLE_POLL_MILLIS, TimeUnit.MILLISECONDS);
+				if (first == null) {
+					continue;
+				}
+				batch.add(first);
+				long deadline = System.nanoTime() + maxDelay.toNanos();
+				while (batch.size() < maxBatchSize) {
+					PendingInsert next = queue.poll(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+					if (next == null) {
+						break;
+					}
+					batch.add(next);
+				}
+				try {
+					flush(batch);
+				} catch (Throwable e) {
+					LOG.error("Falha ao gravar lote de {} inserções", batch.size(), e);
+					batch.forEach(pending -> pending.result.completeExceptionally(e));
+				}
+				batch.clear();
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			running = false;
+			queue.drainTo(batch);
+			batch.forEach(pending -> pending.result.completeExceptionally(
+					new RejectedExecutionException("Agrupador de inserções interrompido")));
+		}
+	}
+
+	private void flush(List<PendingInsert> batch) {
+		// quem desistiu por timeout enquanto esperava na fila não é gravado
+		batch.removeIf(pending -> pending.result.isDone());
+		if (batch.isEmpty()) {
+			return;
+		}
+		batchSize.record(batch.size());
+		List<PersonDTO> dtos = new ArrayList<>(batch.size());
+		batch.forEach(pending -> dtos.add(pending.dto));
+		AtomicReference<List<PersonDTO>> committed = new AtomicReference<>();
+		List<PersonDTO> inserted;
+		try {
+			inserted = flushTimer.recordCallable(() -> insertInOneTransaction(dtos, committed));
+		} catch (Exception e) {
+			if (committed.get() != null) {
+				LOG.warn("Lote de {} inserções confirmado, mas falhou depois do commit", batch.size(), e);
+				complete(batch, committed.get());
+				return;
+			}
+			LOG.debug("Lote de {} inserções falhou, regravando uma a uma", batch.size(), e);
+			fallbacks.increment();
+			for (PendingInsert pending : batch) {
+				if (pending.result.isDone()) {
+					continue;
+				}
+				try {
+					pending.result.complete(personService.insert(pending.dto));
+				} catch (RuntimeException itemException) {
+					pending.result.completeExceptionally(itemException);
+				}
+			}
+			return;
+		}
+		complete(batch, inserted);
+	}
+
+	/**
+	 * Grava o lote e, só se o commit acontecer, publica as pessoas gravadas em
+	 * {@code committed}.
+	 */
+	private List<PersonDTO> insertInOneTransaction(List<PersonDTO> dtos, AtomicReference<List<PersonDTO>> committed) {
+		return transactionTemplate.execute(status -> {
+			List<PersonDTO> inserted = personService.insertInOneTransaction(dtos);
+			TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+
+				@Override
+				public void afterCompletion(int completionStatus) {
+					if (completionStatus == STATUS_COMMITTED) {
+						committed.set(inserted);
+					}
+				}
+			});
+			return inserted;
+		});
+	}
+
+	private static void complete(List<PendingInsert> batch, List<PersonDTO> inserted) {
+		for (int i = 0; i < batch.size(); i++) {
+			batch.get(i).result.complete(inserted.get(i));
+		}
+	}
+
+	private static final class PendingInsert {
+
+		private final PersonDTO dto;
+
+		private final CompletableFuture<PersonDTO> result = new CompletableFuture<>();
+
+		PendingInsert(PersonDTO dto) {
+			this.dto = dto;
+		}
+
+	}
+
+}
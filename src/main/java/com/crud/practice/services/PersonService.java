@@ -1,53 +1,338 @@
 package com.crud.practice.services;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
+import javax.persistence.EntityManager;
 import javax.persistence.EntityNotFoundException;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.dao.EmptyResultDataAccessException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import com.crud.practice.config.CacheConfig;
+import com.crud.practice.config.ReadWriteRoutingDataSource;
+import com.crud.practice.dto.PersonAgeBucketDTO;
+import com.crud.practice.dto.PersonBatchResultDTO;
+import com.crud.practice.dto.PersonCursorPageDTO;
 import com.crud.practice.dto.PersonDTO;
+import com.crud.practice.dto.PersonDeleteResultDTO;
 import com.crud.practice.entities.Person;
+import com.crud.practice.entities.PersonChange;
+import com.crud.practice.repositories.PersonChangeRepository;
 import com.crud.practice.repositories.PersonRepository;
+import com.crud.practice.repositories.PersonSpecifications;
+import com.crud.practice.repositories.PersonStore;
+import com.crud.practice.services.exceptions.BadRequestException;
+import com.crud.practice.services.exceptions.PreconditionFailedException;
+import com.crud.practice.services.exceptions.ResourceConflictException;
 import com.crud.practice.services.exceptions.ResourceNotFoundException;
+import com.crud.practice.util.ConstraintViolations;
+import com.crud.practice.util.TextNormalizer;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
 
 @Service
 public class PersonService {
 
+	private static final Logger LOG = LoggerFactory.getLogger(PersonService.class);
+
+	private static final int MAX_CURSOR_PAGE_SIZE = 1000;
+
+	private static final int MAX_SEARCH_TOKENS = 5;
+
+	private static final int MAX_AGE_BUCKET_SIZE = 150;
+
+	private static final LocalDate MIN_BIRTH_DATE = LocalDate.of(1000, 1, 1);
+
+	private static final LocalDate MAX_BIRTH_DATE = LocalDate.of(9999, 12, 31);
+
 	@Autowired
 	private PersonRepository repository;
 
+	@Autowired
+	private PersonChangeRepository changeRepository;
+
+	@Autowired
+	private PersonTotalCounter totalCounter;
+
+	@Autowired(required = false)
+	private PersonStore store;
+
+	@Autowired
+	private TransactionTemplate transactionTemplate;
+
+	@Autowired
+	private EntityManager entityManager;
+
+	@Autowired
+	private ObjectMapper objectMapper;
+
+	@Autowired
+	private CacheManager cacheManager;
+
+	@Value("${app.person.batch.chunk-size:500}")
+	private int batchChunkSize;
+
+	@Value("${app.person.delete.chunk-size:1000}")
+	private int deleteChunkSize;
+
 	@Transactional(readOnly = true)
 	public Page<PersonDTO> findAllPaged(Pageable pageable) {
-		Page<Person> page = repository.findAll(pageable);
+		return repository.findAllDTO(pageable);
+	}
+
+	/**
+	 * Como {@link #findAllPaged(Pageable)}, mas sem a consulta de contagem.
+	 */
+	@Transactional(readOnly = true)
+	public Slice<PersonDTO> findAllSliced(Pageable pageable) {
+		return repository.findAllDTOSlice(pageable);
+	}
+
+	/**
+	 * Total aproximado de pessoas, mantido por {@link PersonTotalCounter}; nulo
+	 * quando app.person.approximate-total.enabled=false.
+	 */
+	public Long approximateTotal() {
+		return totalCounter.approximateTotal();
+	}
+
+	/**
+	 * Pessoas nascidas entre {@code bornFrom} e {@code bornTo}, inclusive;
+	 * qualquer um dos limites pode ser omitido.
+	 */
+	@Transactional(readOnly = true)
+	public Page<PersonDTO> findAllByBirthDate(LocalDate bornFrom, LocalDate bornTo, Pageable pageable) {
+		Instant[] range = birthDateRange(bornFrom, bornTo);
+		return repository.findAllDTOByBirthDateBetween(range[0], range[1], pageable);
+	}
+
+	@Transactional(readOnly = true)
+	public Slice<PersonDTO> findAllByBirthDateSliced(LocalDate bornFrom, LocalDate bornTo, Pageable pageable) {
+		Instant[] range = birthDateRange(bornFrom, bornTo);
+		return repository.findAllDTOSliceByBirthDateBetween(range[0], range[1], pageable);
+	}
+
+	/**
+	 * Como {@link #findAllPaged(Pageable)} e {@link #findAllByBirthDate}, mas
+	 * selecionando apenas as colunas de {@code fields}.
+	 */
+	@Transactional(readOnly = true)
+	public Page<PersonDTO> findAllFields(Set<String> fields, LocalDate bornFrom, LocalDate bornTo, Pageable pageable) {
+		Instant[] range = bornFrom == null && bornTo == null ? new Instant[2] : birthDateRange(bornFrom, bornTo);
+		return repository.findAllDTOFields(fields, range[0], range[1], pageable);
+	}
+
+	@Transactional(readOnly = true)
+	public Slice<PersonDTO> findAllFieldsSliced(Set<String> fields, LocalDate bornFrom, LocalDate bornTo,
+			Pageable pageable) {
+		Instant[] range = bornFrom == null && bornTo == null ? new Instant[2] : birthDateRange(bornFrom, bornTo);
+		return repository.findAllDTOSliceFields(fields, range[0], range[1], pageable);
+	}
+
+	/**
+	 * Se a pessoa já está no cache de {@link #findById(Long)} ou há um
+	 * {@link PersonStore}, a resposta sai de lá; caso contrário lê só as
+	 * colunas pedidas, sem popular o cache. A versão é sempre lida para que a
+	 * resposta mantenha a ETag.
+	 */
+	@Transactional(readOnly = true)
+	public PersonDTO findByIdFields(Long id, Set<String> fields) {
+		Cache cache = personsCacheForRead();
+		PersonDTO cached = cache == null ? null : cache.get(id, PersonDTO.class);
+		if (cached != null) {
+			return cached.copy();
+		}
+		if (store != null) {
+			return store.findDTOById(id).orElseThrow(()-> new ResourceNotFoundException("Id não encontrado: " + id));
+		}
+		Set<String> columns = new LinkedHashSet<>(fields);
+		columns.add("version");
+		Optional<PersonDTO> obj = repository.findDTOFieldsById(id, columns);
+		return obj.orElseThrow(()-> new ResourceNotFoundException("Id não encontrado: " + id));
+	}
+
+	/**
+	 * Converte o parâmetro {@code fields} (nomes separados por vírgula) no
+	 * conjunto de atributos a selecionar, na ordem pedida.
+	 */
+	public static Set<String> parseFields(String fields) {
+		Set<String> parsed = new LinkedHashSet<>();
+		for (String field : fields.split(",")) {
+			String name = field.trim();
+			if (name.isEmpty()) {
+				continue;
+			}
+			if (!PersonRepository.SELECTABLE_FIELDS.contains(name)) {
+				throw new BadRequestException("Campo inválido: " + name + ". Campos aceitos: "
+						+ String.join(",", PersonRepository.SELECTABLE_FIELDS));
+			}
+			parsed.add(name);
+		}
+		if (parsed.isEmpty()) {
+			throw new BadRequestException("Informe ao menos um campo em fields");
+		}
+		return parsed;
+	}
+
+	@Transactional(readOnly = true)
+	public List<PersonAgeBucketDTO> ageHistogram(int bucketSize) {
+		if (bucketSize < 1 || bucketSize > MAX_AGE_BUCKET_SIZE) {
+			throw new BadRequestException("Tamanho de faixa deve estar entre 1 e " + MAX_AGE_BUCKET_SIZE + ": " + bucketSize);
+		}
+		return repository.countByAgeBucket(Instant.now(), bucketSize).stream().map(row -> {
+			int ageFrom = ((Number) row[0]).intValue();
+			return new PersonAgeBucketDTO(ageFrom, ageFrom + bucketSize - 1, ((Number) row[1]).longValue());
+		}).collect(Collectors.toList());
+	}
+
+	@Transactional(readOnly = true)
+	public Page<PersonDTO> search(String q, Pageable pageable) {
+		Set<String> tokens = TextNormalizer.tokens(q);
+		if (tokens.isEmpty() || tokens.size() > MAX_SEARCH_TOKENS) {
+			throw new BadRequestException("Termo de busca inválido: " + q);
+		}
+		Page<Person> page = repository.findAll(PersonSpecifications.hasTokensStartingWith(tokens), pageable);
 		return page.map(person -> new PersonDTO(person));
 	}
 
+	@Transactional(readOnly = true)
+	public PersonCursorPageDTO findAllByCursor(String after, int size) {
+		if (size < 1 || size > MAX_CURSOR_PAGE_SIZE) {
+			throw new BadRequestException("Tamanho de página inválido: " + size);
+		}
+		Long lastId = decodeCursor(after);
+		List<Person> list = repository.findByIdGreaterThanOrderByIdAsc(lastId, PageRequest.of(0, size + 1));
+		List<PersonDTO> content = list.stream().limit(size).map(person -> new PersonDTO(person))
+				.collect(Collectors.toList());
+		String nextCursor = list.size() > size ? encodeCursor(content.get(size - 1).getId()) : null;
+		return new PersonCursorPageDTO(content, size, nextCursor);
+	}
+
+	/**
+	 * Escreve todas as pessoas em NDJSON, uma por linha, lendo do cursor do
+	 * banco e desanexando cada entidade após escrita para manter o heap
+	 * constante.
+	 */
+	@Transactional(readOnly = true)
+	public void exportAll(OutputStream out) throws IOException {
+		ObjectWriter writer = objectMapper.writerFor(PersonDTO.class);
+		try (Stream<Person> stream = repository.streamAllOrderedById()) {
+			Iterator<Person> iterator = stream.iterator();
+			while (iterator.hasNext()) {
+				Person person = iterator.next();
+				out.write(writer.writeValueAsBytes(new PersonDTO(person)));
+				out.write('\n');
+				entityManager.detach(person);
+			}
+		}
+		out.flush();
+	}
+
+	/**
+	 * Lê pelo cache de pessoas. O cache guarda uma cópia e cada chamada
+	 * recebe outra, então alterar o DTO devolvido não altera o que está em
+	 * cache. Leituras que foram para a réplica não entram no cache, porque ela
+	 * pode estar atrás do primário.
+	 */
 	@Transactional(readOnly = true)
 	public PersonDTO findById(Long id) {
-		Optional<Person> obj = repository.findById(id);
-		return new PersonDTO(obj.orElseThrow(()-> new ResourceNotFoundException("Id não encontrado: " + id)));
+		Cache cache = personsCacheForRead();
+		PersonDTO cached = cache == null ? null : cache.get(id, PersonDTO.class);
+		if (cached != null) {
+			return cached.copy();
+		}
+		Optional<PersonDTO> obj = store != null ? store.findDTOById(id) : repository.findDTOById(id);
+		PersonDTO dto = obj.orElseThrow(()-> new ResourceNotFoundException("Id não encontrado: " + id));
+		if (cache != null && !ReadWriteRoutingDataSource.isCurrentTransactionOnReplica()) {
+			cache.put(id, dto.copy());
+		}
+		return dto;
+	}
+
+	@Transactional(readOnly = true)
+	public PersonDTO findByCpf(String cpf) {
+		String cpfNormalized = TextNormalizer.digitsOnly(cpf);
+		Optional<Person> obj = cpfNormalized == null ? Optional.empty() : repository.findByCpfNormalized(cpfNormalized);
+		return new PersonDTO(obj.orElseThrow(()-> new ResourceNotFoundException("CPF não encontrado: " + cpf)));
 	}
 
 	@Transactional
 	public PersonDTO insert(PersonDTO dto) {
+		String cpfNormalized = normalizeCpf(dto.getCpf());
+		if (cpfNormalized != null && repository.existsByCpfNormalized(cpfNormalized)) {
+			throw new ResourceConflictException("CPF já cadastrado: " + dto.getCpf());
+		}
 		Person entity = new Person();
 		copyDTOtoEntity(entity, dto);
 		entity = repository.save(entity);
+		recordChange(PersonChange.Type.INSERT, entity.getId());
 		return new PersonDTO(entity);
 	}
 
+	/**
+	 * Grava todas as pessoas em uma única transação, na ordem recebida. Usado
+	 * pelo PersonInsertCoalescer; qualquer falha desfaz o lote inteiro.
+	 */
+	@Transactional
+	public List<PersonDTO> insertInOneTransaction(List<PersonDTO> dtos) {
+		return saveChunk(dtos).stream().map(PersonDTO::new).collect(Collectors.toList());
+	}
+
+	public List<PersonBatchResultDTO> insertAll(List<PersonDTO> dtos) {
+		List<PersonBatchResultDTO> results = new ArrayList<>(dtos.size());
+		for (int from = 0; from < dtos.size(); from += batchChunkSize) {
+			int to = Math.min(from + batchChunkSize, dtos.size());
+			results.addAll(insertChunk(dtos.subList(from, to), from));
+		}
+		return results;
+	}
+
+	/**
+	 * Quando dto.version é informada, a atualização só é aplicada se ela
+	 * corresponder à versão atual da pessoa. A versão retornada já é a nova.
+	 */
 	@Transactional
 	public PersonDTO update(PersonDTO dto, Long id) {
+		String cpfNormalized = normalizeCpf(dto.getCpf());
+		if (cpfNormalized != null && repository.existsByCpfNormalizedAndIdNot(cpfNormalized, id)) {
+			throw new ResourceConflictException("CPF já cadastrado: " + dto.getCpf());
+		}
 		try {
 			Person entity = repository.getById(id);
+			if (dto.getVersion() != null && !dto.getVersion().equals(entity.getVersion())) {
+				throw new PreconditionFailedException("Versão desatualizada: " + dto.getVersion());
+			}
 			copyDTOtoEntity(entity, dto);
-			entity = repository.save(entity);
+			entity = repository.saveAndFlush(entity);
+			recordChange(PersonChange.Type.UPDATE, id);
+			evictAfterCommit(List.of(id));
 			return new PersonDTO(entity);
 		} catch (EntityNotFoundException e) {
 			throw new ResourceNotFoundException("Id não encontrado: " + id);
@@ -55,19 +340,270 @@ public class PersonService {
 
 	}
 
+	/**
+	 * Atualização parcial: só os campos enviados são alterados, em um único
+	 * UPDATE. Quando nome ou endereço mudam, o índice de busca da pessoa é
+	 * recalculado a partir da linha já atualizada no banco.
+	 */
+	@Transactional
+	public void patch(PersonDTO dto, Long id) {
+		int updated = repository.patch(id, dto.getName(), dto.getCpf(), normalizeCpf(dto.getCpf()),
+				dto.getPhoneNumber(), dto.getBirthDate(), dto.getAdress());
+		if (updated == 0) {
+			throw new ResourceNotFoundException("Id não encontrado: " + id);
+		}
+		recordChange(PersonChange.Type.UPDATE, id);
+		evictAfterCommit(List.of(id));
+		if (dto.getName() != null || dto.getAdress() != null) {
+			Person entity = entityManager.find(Person.class, id);
+			if (entity != null) {
+				entity.refreshSearchTokens();
+			}
+		}
+	}
+
+	@Transactional
 	public void delete(Long id) {
-		try {
-			repository.deleteById(id);
-		} catch (EmptyResultDataAccessException e) {
+		if (repository.deletePersonById(id) == 0) {
 			throw new ResourceNotFoundException("Id não encontrado: " + id);
 		}
+		recordChange(PersonChange.Type.DELETE, id);
+		evictAfterCommit(List.of(id));
+	}
+
+	/**
+	 * Remove as pessoas informadas com DELETE ... WHERE id IN (...), em lotes
+	 * de app.person.delete.chunk-size ids, cada lote em sua transação. Ids
+	 * inexistentes são ignorados e não entram no change log.
+	 */
+	public PersonDeleteResultDTO deleteAll(List<Long> ids) {
+		List<Long> distinctIds = new ArrayList<>(new LinkedHashSet<>(ids));
+		int deleted = 0;
+		for (int from = 0; from < distinctIds.size(); from += deleteChunkSize) {
+			List<Long> chunk = distinctIds.subList(from, Math.min(from + deleteChunkSize, distinctIds.size()));
+			deleted += transactionTemplate.execute(status -> {
+				List<Long> existing = repository.findIdsByIdIn(chunk);
+				recordChanges(PersonChange.Type.DELETE, existing);
+				evictAfterCommit(existing);
+				return repository.deletePersonsByIdIn(chunk);
+			});
+		}
+		return new PersonDeleteResultDTO(distinctIds.size(), deleted);
+	}
+
+	private List<PersonBatchResultDTO> insertChunk(List<PersonDTO> chunk, int offset) {
+		List<PersonBatchResultDTO> results = new ArrayList<>(chunk.size());
+		try {
+			List<Person> entities = transactionTemplate.execute(status -> saveChunk(chunk));
+			for (int i = 0; i < entities.size(); i++) {
+				results.add(new PersonBatchResultDTO(offset + i, entities.get(i).getId(), null));
+			}
+		} catch (RuntimeException e) {
+			for (int i = 0; i < chunk.size(); i++) {
+				List<PersonDTO> single = List.of(chunk.get(i));
+				try {
+					Person entity = transactionTemplate.execute(status -> saveChunk(single)).get(0);
+					results.add(new PersonBatchResultDTO(offset + i, entity.getId(), null));
+				} catch (RuntimeException itemException) {
+					results.add(new PersonBatchResultDTO(offset + i, null, itemError(chunk.get(i), itemException)));
+				}
+			}
+		}
+		return results;
+	}
+
+	private List<Person> saveChunk(List<PersonDTO> chunk) {
+		List<Person> entities = new ArrayList<>(chunk.size());
+		for (PersonDTO dto : chunk) {
+			Person entity = new Person();
+			copyDTOtoEntity(entity, dto);
+			entities.add(entity);
+		}
+		entities = repository.saveAll(entities);
+		recordChanges(PersonChange.Type.INSERT, entities.stream().map(Person::getId).collect(Collectors.toList()));
+		repository.flush();
+		return entities;
+	}
+
+	private Instant[] birthDateRange(LocalDate bornFrom, LocalDate bornTo) {
+		if (bornFrom != null && bornTo != null && bornFrom.isAfter(bornTo)) {
+			throw new BadRequestException("bornFrom posterior a bornTo: " + bornFrom + " > " + bornTo);
+		}
+		Instant from = (bornFrom == null ? MIN_BIRTH_DATE : bornFrom).atStartOfDay().toInstant(ZoneOffset.UTC);
+		Instant to = (bornTo == null ? MAX_BIRTH_DATE : bornTo.plusDays(1)).atStartOfDay().toInstant(ZoneOffset.UTC);
+		return new Instant[] { from, to };
+	}
+
+	private void recordChange(PersonChange.Type type, Long personId) {
+		recordChanges(type, List.of(personId));
+	}
+
+	/**
+	 * Grava as mudanças no change log e ajusta o total aproximado e o
+	 * {@link PersonStore} após o commit.
+	 */
+	private void recordChanges(PersonChange.Type type, List<Long> personIds) {
+		if (TransactionSynchronizationManager.isSynchronizationActive()) {
+			writeChangesBeforeCommit(type, personIds);
+		} else {
+			writeChanges(type, personIds);
+		}
+		if (type == PersonChange.Type.INSERT) {
+			totalCounter.adjustAfterCommit(personIds.size());
+		} else if (type == PersonChange.Type.DELETE) {
+			totalCounter.adjustAfterCommit(-personIds.size());
+		}
+		if (store != null && !personIds.isEmpty()) {
+			mirrorToStoreAfterCommit(type, personIds);
+		}
+	}
+
+	/**
+	 * O change log só é escrito no fim da transação, depois do flush das
+	 * pessoas: o id e o changed_at saem o mais perto possível do commit, e o
+	 * atraso de visibilidade do {@link PersonChangeService} precisa cobrir só
+	 * esse intervalo, não a transação inteira.
+	 */
+	private void writeChangesBeforeCommit(PersonChange.Type type, List<Long> personIds) {
+		TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+
+			@Override
+			public void beforeCommit(boolean readOnly) {
+				entityManager.flush();
+				writeChanges(type, personIds);
+				changeRepository.flush();
+			}
+		});
+	}
+
+	private void writeChanges(PersonChange.Type type, List<Long> personIds) {
+		Instant now = Instant.now();
+		changeRepository.saveAll(personIds.stream().map(personId -> new PersonChange(personId, type, now))
+				.collect(Collectors.toList()));
+	}
+
+	/**
+	 * As pessoas gravadas são relidas antes do commit, já com a versão nova, e
+	 * só chegam ao store depois dele; um rollback não deixa rastro. Uma falha
+	 * aqui não desfaz o commit já feito: fica registrada e o
+	 * {@link PersonStoreSynchronizer} corrige o store ao ler o change log.
+	 */
+	private void mirrorToStoreAfterCommit(PersonChange.Type type, List<Long> personIds) {
+		TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+
+			private List<PersonDTO> saved;
+
+			@Override
+			public void beforeCommit(boolean readOnly) {
+				if (type != PersonChange.Type.DELETE) {
+					saved = repository.findAllDTOByIdIn(personIds);
+				}
+			}
+
+			@Override
+			public void afterCommit() {
+				try {
+					if (type == PersonChange.Type.DELETE) {
+						store.deleteAllById(personIds);
+					} else {
+						store.saveAll(saved);
+					}
+				} catch (RuntimeException e) {
+					LOG.warn("Falha ao replicar {} de {} pessoa(s) no store; o change log vai reaplicar", type,
+							personIds.size(), e);
+				}
+			}
+		});
+	}
+
+	/**
+	 * O cache de pessoas só é usado em transações somente leitura. Uma
+	 * transação de escrita enxerga as próprias mudanças antes do commit e só
+	 * tira as pessoas do cache depois dele: ler do cache ali devolveria a linha
+	 * antiga, e gravar nele publicaria dados que ainda podem ser desfeitos.
+	 */
+	private Cache personsCacheForRead() {
+		if (TransactionSynchronizationManager.isActualTransactionActive()
+				&& !TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+			return null;
+		}
+		return cacheManager.getCache(CacheConfig.PERSONS_CACHE);
+	}
+
+	/**
+	 * Tira as pessoas do cache só depois do commit; antes dele, uma leitura
+	 * concorrente ainda veria a linha antiga e a recolocaria no cache. Fica
+	 * depois de {@link #recordChanges}, para que o {@link PersonStore} já
+	 * esteja atualizado quando a próxima leitura encher o cache.
+	 */
+	private void evictAfterCommit(List<Long> personIds) {
+		Cache cache = cacheManager.getCache(CacheConfig.PERSONS_CACHE);
+		if (cache == null || personIds.isEmpty()) {
+			return;
+		}
+		if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+			personIds.forEach(cache::evict);
+			return;
+		}
+		TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+
+			@Override
+			public void afterCommit() {
+				personIds.forEach(cache::evict);
+			}
+		});
+	}
+
+	/**
+	 * Mensagem de falha de um item do lote. Exceções do serviço já trazem a
+	 * mensagem de domínio; o CPF duplicado é reconhecido pelo índice único e o
+	 * resto vira uma mensagem genérica, sem repassar o texto do driver, que só
+	 * vai para o log.
+	 */
+	private String itemError(PersonDTO dto, RuntimeException e) {
+		if (e instanceof BadRequestException || e instanceof ResourceConflictException) {
+			return e.getMessage();
+		}
+		if (ConstraintViolations.isViolationOf(e, Person.CPF_NORMALIZED_INDEX)) {
+			return "CPF já cadastrado: " + dto.getCpf();
+		}
+		LOG.warn("Falha ao gravar pessoa do lote", e);
+		return "Não foi possível gravar a pessoa";
+	}
 
+	/**
+	 * CPF só com os dígitos, ou nulo quando não há nenhum. Com dígitos, o CPF
+	 * precisa ter exatamente {@value Person#CPF_DIGITS}, o tamanho da coluna
+	 * normalizada; qualquer outro é recusado antes de chegar ao banco.
+	 */
+	static String normalizeCpf(String cpf) {
+		String digits = TextNormalizer.digitsOnly(cpf);
+		if (digits != null && digits.length() != Person.CPF_DIGITS) {
+			throw new BadRequestException("CPF deve ter " + Person.CPF_DIGITS + " dígitos: " + cpf);
+		}
+		return digits;
+	}
+
+	static String encodeCursor(Long id) {
+		return Base64.getUrlEncoder().withoutPadding().encodeToString(id.toString().getBytes(StandardCharsets.UTF_8));
+	}
+
+	static Long decodeCursor(String cursor) {
+		if (cursor == null || cursor.isBlank()) {
+			return 0L;
+		}
+		try {
+			return Long.valueOf(new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8));
+		} catch (IllegalArgumentException e) {
+			throw new BadRequestException("Cursor inválido: " + cursor);
+		}
 	}
 
-	private void copyDTOtoEntity(Person entity, PersonDTO dto) {
+	void copyDTOtoEntity(Person entity, PersonDTO dto) {
 		entity.setName(dto.getName());
 		entity.setBirthDate(dto.getBirthDate());
 		entity.setAdress(dto.getAdress());
+		normalizeCpf(dto.getCpf());
 		entity.setCpf(dto.getCpf());
 		entity.setPhoneNumber(dto.getPhoneNumber());
 	}
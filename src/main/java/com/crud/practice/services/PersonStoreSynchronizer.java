@@ -0,0 +1,107 @@
+package com.crud.practice.services;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ScheduledFuture;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.stereotype.Service;
+
+import com.crud.practice.config.AsyncConfig;
+import com.crud.practice.config.PersonStoreConfig;
+import com.crud.practice.dto.PersonChangeDTO;
+import com.crud.practice.dto.PersonChangePageDTO;
+import com.crud.practice.dto.PersonDTO;
+import com.crud.practice.repositories.PersonStore;
+
+/**
+ * Mantém o {@link PersonStore} em dia seguindo o change log a cada
+ * app.person.store.sync-interval, a partir do token salvo no próprio store.
+ * Cobre as escritas de outras instâncias e as réplicas após o commit que
+ * falharam nesta; cada mudança traz o estado atual da pessoa, então reaplicar
+ * uma página é inofensivo. Em caso de erro o token não avança e a mesma
+ * página é lida de novo na rodada seguinte.
+ */
+@Service
+@Profile(PersonStoreConfig.MAPPED_STORE_PROFILE)
+public class PersonStoreSynchronizer {
+
+	private static final Logger LOG = LoggerFactory.getLogger(PersonStoreSynchronizer.class);
+
+	@Autowired
+	private PersonStore store;
+
+	@Autowired
+	private PersonChangeService changeService;
+
+	@Autowired
+	@Qualifier(AsyncConfig.PERSON_CHANGES_SCHEDULER)
+	private TaskScheduler scheduler;
+
+	@Value("${app.person.store.sync-interval:1s}")
+	private Duration syncInterval;
+
+	@Value("${app.person.store.sync-batch-size:500}")
+	private int batchSize;
+
+	private ScheduledFuture<?> task;
+
+	@PostConstruct
+	void start() {
+		task = scheduler.scheduleWithFixedDelay(this::synchronizeQuietly, syncInterval);
+	}
+
+	@PreDestroy
+	void stop() {
+		task.cancel(false);
+	}
+
+	/**
+	 * Aplica ao store as mudanças visíveis desde o último token salvo e
+	 * devolve quantas foram aplicadas.
+	 */
+	public synchronized int synchronize() {
+		String token = store.findChangeToken().orElse(null);
+		int applied = 0;
+		PersonChangePageDTO page;
+		do {
+			page = changeService.findChanges(token, batchSize);
+			List<PersonDTO> saved = new ArrayList<>();
+			List<Long> deleted = new ArrayList<>();
+			for (PersonChangeDTO change : page.getChanges()) {
+				if (change.getPerson() != null) {
+					saved.add(change.getPerson());
+				} else {
+					deleted.add(change.getPersonId());
+				}
+			}
+			store.deleteAllById(deleted);
+			store.saveAll(saved);
+			if (!page.getNext().equals(token)) {
+				store.saveChangeToken(page.getNext());
+				token = page.getNext();
+			}
+			applied += page.getChanges().size();
+		} while (page.isHasMore());
+		return applied;
+	}
+
+	private void synchronizeQuietly() {
+		try {
+			synchronize();
+		} catch (RuntimeException e) {
+			LOG.warn("Falha ao sincronizar o store de pessoas com o change log; nova tentativa em {}", syncInterval, e);
+		}
+	}
+
+}
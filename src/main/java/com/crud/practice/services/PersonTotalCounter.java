@@ -0,0 +1,109 @@
+package com.crud.practice.services;
+
+import java.time.Duration;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.crud.practice.config.AsyncConfig;
+import com.crud.practice.repositories.PersonRepository;
+
+/**
+ * Total aproximado de pessoas, para listagens que mostram "cerca de N
+ * resultados" sem um COUNT(*) a cada página. O valor é ajustado depois do
+ * commit das inserções e remoções do PersonService e recontado em segundo
+ * plano, no executor de banco, quando fica mais velho que
+ * app.person.approximate-total.refresh-interval. Escritas feitas por fora do
+ * PersonService só aparecem na recontagem seguinte.
+ */
+@Service
+public class PersonTotalCounter {
+
+	@Autowired
+	private PersonRepository repository;
+
+	@Autowired
+	@Qualifier(AsyncConfig.PERSON_EXECUTOR)
+	private Executor executor;
+
+	@Value("${app.person.approximate-total.enabled:true}")
+	private boolean enabled;
+
+	@Value("${app.person.approximate-total.refresh-interval:1m}")
+	private Duration refreshInterval;
+
+	private final AtomicLong total = new AtomicLong();
+
+	private final AtomicBoolean refreshing = new AtomicBoolean();
+
+	private volatile boolean counted;
+
+	private volatile long countedAtNanos;
+
+	/**
+	 * Nulo quando desligado. Só a primeira chamada espera pela contagem; as
+	 * seguintes devolvem o valor atual e, se ele estiver velho, agendam uma
+	 * recontagem.
+	 */
+	public Long approximateTotal() {
+		if (!enabled) {
+			return null;
+		}
+		if (!counted) {
+			synchronized (this) {
+				if (!counted) {
+					recount();
+				}
+			}
+		} else if (System.nanoTime() - countedAtNanos >= refreshInterval.toNanos() && refreshing.compareAndSet(false, true)) {
+			try {
+				executor.execute(() -> {
+					try {
+						recount();
+					} finally {
+						refreshing.set(false);
+					}
+				});
+			} catch (RejectedExecutionException e) {
+				// executor cheio: fica para a próxima leitura
+				refreshing.set(false);
+			}
+		}
+		return Math.max(0, total.get());
+	}
+
+	/**
+	 * Soma {@code delta} ao total quando a transação atual fizer commit, ou
+	 * imediatamente se não houver transação.
+	 */
+	void adjustAfterCommit(long delta) {
+		if (!enabled || delta == 0) {
+			return;
+		}
+		if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+			total.addAndGet(delta);
+			return;
+		}
+		TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+			@Override
+			public void afterCommit() {
+				total.addAndGet(delta);
+			}
+		});
+	}
+
+	private void recount() {
+		total.set(repository.count());
+		countedAtNanos = System.nanoTime();
+		counted = true;
+	}
+
+}
@@ -0,0 +1,13 @@
+package com.crud.practice.services.exceptions;
+
+public class BadRequestException extends RuntimeException{
+
+	private static final long serialVersionUID = 1L;
+	
+	public BadRequestException (String message) {
+		super(message);
+	}
+	
+	
+
+}
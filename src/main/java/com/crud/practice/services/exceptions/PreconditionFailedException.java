@@ -0,0 +1,13 @@
+package com.crud.practice.services.exceptions;
+
+public class PreconditionFailedException extends RuntimeException{
+
+	private static final long serialVersionUID = 1L;
+	
+	public PreconditionFailedException (String message) {
+		super(message);
+	}
+	
+	
+
+}
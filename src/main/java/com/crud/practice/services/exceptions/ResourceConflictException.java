@@ -0,0 +1,13 @@
+package com.crud.practice.services.exceptions;
+
+public class ResourceConflictException extends RuntimeException{
+
+	private static final long serialVersionUID = 1L;
+	
+	public ResourceConflictException (String message) {
+		super(message);
+	}
+	
+	
+
+}
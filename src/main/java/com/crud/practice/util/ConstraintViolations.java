@@ -0,0 +1,35 @@
+package com.crud.practice.util;
+
+import java.sql.SQLException;
+import java.util.Locale;
+
+import org.hibernate.exception.ConstraintViolationException;
+
+public final class ConstraintViolations {
+
+	private ConstraintViolations() {
+	}
+
+	/**
+	 * Indica se a exceção, ou alguma de suas causas, é a violação da
+	 * constraint ou índice informado. O nome é procurado sem diferenciar
+	 * maiúsculas, porque o H2 o devolve em caixa alta e com sufixo
+	 * ("UK_PERSON_CPF_NORMALIZED_INDEX_8").
+	 */
+	public static boolean isViolationOf(Throwable e, String constraintName) {
+		String name = constraintName.toLowerCase(Locale.ROOT);
+		for (Throwable cause = e; cause != null; cause = cause.getCause() == cause ? null : cause.getCause()) {
+			String reported = null;
+			if (cause instanceof ConstraintViolationException) {
+				reported = ((ConstraintViolationException) cause).getConstraintName();
+			} else if (cause instanceof SQLException) {
+				reported = cause.getMessage();
+			}
+			if (reported != null && reported.toLowerCase(Locale.ROOT).contains(name)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+}
@@ -0,0 +1,51 @@
+package com.crud.practice.util;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public final class CsvParser {
+
+	private static final char SEPARATOR = ',';
+
+	private static final char QUOTE = '"';
+
+	private CsvParser() {
+	}
+
+	/**
+	 * Separa uma linha CSV (RFC 4180) em campos. Campos entre aspas podem
+	 * conter vírgulas e aspas duplicadas (""), mas não quebras de linha: cada
+	 * linha do arquivo é um registro.
+	 */
+	public static List<String> parseLine(String line) {
+		List<String> fields = new ArrayList<>();
+		StringBuilder field = new StringBuilder();
+		boolean quoted = false;
+		for (int i = 0; i < line.length(); i++) {
+			char c = line.charAt(i);
+			if (quoted) {
+				if (c == QUOTE && i + 1 < line.length() && line.charAt(i + 1) == QUOTE) {
+					field.append(QUOTE);
+					i++;
+				} else if (c == QUOTE) {
+					quoted = false;
+				} else {
+					field.append(c);
+				}
+			} else if (c == QUOTE && field.length() == 0) {
+				quoted = true;
+			} else if (c == SEPARATOR) {
+				fields.add(field.toString());
+				field.setLength(0);
+			} else {
+				field.append(c);
+			}
+		}
+		if (quoted) {
+			throw new IllegalArgumentException("Aspas não fechadas");
+		}
+		fields.add(field.toString());
+		return fields;
+	}
+
+}
@@ -0,0 +1,58 @@
+package com.crud.practice.util;
+
+import java.text.Normalizer;
+import java.util.LinkedHashSet;
+import java.util.Locale;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+public final class TextNormalizer {
+
+	public static final int MAX_TOKEN_LENGTH = 60;
+
+	private static final Pattern DIACRITICS = Pattern.compile("\\p{M}+");
+
+	private static final Pattern NON_ALPHANUMERIC = Pattern.compile("[^a-z0-9]+");
+
+	private TextNormalizer() {
+	}
+
+	/**
+	 * Remove pontuação e espaços, mantendo apenas os dígitos. Usado para que
+	 * "072.779.685-22" e "07277968522" representem o mesmo CPF. Sem nenhum
+	 * dígito o resultado é nulo, para que valores como "abc" não colidam no
+	 * índice único como "".
+	 */
+	public static String digitsOnly(String value) {
+		if (value == null) {
+			return null;
+		}
+		StringBuilder digits = new StringBuilder(value.length());
+		for (int i = 0; i < value.length(); i++) {
+			char c = value.charAt(i);
+			if (c >= '0' && c <= '9') {
+				digits.append(c);
+			}
+		}
+		return digits.length() == 0 ? null : digits.toString();
+	}
+
+	/**
+	 * Quebra o texto em termos de busca sem acento e em minúsculas, de forma
+	 * que "Araújo" e "ARAUJO" gerem o mesmo termo "araujo".
+	 */
+	public static Set<String> tokens(String value) {
+		Set<String> tokens = new LinkedHashSet<>();
+		if (value == null) {
+			return tokens;
+		}
+		String plain = DIACRITICS.matcher(Normalizer.normalize(value, Normalizer.Form.NFD)).replaceAll("");
+		for (String token : NON_ALPHANUMERIC.split(plain.toLowerCase(Locale.ROOT))) {
+			if (!token.isEmpty()) {
+				tokens.add(token.length() > MAX_TOKEN_LENGTH ? token.substring(0, MAX_TOKEN_LENGTH) : token);
+			}
+		}
+		return tokens;
+	}
+
+}
@@ -1,8 +1,13 @@
-INSERT INTO tb_person (name,birth_date,cpf,adress,phone_number) VALUES ('Martim Palmeira', TIMESTAMP WITH TIME ZONE '1999-01-05T10:00:00Z', '072.779.685-22', 'Rua A, bairro B, número 30', '(75)98129-0360')
-INSERT INTO tb_person (name,birth_date,cpf,adress,phone_number) VALUES ('João Carlos', TIMESTAMP WITH TIME ZONE '1998-05-05T10:00:00Z', '072.779.685-23', 'Rua C, bairro D, número 31', '(11)98129-0361')
-INSERT INTO tb_person (name,birth_date,cpf,adress,phone_number) VALUES ('Maria Luiza', TIMESTAMP WITH TIME ZONE '2000-03-05T10:00:00Z', '072.779.685-24', 'Rua E, bairro F, número 32', '(71)98129-0362')
-INSERT INTO tb_person (name,birth_date,cpf,adress,phone_number) VALUES ('Pedro Araújo', TIMESTAMP WITH TIME ZONE '2001-09-05T10:00:00Z', '072.779.685-25', 'Rua G, bairro H, número 33', '(23)98129-0363')
-INSERT INTO tb_person (name,birth_date,cpf,adress,phone_number) VALUES ('Beatriz Barbosa', TIMESTAMP WITH TIME ZONE '1997-04-05T10:00:00Z', '072.779.685-26', 'Rua I, bairro J, número 34', '(21)98129-0364')
-INSERT INTO tb_person (name,birth_date,cpf,adress,phone_number) VALUES ('Felipe Santos', TIMESTAMP WITH TIME ZONE '1998-11-05T10:00:00Z', '072.779.685-27', 'Rua K, bairro L, número 35', '(15)98129-0365')
-
-
+INSERT INTO tb_person (id,name,birth_date,cpf,cpf_normalized,adress,phone_number,version) VALUES (1, 'Martim Palmeira', TIMESTAMP WITH TIME ZONE '1999-01-05T10:00:00Z', '072.779.685-22', '07277968522', 'Rua A, bairro B, número 30', '(75)98129-0360', 0)
+INSERT INTO tb_person (id,name,birth_date,cpf,cpf_normalized,adress,phone_number,version) VALUES (2, 'João Carlos', TIMESTAMP WITH TIME ZONE '1998-05-05T10:00:00Z', '072.779.685-23', '07277968523', 'Rua C, bairro D, número 31', '(11)98129-0361', 0)
+INSERT INTO tb_person (id,name,birth_date,cpf,cpf_normalized,adress,phone_number,version) VALUES (3, 'Maria Luiza', TIMESTAMP WITH TIME ZONE '2000-03-05T10:00:00Z', '072.779.685-24', '07277968524', 'Rua E, bairro F, número 32', '(71)98129-0362', 0)
+INSERT INTO tb_person (id,name,birth_date,cpf,cpf_normalized,adress,phone_number,version) VALUES (4, 'Pedro Araújo', TIMESTAMP WITH TIME ZONE '2001-09-05T10:00:00Z', '072.779.685-25', '07277968525', 'Rua G, bairro H, número 33', '(23)98129-0363', 0)
+INSERT INTO tb_person (id,name,birth_date,cpf,cpf_normalized,adress,phone_number,version) VALUES (5, 'Beatriz Barbosa', TIMESTAMP WITH TIME ZONE '1997-04-05T10:00:00Z', '072.779.685-26', '07277968526', 'Rua I, bairro J, número 34', '(21)98129-0364', 0)
+INSERT INTO tb_person (id,name,birth_date,cpf,cpf_normalized,adress,phone_number,version) VALUES (6, 'Felipe Santos', TIMESTAMP WITH TIME ZONE '1998-11-05T10:00:00Z', '072.779.685-27', '07277968527', 'Rua K, bairro L, número 35', '(15)98129-0365', 0)
+INSERT INTO tb_person_search_token (person_id,token) VALUES (1, 'martim'), (1, 'palmeira'), (1, 'rua'), (1, 'a'), (1, 'bairro'), (1, 'b'), (1, 'numero'), (1, '30')
+INSERT INTO tb_person_search_token (person_id,token) VALUES (2, 'joao'), (2, 'carlos'), (2, 'rua'), (2, 'c'), (2, 'bairro'), (2, 'd'), (2, 'numero'), (2, '31')
+INSERT INTO tb_person_search_token (person_id,token) VALUES (3, 'maria'), (3, 'luiza'), (3, 'rua'), (3, 'e'), (3, 'bairro'), (3, 'f'), (3, 'numero'), (3, '32')
+INSERT INTO tb_person_search_token (person_id,token) VALUES (4, 'pedro'), (4, 'araujo'), (4, 'rua'), (4, 'g'), (4, 'bairro'), (4, 'h'), (4, 'numero'), (4, '33')
+INSERT INTO tb_person_search_token (person_id,token) VALUES (5, 'beatriz'), (5, 'barbosa'), (5, 'rua'), (5, 'i'), (5, 'bairro'), (5, 'j'), (5, 'numero'), (5, '34')
+INSERT INTO tb_person_search_token (person_id,token) VALUES (6, 'felipe'), (6, 'santos'), (6, 'rua'), (6, 'k'), (6, 'bairro'), (6, 'l'), (6, 'numero'), (6, '35')
+ALTER SEQUENCE seq_person RESTART WITH 7
@@ -0,0 +1,212 @@
+package com.crud.practice.controllers;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.ResultActions;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import com.crud.practice.config.AsyncConfig;
+import com.crud.practice.dto.PersonDTO;
+import com.crud.practice.services.PersonService;
+import com.crud.practice.services.exceptions.PreconditionFailedException;
+import com.crud.practice.services.exceptions.ResourceNotFoundException;
+import com.crud.practice.tests.Factory;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+@WebMvcTest({ PersonAsyncController.class, PersonController.class })
+class PersonAsyncControllerTests {
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@MockBean
+	private PersonService service;
+
+	@MockBean(name = AsyncConfig.PERSON_EXECUTOR)
+	private Executor executor;
+
+	@Autowired
+	private ObjectMapper objectMapper;
+
+	private Long existingId;
+
+	private Long notExistingId;
+
+	private PersonDTO personDTO;
+
+	@BeforeEach
+	void setUp() throws Exception {
+
+		existingId = 1L;
+
+		notExistingId = 1000L;
+
+		personDTO = Factory.creatPersonDTO();
+		personDTO.setVersion(3L);
+
+		doAnswer(invocation -> {
+			invocation.<Runnable>getArgument(0).run();
+			return null;
+		}).when(executor).execute(any());
+
+		when(service.findById(existingId)).thenReturn(personDTO);
+		when(service.findById(notExistingId)).thenThrow(ResourceNotFoundException.class);
+
+		when(service.findByIdFields(eq(existingId), any())).thenReturn(personDTO);
+
+		when(service.findAllSliced(any())).thenReturn(new SliceImpl<>(List.of(personDTO)));
+
+		when(service.approximateTotal()).thenReturn(6L);
+
+		when(service.insert(any())).thenReturn(personDTO);
+
+		when(service.update(any(), eq(existingId))).thenReturn(personDTO);
+		when(service.update(argThat(dto -> Long.valueOf(2L).equals(dto.getVersion())), eq(existingId)))
+				.thenThrow(PreconditionFailedException.class);
+	}
+
+	@Test
+	void findById_ShouldReturnPersonDTO_WhenIdExists() throws Exception {
+
+		MvcResult mvcResult = mockMvc.perform(get("/async/persons/{id}", existingId)
+				.accept(MediaType.APPLICATION_JSON))
+				.andExpect(request().asyncStarted())
+				.andReturn();
+
+		ResultActions result = mockMvc.perform(asyncDispatch(mvcResult));
+
+		result.andExpect(status().isOk());
+		result.andExpect(jsonPath("$.id").exists());
+		result.andExpect(jsonPath("$.name").exists());
+		result.andExpect(header().string("ETag", "\"3\""));
+	}
+
+	@Test
+	void findById_ShouldReturnNotModified_WhenIfNoneMatchIsCurrentVersion() throws Exception {
+
+		ResultActions result = dispatch(get("/async/persons/{id}", existingId)
+				.header("If-None-Match", "\"3\"")
+				.accept(MediaType.APPLICATION_JSON));
+
+		result.andExpect(status().isNotModified());
+	}
+
+	@Test
+	void findById_ShouldWriteOnlyRequestedFields_WhenFieldsIsSent() throws Exception {
+
+		ResultActions result = dispatch(get("/async/persons/{id}", existingId).param("fields", "cpf")
+				.accept(MediaType.APPLICATION_JSON));
+
+		result.andExpect(status().isOk());
+		result.andExpect(jsonPath("$.cpf").value(personDTO.getCpf()));
+		result.andExpect(jsonPath("$.name").doesNotExist());
+		result.andExpect(header().string("ETag", "\"3\""));
+	}
+
+	@Test
+	void findAllPaged_ShouldReturnSlimEnvelope_WhenSlimEnvelopeRequested() throws Exception {
+
+		ResultActions result = dispatch(get("/async/persons").param("envelope", "slim")
+				.accept(MediaType.APPLICATION_JSON));
+
+		result.andExpect(status().isOk());
+		result.andExpect(jsonPath("$.content[0].name").value(personDTO.getName()));
+		result.andExpect(jsonPath("$.totalElements").doesNotExist());
+		result.andExpect(jsonPath("$.approximateTotal").value(6));
+	}
+
+	@Test
+	void insert_ShouldReturnLocationUnderAsyncPath() throws Exception {
+
+		ResultActions result = dispatch(post("/async/persons")
+				.content(objectMapper.writeValueAsString(personDTO))
+				.contentType(MediaType.APPLICATION_JSON)
+				.accept(MediaType.APPLICATION_JSON));
+
+		result.andExpect(status().isCreated());
+		result.andExpect(header().string("Location", "http://localhost/async/persons/" + personDTO.getId()));
+	}
+
+	@Test
+	void update_ShouldReturnPreconditionFailed_WhenIfMatchIsStale() throws Exception {
+
+		ResultActions result = dispatch(put("/async/persons/{id}", existingId)
+				.header("If-Match", "\"2\"")
+				.content(objectMapper.writeValueAsString(personDTO))
+				.contentType(MediaType.APPLICATION_JSON)
+				.accept(MediaType.APPLICATION_JSON));
+
+		result.andExpect(status().isPreconditionFailed());
+	}
+
+	@Test
+	void patch_ShouldReturnNoContent_WhenIdExists() throws Exception {
+
+		ResultActions result = dispatch(patch("/async/persons/{id}", existingId)
+				.content("{\"phoneNumber\":\"(75)99999-0000\"}")
+				.contentType(MediaType.APPLICATION_JSON)
+				.accept(MediaType.APPLICATION_JSON));
+
+		result.andExpect(status().isNoContent());
+	}
+
+	@Test
+	void findById_ShouldReturnNotFound_WhenIdDoesNotExist() throws Exception {
+
+		MvcResult mvcResult = mockMvc.perform(get("/async/persons/{id}", notExistingId)
+				.accept(MediaType.APPLICATION_JSON))
+				.andExpect(request().asyncStarted())
+				.andReturn();
+
+		ResultActions result = mockMvc.perform(asyncDispatch(mvcResult));
+
+		result.andExpect(status().isNotFound());
+	}
+
+	@Test
+	void findById_ShouldReturnServiceUnavailable_WhenExecutorIsSaturated() throws Exception {
+
+		doThrow(RejectedExecutionException.class).when(executor).execute(any());
+
+		ResultActions result = mockMvc.perform(get("/async/persons/{id}", existingId)
+				.accept(MediaType.APPLICATION_JSON));
+
+		result.andExpect(status().isServiceUnavailable());
+		result.andExpect(header().string("Retry-After", "1"));
+	}
+
+	private ResultActions dispatch(MockHttpServletRequestBuilder request) throws Exception {
+		MvcResult mvcResult = mockMvc.perform(request)
+				.andExpect(request().asyncStarted())
+				.andReturn();
+		return mockMvc.perform(asyncDispatch(mvcResult));
+	}
+
+}
@@ -0,0 +1,108 @@
+package com.crud.practice.controllers;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import com.crud.practice.dto.PersonChangePageDTO;
+import com.crud.practice.dto.PersonDTO;
+import com.crud.practice.services.PersonChangeService;
+import com.crud.practice.services.PersonService;
+
+@SpringBootTest(properties = {
+		"app.person.changes.visibility-delay=0s",
+		"app.person.changes.stream.poll-interval=50ms" })
+@AutoConfigureMockMvc
+class PersonChangeControllerIT {
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private PersonChangeService changeService;
+
+	@Autowired
+	private PersonService personService;
+
+	@Test
+	void findChanges_ShouldReturnPageWithNextToken() throws Exception {
+		String head = head();
+		PersonDTO inserted = personService.insert(person("930.000.000-01"));
+		try {
+			mockMvc.perform(get("/persons/changes").param("since", head).accept(MediaType.APPLICATION_JSON))
+					.andExpect(status().isOk())
+					.andExpect(jsonPath("$.changes[0].type").value("INSERT"))
+					.andExpect(jsonPath("$.changes[0].personId").value(inserted.getId()))
+					.andExpect(jsonPath("$.changes[0].person.cpf").value("930.000.000-01"))
+					.andExpect(jsonPath("$.next").exists())
+					.andExpect(jsonPath("$.hasMore").value(false));
+		} finally {
+			personService.delete(inserted.getId());
+		}
+	}
+
+	@Test
+	void findChanges_ShouldReturnBadRequest_WhenSizeIsInvalid() throws Exception {
+		mockMvc.perform(get("/persons/changes").param("size", "0").accept(MediaType.APPLICATION_JSON))
+				.andExpect(status().isBadRequest());
+	}
+
+	@Test
+	void stream_ShouldSendEventsFromLastEventId() throws Exception {
+		String head = head();
+		PersonDTO inserted = personService.insert(person("930.000.000-02"));
+		personService.delete(inserted.getId());
+
+		MvcResult result = mockMvc.perform(get("/persons/changes/stream").header("Last-Event-ID", head)
+				.accept(MediaType.TEXT_EVENT_STREAM))
+				.andExpect(request().asyncStarted())
+				.andReturn();
+
+		String body = awaitBody(result, "event:delete");
+		Assertions.assertTrue(body.contains("event:insert"));
+		Assertions.assertTrue(body.indexOf("event:insert") < body.indexOf("event:delete"));
+		List<String> ids = body.lines().filter(line -> line.startsWith("id:")).map(line -> line.substring(3))
+				.collect(Collectors.toList());
+		Assertions.assertEquals(2, ids.size());
+		Assertions.assertEquals(changeService.findChanges(head, 100).getNext(), ids.get(1));
+	}
+
+	private String awaitBody(MvcResult result, String expected) throws Exception {
+		long deadline = System.currentTimeMillis() + 5000;
+		String body = result.getResponse().getContentAsString();
+		while (!body.contains(expected) && System.currentTimeMillis() < deadline) {
+			Thread.sleep(50);
+			body = result.getResponse().getContentAsString();
+		}
+		Assertions.assertTrue(body.contains(expected), body);
+		return body;
+	}
+
+	private String head() {
+		PersonChangePageDTO page = changeService.findChanges(null, 1000);
+		while (page.isHasMore()) {
+			page = changeService.findChanges(page.getNext(), 1000);
+		}
+		return page.getNext();
+	}
+
+	private static PersonDTO person(String cpf) {
+		return new PersonDTO(null, "Pessoa do Stream", cpf, "(75)98129-0360", Instant.parse("1990-01-01T00:00:00Z"),
+				"Rua do Stream", null);
+	}
+
+}
@@ -0,0 +1,57 @@
+package com.crud.practice.controllers;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.SpringBootTest.WebEnvironment;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+
+@SpringBootTest(webEnvironment = WebEnvironment.RANDOM_PORT)
+class PersonCompressionIT {
+
+	@Autowired
+	private TestRestTemplate restTemplate;
+
+	@Test
+	void findAllPaged_ShouldBeGzipped_WhenAboveMinResponseSize() {
+		ResponseEntity<byte[]> response = get("/persons?size=6");
+
+		Assertions.assertEquals("gzip", response.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING));
+		Assertions.assertEquals(List.of("accept", "accept-encoding"), varyFields(response));
+	}
+
+	@Test
+	void findById_ShouldNotBeGzipped_WhenBelowMinResponseSize() {
+		ResponseEntity<byte[]> response = get("/persons/1");
+
+		Assertions.assertNull(response.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING));
+		Assertions.assertEquals(List.of("accept", "accept-encoding"), varyFields(response));
+	}
+
+	/**
+	 * Nomes de cabeçalho não diferenciam maiúsculas, e o Tomcat reescreve o
+	 * Vary em minúsculas ao acrescentar Accept-Encoding.
+	 */
+	private static List<String> varyFields(ResponseEntity<?> response) {
+		return response.getHeaders().getVary().stream().map(field -> field.toLowerCase(Locale.ROOT))
+				.collect(Collectors.toList());
+	}
+
+	private ResponseEntity<byte[]> get(String url) {
+		HttpHeaders headers = new HttpHeaders();
+		headers.set(HttpHeaders.ACCEPT_ENCODING, "gzip");
+		headers.setAccept(List.of(MediaType.APPLICATION_JSON));
+		return restTemplate.exchange(url, HttpMethod.GET, new HttpEntity<>(headers), byte[].class);
+	}
+
+}
@@ -1,10 +1,16 @@
 package com.crud.practice.controllers;
 
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
+import org.hamcrest.Matchers;
+import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -16,6 +22,7 @@ import org.springframework.test.web.servlet.ResultActions;
 
 import com.crud.practice.dto.PersonDTO;
 import com.crud.practice.tests.Factory;
+import com.crud.practice.tests.QueryBudget;
 import com.fasterxml.jackson.databind.ObjectMapper;
 
 @SpringBootTest
@@ -74,17 +81,27 @@ class PersonControllerIT {
 	
 	@Test
 	void update_ShouldUpdateAndReturnNewPerson_WhenIdExists()  throws Exception{
+		String original = mockMvc.perform(get("/persons/{id}", this.existingId).accept(MediaType.APPLICATION_JSON))
+				.andReturn().getResponse().getContentAsString();
 		String jsonBody = objectMapper.writeValueAsString(personDTO);
 		
-		ResultActions result = mockMvc
-				.perform(put("/persons{id}", this.existingId).content(jsonBody)
-				.contentType(MediaType.APPLICATION_JSON)
-				.accept(MediaType.APPLICATION_JSON));
-		
-		result.andExpect(status().isOk());
-		result.andExpect(jsonPath("$.content[0].name").value(personDTO.getName()));
-		result.andExpect(jsonPath("$.content[0].cpf").value(personDTO.getCpf()));
-		result.andExpect(jsonPath("$.content[0].phoneNumber").value(personDTO.getPhoneNumber()));
+		try {
+			ResultActions result = mockMvc
+					.perform(put("/persons/{id}", this.existingId).content(jsonBody)
+					.contentType(MediaType.APPLICATION_JSON)
+					.accept(MediaType.APPLICATION_JSON));
+			
+			result.andExpect(status().isOk());
+			result.andExpect(jsonPath("$.id").value(this.existingId));
+			result.andExpect(jsonPath("$.name").value(personDTO.getName()));
+			result.andExpect(jsonPath("$.cpf").value(personDTO.getCpf()));
+			result.andExpect(jsonPath("$.phoneNumber").value(personDTO.getPhoneNumber()));
+		} finally {
+			PersonDTO restored = objectMapper.readValue(original, PersonDTO.class);
+			restored.setVersion(null);
+			mockMvc.perform(put("/persons/{id}", this.existingId).content(objectMapper.writeValueAsString(restored))
+					.contentType(MediaType.APPLICATION_JSON)).andExpect(status().isOk());
+		}
 
 	}
 	
@@ -93,7 +110,7 @@ class PersonControllerIT {
 		String jsonBody = objectMapper.writeValueAsString(personDTO);
 		
 		ResultActions result = mockMvc
-				.perform(put("/persons{id}", this.notExistingId).content(jsonBody)
+				.perform(put("/persons/{id}", this.notExistingId).content(jsonBody)
 				.contentType(MediaType.APPLICATION_JSON)
 				.accept(MediaType.APPLICATION_JSON));
 		
@@ -104,4 +121,107 @@ class PersonControllerIT {
 
 	}
 
+	@Test
+	void findAllPaged_ShouldRunPageAndCountQueries_WhenResultHasMorePages() throws Exception {
+		mockMvc.perform(get("/persons?size=2&sort=name,asc").accept(MediaType.APPLICATION_JSON))
+				.andExpect(status().isOk())
+				.andExpect(QueryBudget.atMost(2));
+	}
+
+	@Test
+	void findAllPagedSlim_ShouldSkipCountQuery_WhenApproximateTotalIsWarm() throws Exception {
+		mockMvc.perform(get("/persons?envelope=slim&size=2").accept(MediaType.APPLICATION_JSON))
+				.andExpect(status().isOk());
+
+		mockMvc.perform(get("/persons?envelope=slim&size=2&page=1").accept(MediaType.APPLICATION_JSON))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.hasNext").value(true))
+				.andExpect(jsonPath("$.approximateTotal").isNumber())
+				.andExpect(jsonPath("$.totalElements").doesNotExist())
+				.andExpect(QueryBudget.atMost(1));
+	}
+
+	@Test
+	void findById_ShouldRunAtMostOneQuery() throws Exception {
+		mockMvc.perform(get("/persons/{id}", this.existingId).accept(MediaType.APPLICATION_JSON))
+				.andExpect(status().isOk())
+				.andExpect(QueryBudget.atMost(1));
+	}
+
+	@Test
+	void findAllPaged_ShouldShrinkPayload_WhenOnlyIdAndNameAreRequested() throws Exception {
+		int fullBytes = mockMvc.perform(get("/persons?sort=name,asc").accept(MediaType.APPLICATION_JSON))
+				.andExpect(status().isOk())
+				.andReturn().getResponse().getContentAsByteArray().length;
+
+		int sparseBytes = mockMvc.perform(get("/persons?sort=name,asc&fields=id,name").accept(MediaType.APPLICATION_JSON))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.totalElements").value(countTotalPerson))
+				.andExpect(jsonPath("$.content[0].name").value("Beatriz Barbosa"))
+				.andExpect(jsonPath("$.content[0].adress").doesNotExist())
+				.andExpect(QueryBudget.atMost(2))
+				.andReturn().getResponse().getContentAsByteArray().length;
+
+		Assertions.assertTrue(sparseBytes < fullBytes * 2 / 3, sparseBytes + " bytes vs " + fullBytes);
+	}
+
+	@Test
+	void findById_ShouldReturnOnlyRequestedFields_WhenFieldsIsSent() throws Exception {
+		mockMvc.perform(get("/persons/{id}?fields=name", this.notExistingId).accept(MediaType.APPLICATION_JSON))
+				.andExpect(status().isNotFound());
+
+		mockMvc.perform(get("/persons/{id}?fields=name,phoneNumber", this.existingId).accept(MediaType.APPLICATION_JSON))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.name").exists())
+				.andExpect(jsonPath("$.phoneNumber").exists())
+				.andExpect(jsonPath("$.cpf").doesNotExist())
+				.andExpect(QueryBudget.atMost(1));
+	}
+
+	@Test
+	void search_ShouldIgnoreFields_WhenRouteDoesNotSupportThem() throws Exception {
+		mockMvc.perform(get("/persons/search?q=rua&size=2&fields=bogus").accept(MediaType.APPLICATION_JSON))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.content[0].name").exists())
+				.andExpect(jsonPath("$.content[0].cpf").exists());
+	}
+
+	@Test
+	void search_ShouldStayWithinQueryBudget() throws Exception {
+		mockMvc.perform(get("/persons/search?q=rua&size=2").accept(MediaType.APPLICATION_JSON))
+				.andExpect(status().isOk())
+				.andExpect(QueryBudget.atMost(2));
+	}
+
+	@Test
+	void delete_ShouldNotPreSelect_WhenIdDoesNotExist() throws Exception {
+		mockMvc.perform(delete("/persons/{id}", this.notExistingId))
+				.andExpect(status().isNotFound())
+				.andExpect(QueryBudget.exactly(1));
+	}
+
+	@Test
+	void patch_ShouldReturnConflictWithoutDriverText_WhenCpfBelongsToAnotherPerson() throws Exception {
+		PersonDTO partial = new PersonDTO();
+		partial.setCpf("072.779.685-22");
+
+		mockMvc.perform(patch("/persons/{id}", 2L).content(objectMapper.writeValueAsString(partial))
+				.contentType(MediaType.APPLICATION_JSON).accept(MediaType.APPLICATION_JSON))
+				.andExpect(status().isConflict())
+				.andExpect(jsonPath("$.message").value("CPF já cadastrado"))
+				.andExpect(content().string(Matchers.not(Matchers.containsStringIgnoringCase("tb_person"))))
+				.andExpect(content().string(Matchers.not(Matchers.containsString("07277968522"))));
+	}
+
+	@Test
+	void insert_ShouldReturnBadRequest_WhenCpfDoesNotHaveElevenDigits() throws Exception {
+		personDTO.setId(null);
+		personDTO.setCpf("086.395.593-321");
+
+		mockMvc.perform(post("/persons").content(objectMapper.writeValueAsString(personDTO))
+				.contentType(MediaType.APPLICATION_JSON).accept(MediaType.APPLICATION_JSON))
+				.andExpect(status().isBadRequest())
+				.andExpect(jsonPath("$.message").value("CPF deve ter 11 dígitos: 086.395.593-321"));
+	}
+
 }
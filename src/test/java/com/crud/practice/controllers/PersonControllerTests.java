@@ -1,17 +1,28 @@
 package com.crud.practice.controllers;
 
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
 import java.util.List;
+import java.util.Set;
 
+import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
@@ -19,15 +30,26 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.ResultActions;
 
+import com.crud.practice.dto.PersonAgeBucketDTO;
+import com.crud.practice.dto.PersonBatchResultDTO;
+import com.crud.practice.dto.PersonCursorPageDTO;
 import com.crud.practice.dto.PersonDTO;
+import com.crud.practice.dto.PersonDeleteResultDTO;
 import com.crud.practice.services.PersonService;
+import com.crud.practice.services.exceptions.BadRequestException;
+import com.crud.practice.services.exceptions.PreconditionFailedException;
+import com.crud.practice.services.exceptions.ResourceConflictException;
 import com.crud.practice.services.exceptions.ResourceNotFoundException;
 import com.crud.practice.tests.Factory;
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
 
 @WebMvcTest(PersonController.class)
 class PersonControllerTests {
@@ -57,18 +79,56 @@ class PersonControllerTests {
 		notExistingId = 1000l;
 
 		personDTO = Factory.creatPersonDTO();
+		personDTO.setVersion(3L);
 
 		page = new PageImpl<PersonDTO>(List.of(personDTO));
 
 		when(service.findAllPaged(any())).thenReturn(page);
 
+		when(service.findAllSliced(any())).thenReturn(new SliceImpl<>(List.of(personDTO)));
+
+		when(service.findAllFields(any(), any(), any(), any())).thenReturn(page);
+
+		when(service.findByIdFields(eq(existingId), any())).thenReturn(personDTO);
+
+		when(service.approximateTotal()).thenReturn(6L);
+
+		when(service.search(eq("joão"), any())).thenReturn(page);
+
+		when(service.findAllByBirthDate(eq(LocalDate.of(1998, 1, 1)), eq(null), any())).thenReturn(page);
+
+		when(service.ageHistogram(10)).thenReturn(List.of(new PersonAgeBucketDTO(20, 29, 6L)));
+		when(service.ageHistogram(0)).thenThrow(BadRequestException.class);
+
+		when(service.findAllByCursor(any(), eq(1))).thenReturn(new PersonCursorPageDTO(List.of(personDTO), 1, "Mg"));
+		when(service.findAllByCursor(eq("invalido"), eq(20))).thenThrow(BadRequestException.class);
+
 		when(service.findById(existingId)).thenReturn(personDTO);
 		when(service.findById(notExistingId)).thenThrow(ResourceNotFoundException.class);
 
+		when(service.findByCpf(personDTO.getCpf())).thenReturn(personDTO);
+		when(service.findByCpf("000.000.000-00")).thenThrow(ResourceNotFoundException.class);
+
 		when(service.insert(any())).thenReturn(personDTO);
 
+		when(service.insertAll(any())).thenReturn(List.of(new PersonBatchResultDTO(0, existingId, null),
+				new PersonBatchResultDTO(1, null, "erro")));
+
 		when(service.update(any(), eq(existingId))).thenReturn(personDTO);
 		when(service.update(any(), eq(notExistingId))).thenThrow(ResourceNotFoundException.class);
+		when(service.update(argThat(dto -> Long.valueOf(2L).equals(dto.getVersion())), eq(existingId)))
+				.thenThrow(PreconditionFailedException.class);
+
+		Mockito.doAnswer(invocation -> {
+			OutputStream out = invocation.getArgument(0);
+			out.write("{\"id\":1}\n{\"id\":2}\n".getBytes(StandardCharsets.UTF_8));
+			return null;
+		}).when(service).exportAll(any());
+
+		Mockito.doNothing().when(service).patch(any(), eq(existingId));
+		Mockito.doThrow(ResourceNotFoundException.class).when(service).patch(any(), eq(notExistingId));
+
+		when(service.deleteAll(any())).thenReturn(new PersonDeleteResultDTO(2, 1));
 
 		Mockito.doNothing().when(service).delete(existingId);
 		Mockito.doThrow(ResourceNotFoundException.class).when(service).delete(notExistingId);
@@ -83,6 +143,170 @@ class PersonControllerTests {
 		result.andExpect(status().isOk());
 	}
 	
+	@Test
+	void findAllPaged_ShouldReturnOnlySlimFields_WhenSlimEnvelopeRequested() throws Exception {
+		ResultActions result = mockMvc
+				.perform(get("/persons").param("envelope", "slim")
+				.accept(MediaType.APPLICATION_JSON));
+		
+		result.andExpect(status().isOk());
+		result.andExpect(jsonPath("$.content[0].name").value(personDTO.getName()));
+		result.andExpect(jsonPath("$.number").value(0));
+		result.andExpect(jsonPath("$.size").value(1));
+		result.andExpect(jsonPath("$.hasNext").value(false));
+		result.andExpect(jsonPath("$.pageable").doesNotExist());
+		result.andExpect(jsonPath("$.totalElements").doesNotExist());
+		result.andExpect(jsonPath("$.approximateTotal").value(6));
+		Mockito.verify(service, Mockito.never()).findAllPaged(any());
+	}
+	
+	@Test
+	void findAllPaged_ShouldWriteOnlyRequestedFields_WhenFieldsIsSent() throws Exception {
+		ResultActions result = mockMvc
+				.perform(get("/persons").param("fields", "id,name")
+				.accept(MediaType.APPLICATION_JSON));
+		
+		result.andExpect(status().isOk());
+		result.andExpect(jsonPath("$.content[0].name").value(personDTO.getName()));
+		result.andExpect(jsonPath("$.content[0].id").exists());
+		result.andExpect(jsonPath("$.content[0].cpf").doesNotExist());
+		result.andExpect(jsonPath("$.content[0].adress").doesNotExist());
+		result.andExpect(jsonPath("$.totalElements").exists());
+		Mockito.verify(service).findAllFields(eq(Set.of("id", "name")), eq(null), eq(null), any());
+		Mockito.verify(service, Mockito.never()).findAllPaged(any());
+	}
+	
+	@Test
+	void findAllPaged_ShouldReturnBadRequest_WhenFieldIsUnknown() throws Exception {
+		ResultActions result = mockMvc
+				.perform(get("/persons").param("fields", "id,senha")
+				.accept(MediaType.APPLICATION_JSON));
+		
+		result.andExpect(status().isBadRequest());
+	}
+	
+	@Test
+	void findAllPaged_ShouldReturnCbor_WhenCborIsAccepted() throws Exception {
+		MvcResult result = mockMvc
+				.perform(get("/persons").param("envelope", "slim")
+				.accept(MediaType.APPLICATION_CBOR))
+				.andExpect(status().isOk())
+				.andExpect(content().contentType(MediaType.APPLICATION_CBOR))
+				.andReturn();
+		
+		JsonNode body = new ObjectMapper(new CBORFactory()).readTree(result.getResponse().getContentAsByteArray());
+		Assertions.assertEquals(personDTO.getName(), body.get("content").get(0).get("name").asText());
+	}
+	
+	@Test
+	void findAllPaged_ShouldShrinkPayload_WhenSlimEnvelopeAndCborAreRequested() throws Exception {
+		int pageJson = mockMvc.perform(get("/persons").accept(MediaType.APPLICATION_JSON))
+				.andReturn().getResponse().getContentAsByteArray().length;
+		int slimJson = mockMvc.perform(get("/persons").param("envelope", "slim").accept(MediaType.APPLICATION_JSON))
+				.andReturn().getResponse().getContentAsByteArray().length;
+		int slimCbor = mockMvc.perform(get("/persons").param("envelope", "slim").accept(MediaType.APPLICATION_CBOR))
+				.andReturn().getResponse().getContentAsByteArray().length;
+		
+		Assertions.assertTrue(slimJson < pageJson, slimJson + " >= " + pageJson);
+		Assertions.assertTrue(slimCbor < slimJson, slimCbor + " >= " + slimJson);
+	}
+	
+	@Test
+	void findAllPaged_ShouldReturnJson_WhenAnyTypeIsAccepted() throws Exception {
+		ResultActions result = mockMvc
+				.perform(get("/persons").accept(MediaType.ALL));
+		
+		result.andExpect(status().isOk());
+		result.andExpect(content().contentType(MediaType.APPLICATION_JSON));
+	}
+	
+	@Test
+	void findAllPaged_ShouldFilterByBirthDate_WhenBornFromIsSent() throws Exception {
+		ResultActions result = mockMvc
+				.perform(get("/persons").param("bornFrom", "1998-01-01")
+				.accept(MediaType.APPLICATION_JSON));
+		
+		result.andExpect(status().isOk());
+		result.andExpect(jsonPath("$.content[0].name").value(personDTO.getName()));
+		Mockito.verify(service, Mockito.never()).findAllPaged(any());
+	}
+	
+	@Test
+	void findAllPaged_ShouldReturnBadRequest_WhenBornFromIsNotADate() throws Exception {
+		ResultActions result = mockMvc
+				.perform(get("/persons").param("bornFrom", "01/01/1998")
+				.accept(MediaType.APPLICATION_JSON));
+		
+		result.andExpect(status().isBadRequest());
+	}
+	
+	@Test
+	void ageHistogram_ShouldReturnBuckets() throws Exception {
+		ResultActions result = mockMvc
+				.perform(get("/persons/stats/age-histogram")
+				.accept(MediaType.APPLICATION_JSON));
+		
+		result.andExpect(status().isOk());
+		result.andExpect(jsonPath("$[0].ageFrom").value(20));
+		result.andExpect(jsonPath("$[0].ageTo").value(29));
+		result.andExpect(jsonPath("$[0].count").value(6));
+	}
+	
+	@Test
+	void ageHistogram_ShouldReturnBadRequest_WhenBucketSizeIsInvalid() throws Exception {
+		ResultActions result = mockMvc
+				.perform(get("/persons/stats/age-histogram").param("bucketSize", "0")
+				.accept(MediaType.APPLICATION_JSON));
+		
+		result.andExpect(status().isBadRequest());
+	}
+	
+	@Test
+	void search_ShouldReturnPersonDTOPage() throws Exception {
+		ResultActions result = mockMvc
+				.perform(get("/persons/search").param("q", "joão")
+				.accept(MediaType.APPLICATION_JSON));
+		
+		result.andExpect(status().isOk());
+		result.andExpect(jsonPath("$.content[0].name").value(personDTO.getName()));
+	}
+	
+	@Test
+	void findAllByCursor_ShouldReturnContentAndNextCursor() throws Exception {
+		ResultActions result = mockMvc
+				.perform(get("/persons/cursor?size=1")
+				.accept(MediaType.APPLICATION_JSON));
+		
+		result.andExpect(status().isOk());
+		result.andExpect(jsonPath("$.content[0].name").exists());
+		result.andExpect(jsonPath("$.nextCursor").value("Mg"));
+		result.andExpect(jsonPath("$.totalElements").doesNotExist());
+	}
+	
+	@Test
+	void findAllByCursor_ShouldReturnBadRequest_WhenCursorIsInvalid() throws Exception {
+		ResultActions result = mockMvc
+				.perform(get("/persons/cursor?after=invalido")
+				.accept(MediaType.APPLICATION_JSON));
+		
+		result.andExpect(status().isBadRequest());
+	}
+	
+	@Test
+	void exportAll_ShouldStreamNdjson() throws Exception {
+		MvcResult mvcResult = mockMvc
+				.perform(get("/persons/export")
+				.accept(MediaType.APPLICATION_NDJSON))
+				.andExpect(request().asyncStarted())
+				.andReturn();
+		
+		ResultActions result = mockMvc.perform(asyncDispatch(mvcResult));
+		
+		result.andExpect(status().isOk());
+		result.andExpect(content().contentType(MediaType.APPLICATION_NDJSON));
+		result.andExpect(content().string("{\"id\":1}\n{\"id\":2}\n"));
+	}
+	
 	@Test
 	void findById_ShouldReturnPersonDTO_WhenIdExists() throws Exception {
 		ResultActions result = mockMvc
@@ -94,6 +318,76 @@ class PersonControllerTests {
 		result.andExpect(jsonPath("$.cpf").exists());
 		result.andExpect(jsonPath("$.adress").exists());
 		result.andExpect(jsonPath("$.birthDate").exists());
+		result.andExpect(header().string("ETag", "\"3\""));
+	}
+	
+	@Test
+	void findById_ShouldWriteOnlyRequestedFieldsAndKeepETag_WhenFieldsIsSent() throws Exception {
+		ResultActions result = mockMvc
+				.perform(get("/persons/{id}", this.existingId).param("fields", "cpf")
+				.accept(MediaType.APPLICATION_JSON));
+		
+		result.andExpect(status().isOk());
+		result.andExpect(jsonPath("$.cpf").value(personDTO.getCpf()));
+		result.andExpect(jsonPath("$.name").doesNotExist());
+		result.andExpect(jsonPath("$.version").doesNotExist());
+		result.andExpect(header().string("ETag", "\"3\""));
+		Mockito.verify(service, Mockito.never()).findById(any());
+	}
+	
+	@Test
+	void findById_ShouldReturnNotModified_WhenIfNoneMatchIsCurrentVersion() throws Exception {
+		ResultActions result = mockMvc
+				.perform(get("/persons/{id}", this.existingId)
+				.header("If-None-Match", "\"3\"")
+				.accept(MediaType.APPLICATION_JSON));
+		
+		result.andExpect(status().isNotModified());
+		result.andExpect(content().string(""));
+	}
+	
+	@Test
+	void findById_ShouldVaryByAcceptAndEncoding() throws Exception {
+		ResultActions result = mockMvc
+				.perform(get("/persons/{id}", this.existingId)
+				.accept(MediaType.APPLICATION_JSON));
+		
+		result.andExpect(status().isOk());
+		result.andExpect(header().string("Vary", "Accept, Accept-Encoding"));
+	}
+	
+	@Test
+	void findById_ShouldReturnRepresentationSpecificETag_WhenCborIsAccepted() throws Exception {
+		ResultActions result = mockMvc
+				.perform(get("/persons/{id}", this.existingId)
+				.accept(MediaType.APPLICATION_CBOR));
+		
+		result.andExpect(status().isOk());
+		result.andExpect(content().contentType(MediaType.APPLICATION_CBOR));
+		result.andExpect(header().string("ETag", "\"3-cbor\""));
+		result.andExpect(header().string("Vary", "Accept, Accept-Encoding"));
+	}
+	
+	@Test
+	void findById_ShouldNotReturnNotModified_WhenIfNoneMatchIsFromAnotherRepresentation() throws Exception {
+		ResultActions result = mockMvc
+				.perform(get("/persons/{id}", this.existingId)
+				.header("If-None-Match", "\"3\"")
+				.accept(MediaType.APPLICATION_CBOR));
+		
+		result.andExpect(status().isOk());
+		result.andExpect(header().string("ETag", "\"3-cbor\""));
+	}
+	
+	@Test
+	void findById_ShouldReturnPersonDTO_WhenIfNoneMatchIsStale() throws Exception {
+		ResultActions result = mockMvc
+				.perform(get("/persons/{id}", this.existingId)
+				.header("If-None-Match", "\"2\"")
+				.accept(MediaType.APPLICATION_JSON));
+		
+		result.andExpect(status().isOk());
+		result.andExpect(jsonPath("$.version").value(3));
 	}
 	
 	@Test
@@ -109,6 +403,39 @@ class PersonControllerTests {
 		result.andExpect(jsonPath("$.birthDate").doesNotExist());
 	}
 	
+	@Test
+	void findByCpf_ShouldReturnPersonDTO_WhenCpfExists() throws Exception {
+		ResultActions result = mockMvc
+				.perform(get("/persons/by-cpf/{cpf}", personDTO.getCpf())
+				.accept(MediaType.APPLICATION_JSON));
+		
+		result.andExpect(status().isOk());
+		result.andExpect(jsonPath("$.cpf").value(personDTO.getCpf()));
+	}
+	
+	@Test
+	void findByCpf_ShouldReturnNotFound_WhenCpfDoesNotExist() throws Exception {
+		ResultActions result = mockMvc
+				.perform(get("/persons/by-cpf/{cpf}", "000.000.000-00")
+				.accept(MediaType.APPLICATION_JSON));
+		
+		result.andExpect(status().isNotFound());
+	}
+	
+	@Test
+	void insert_ShouldReturnConflict_WhenCpfAlreadyExists() throws Exception{
+		when(service.insert(any())).thenThrow(new ResourceConflictException("CPF já cadastrado"));
+		String jsonBody = objectMapper.writeValueAsString(personDTO);
+		
+		ResultActions result = mockMvc
+		.perform(post("/persons")
+				.content(jsonBody)
+				.contentType(MediaType.APPLICATION_JSON)
+				.accept(MediaType.APPLICATION_JSON));
+		
+		result.andExpect(status().isConflict());
+	}
+	
 	@Test
 	void insert_ShouldReturnCreatedStatus() throws Exception{
 		String jsonBody = objectMapper.writeValueAsString(personDTO);
@@ -128,6 +455,21 @@ class PersonControllerTests {
 		result.andExpect(jsonPath("$.birthDate").exists());
 	}
 	
+	@Test
+	void insertAll_ShouldReturnResultPerItem() throws Exception{
+		String jsonBody = objectMapper.writeValueAsString(List.of(personDTO, personDTO));
+		
+		ResultActions result = mockMvc
+		.perform(post("/persons/batch")
+				.content(jsonBody)
+				.contentType(MediaType.APPLICATION_JSON)
+				.accept(MediaType.APPLICATION_JSON));
+		
+		result.andExpect(status().isOk());
+		result.andExpect(jsonPath("$[0].id").value(existingId));
+		result.andExpect(jsonPath("$[1].error").exists());
+	}
+	
 	@Test
 	void update_ShouldReturnPersonDTO_WhenIdExists() throws Exception{
 		String jsonBody = objectMapper.writeValueAsString(personDTO);
@@ -160,6 +502,67 @@ class PersonControllerTests {
 		result.andExpect(jsonPath("$.phoneNumber").doesNotExist());
 	}
 	
+	@Test
+	void update_ShouldReturnPreconditionFailed_WhenIfMatchIsStale() throws Exception {
+		String jsonBody = objectMapper.writeValueAsString(personDTO);
+		
+		ResultActions result = mockMvc.perform(put("/persons/{id}", this.existingId)
+				.header("If-Match", "\"2\"")
+				.content(jsonBody)
+				.contentType(MediaType.APPLICATION_JSON)
+				.accept(MediaType.APPLICATION_JSON));
+		
+		result.andExpect(status().isPreconditionFailed());
+	}
+	
+	@Test
+	void update_ShouldUseVersionFromCborETag_WhenIfMatchIsSent() throws Exception {
+		String jsonBody = objectMapper.writeValueAsString(personDTO);
+		
+		ResultActions result = mockMvc.perform(put("/persons/{id}", this.existingId)
+				.header("If-Match", "\"3-cbor\"")
+				.content(jsonBody)
+				.contentType(MediaType.APPLICATION_JSON)
+				.accept(MediaType.APPLICATION_JSON));
+		
+		result.andExpect(status().isOk());
+		result.andExpect(header().string("ETag", "\"3\""));
+		Mockito.verify(service).update(argThat(dto -> Long.valueOf(3L).equals(dto.getVersion())), eq(existingId));
+	}
+	
+	@Test
+	void update_ShouldReturnPreconditionFailed_WhenIfMatchIsMalformed() throws Exception {
+		String jsonBody = objectMapper.writeValueAsString(personDTO);
+		
+		ResultActions result = mockMvc.perform(put("/persons/{id}", this.existingId)
+				.header("If-Match", "W/\"3\"")
+				.content(jsonBody)
+				.contentType(MediaType.APPLICATION_JSON)
+				.accept(MediaType.APPLICATION_JSON));
+		
+		result.andExpect(status().isPreconditionFailed());
+	}
+	
+	@Test
+	void patch_ShouldReturnNoContent_WhenIdExists() throws Exception {
+		ResultActions result = mockMvc.perform(patch("/persons/{id}", this.existingId)
+				.content("{\"phoneNumber\":\"(75)99999-0000\"}")
+				.contentType(MediaType.APPLICATION_JSON)
+				.accept(MediaType.APPLICATION_JSON));
+		
+		result.andExpect(status().isNoContent());
+	}
+	
+	@Test
+	void patch_ShouldReturnNotFound_WhenIdDoesNotExist() throws Exception {
+		ResultActions result = mockMvc.perform(patch("/persons/{id}", this.notExistingId)
+				.content("{\"phoneNumber\":\"(75)99999-0000\"}")
+				.contentType(MediaType.APPLICATION_JSON)
+				.accept(MediaType.APPLICATION_JSON));
+		
+		result.andExpect(status().isNotFound());
+	}
+	
 	@Test
 	void delete_ShouldDoNothin_WhenIdExists() throws Exception {
 		ResultActions result = mockMvc
@@ -187,4 +590,17 @@ class PersonControllerTests {
 		result.andExpect(jsonPath("$.adress").doesNotExist());
 		result.andExpect(jsonPath("$.phoneNumber").doesNotExist());	
 	}
+	
+	@Test
+	void deleteAll_ShouldReturnDeletedCount() throws Exception {
+		ResultActions result = mockMvc
+				.perform(delete("/persons")
+				.content(objectMapper.writeValueAsString(List.of(existingId, notExistingId)))
+				.contentType(MediaType.APPLICATION_JSON)
+				.accept(MediaType.APPLICATION_JSON));
+		
+		result.andExpect(status().isOk());
+		result.andExpect(jsonPath("$.requested").value(2));
+		result.andExpect(jsonPath("$.deleted").value(1));
+	}
 }
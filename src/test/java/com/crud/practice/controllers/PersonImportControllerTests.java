@@ -0,0 +1,92 @@
+package com.crud.practice.controllers;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.multipart;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+
+import com.crud.practice.dto.PersonImportErrorDTO;
+import com.crud.practice.dto.PersonImportStatusDTO;
+import com.crud.practice.services.PersonImportService;
+import com.crud.practice.services.exceptions.ResourceNotFoundException;
+
+@WebMvcTest(PersonImportController.class)
+class PersonImportControllerTests {
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@MockBean
+	private PersonImportService service;
+
+	private String existingJobId;
+
+	private String notExistingJobId;
+
+	private PersonImportStatusDTO status;
+
+	@BeforeEach
+	void setUp() throws Exception {
+
+		existingJobId = "8b6d1f0e";
+
+		notExistingJobId = "desconhecido";
+
+		status = new PersonImportStatusDTO(existingJobId, "RUNNING", 100L, 40L, 2L, 1L, 1L,
+				List.of(new PersonImportErrorDTO(3L, "Nome e CPF são obrigatórios")), null, Instant.now(), null);
+
+		when(service.submit(any())).thenReturn(status);
+		when(service.findStatus(existingJobId)).thenReturn(status);
+		when(service.findStatus(notExistingJobId)).thenThrow(ResourceNotFoundException.class);
+	}
+
+	@Test
+	void submit_ShouldReturnAcceptedAndStatusLocation() throws Exception {
+		MockMultipartFile file = new MockMultipartFile("file", "persons.csv", "text/csv",
+				"name,cpf\nAna,000.000.001-91\n".getBytes(StandardCharsets.UTF_8));
+
+		ResultActions result = mockMvc.perform(multipart("/persons/import").file(file)
+				.accept(MediaType.APPLICATION_JSON));
+
+		result.andExpect(status().isAccepted());
+		result.andExpect(header().string("Location", "http://localhost/persons/import/" + existingJobId));
+		result.andExpect(jsonPath("$.id").value(existingJobId));
+	}
+
+	@Test
+	void findStatus_ShouldReturnProgressAndErrors_WhenJobExists() throws Exception {
+		ResultActions result = mockMvc.perform(get("/persons/import/{id}", existingJobId)
+				.accept(MediaType.APPLICATION_JSON));
+
+		result.andExpect(status().isOk());
+		result.andExpect(jsonPath("$.status").value("RUNNING"));
+		result.andExpect(jsonPath("$.bytesRead").value(40));
+		result.andExpect(jsonPath("$.errors[0].line").value(3));
+	}
+
+	@Test
+	void findStatus_ShouldReturnNotFound_WhenJobDoesNotExist() throws Exception {
+		ResultActions result = mockMvc.perform(get("/persons/import/{id}", notExistingJobId)
+				.accept(MediaType.APPLICATION_JSON));
+
+		result.andExpect(status().isNotFound());
+	}
+
+}
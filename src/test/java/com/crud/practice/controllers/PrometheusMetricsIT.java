@@ -0,0 +1,41 @@
+package com.crud.practice.controllers;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.metrics.AutoConfigureMetrics;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@AutoConfigureMetrics
+class PrometheusMetricsIT {
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Test
+	void prometheus_ShouldExposeRouteLatencyHibernateAndPoolMetrics() throws Exception {
+		mockMvc.perform(get("/persons/{id}", 1L).accept(MediaType.APPLICATION_JSON))
+				.andExpect(status().isOk());
+
+		ResultActions result = mockMvc.perform(get("/actuator/prometheus"));
+
+		result.andExpect(status().isOk());
+		result.andExpect(content().string(containsString("http_server_requests_seconds{exception=\"None\",method=\"GET\",outcome=\"SUCCESS\",status=\"200\",uri=\"/persons/{id}\",quantile=\"0.99\",}")));
+		result.andExpect(content().string(containsString("hibernate_query_executions_total")));
+		result.andExpect(content().string(containsString("hibernate_flushes_total")));
+		result.andExpect(content().string(containsString("hikaricp_connections_active")));
+		result.andExpect(content().string(containsString("hikaricp_connections_pending")));
+		result.andExpect(content().string(containsString("hikaricp_connections_acquire_seconds")));
+	}
+
+}
@@ -0,0 +1,266 @@
+package com.crud.practice.repositories;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.crud.practice.dto.PersonDTO;
+
+class MappedPersonStoreTests {
+
+	private static final int INITIAL_SIZE = 4096;
+
+	@TempDir
+	Path directory;
+
+	private MappedPersonStore store;
+
+	@BeforeEach
+	void setUp() throws Exception {
+		store = open();
+	}
+
+	@AfterEach
+	void tearDown() throws Exception {
+		store.close();
+	}
+
+	@Test
+	public void findDTOById_ShouldReturnAllFields_WhenPersonWasSaved() {
+		PersonDTO dto = person(1L, 3L, "João Ção");
+		dto.setPhoneNumber(null);
+		store.saveAll(List.of(dto));
+
+		Assertions.assertEquals(dto, store.findDTOById(1L).get());
+		Assertions.assertTrue(store.findDTOById(2L).isEmpty());
+	}
+
+	@Test
+	public void saveAll_ShouldIgnoreOlderVersion_WhenNewerIsStored() {
+		store.saveAll(List.of(person(1L, 2L, "Nova")));
+		store.saveAll(List.of(person(1L, 1L, "Antiga")));
+
+		Assertions.assertEquals("Nova", store.findDTOById(1L).get().getName());
+		Assertions.assertEquals(1L, store.count());
+	}
+
+	@Test
+	public void deleteAllById_ShouldRemoveOnlyGivenIds() {
+		store.saveAll(List.of(person(1L, 0L, "Um"), person(2L, 0L, "Dois")));
+
+		store.deleteAllById(List.of(1L, 1000L));
+
+		Assertions.assertTrue(store.findDTOById(1L).isEmpty());
+		Assertions.assertEquals(List.of(2L), ids(store.findAllDTOByIdIn(List.of(1L, 2L))));
+	}
+
+	@Test
+	public void saveAll_ShouldIgnoreAnyVersion_WhenPersonWasDeleted() throws Exception {
+		store.saveAll(List.of(person(1L, 1L, "Um")));
+		store.deleteAllById(List.of(1L, 2L));
+
+		store.saveAll(List.of(person(1L, 5L, "Um atrasado"), person(2L, 0L, "Dois atrasado")));
+		Assertions.assertTrue(store.findAllDTOByIdIn(List.of(1L, 2L)).isEmpty());
+		Assertions.assertEquals(0L, store.count());
+
+		store.compact();
+		store.close();
+		store = open();
+		store.saveAll(List.of(person(1L, 6L, "Um depois de reabrir")));
+		Assertions.assertTrue(store.findDTOById(1L).isEmpty());
+		Assertions.assertEquals(0L, store.count());
+	}
+
+	@Test
+	public void saveChangeToken_ShouldSurviveReopen() throws Exception {
+		Assertions.assertTrue(store.findChangeToken().isEmpty());
+
+		store.saveChangeToken("MQ");
+		store.saveChangeToken("NDI");
+		store.close();
+		store = open();
+
+		Assertions.assertEquals("NDI", store.findChangeToken().get());
+	}
+
+	@Test
+	public void open_ShouldReplayUpdatesAndDeletes_WhenStoreIsReopened() throws Exception {
+		store.saveAll(List.of(person(1L, 0L, "Um"), person(2L, 0L, "Dois"), person(3L, 0L, "Três")));
+		store.saveAll(List.of(person(2L, 1L, "Dois v1")));
+		store.deleteAllById(List.of(3L));
+
+		store.close();
+		store = open();
+
+		Assertions.assertEquals(2L, store.count());
+		Assertions.assertEquals("Dois v1", store.findDTOById(2L).get().getName());
+		Assertions.assertTrue(store.findDTOById(3L).isEmpty());
+	}
+
+	@Test
+	public void open_ShouldDiscardTornRecordAndKeepAppending_WhenProcessDiedMidWrite() throws Exception {
+		store.saveAll(List.of(person(1L, 0L, "Um"), person(2L, 0L, "Dois")));
+		int end = store.logSize();
+		store.close();
+		try (FileChannel channel = FileChannel.open(directory.resolve(MappedPersonStore.LOG_FILE),
+				StandardOpenOption.WRITE)) {
+			ByteBuffer torn = ByteBuffer.allocate(40).putInt(60).putInt(0xCAFE).put((byte) 1).putLong(3L);
+			channel.write(torn.rewind(), end);
+		}
+
+		store = open();
+		Assertions.assertEquals(2L, store.count());
+		Assertions.assertEquals(end, store.logSize());
+
+		store.saveAll(List.of(person(3L, 0L, "Três")));
+		store.close();
+		store = open();
+		Assertions.assertEquals(3L, store.count());
+		Assertions.assertEquals("Três", store.findDTOById(3L).get().getName());
+	}
+
+	@Test
+	public void open_ShouldStopAtCorruptedRecord_WhenChecksumDoesNotMatch() throws Exception {
+		store.saveAll(List.of(person(1L, 0L, "Um")));
+		int end = store.logSize();
+		store.saveAll(List.of(person(2L, 0L, "Dois")));
+		store.close();
+		try (FileChannel channel = FileChannel.open(directory.resolve(MappedPersonStore.LOG_FILE),
+				StandardOpenOption.WRITE)) {
+			channel.write(ByteBuffer.wrap(new byte[] { 'X' }), end + MappedPersonStore.HEADER_BYTES + 40);
+		}
+
+		store = open();
+
+		Assertions.assertEquals(1L, store.count());
+		Assertions.assertTrue(store.findDTOById(2L).isEmpty());
+	}
+
+	@Test
+	public void open_ShouldRecoverEveryCompletedWrite_WhenWriterProcessIsKilled() throws Exception {
+		store.close();
+		String java = ProcessHandle.current().info().command().orElse("java");
+		Process writer = new ProcessBuilder(java, "-cp", System.getProperty("java.class.path"),
+				KilledWriter.class.getName(), directory.toString()).redirectErrorStream(true).start();
+		try (BufferedReader output = new BufferedReader(new InputStreamReader(writer.getInputStream()))) {
+			Assertions.assertEquals("ready", output.readLine());
+			Thread.sleep(200);
+		} finally {
+			writer.destroyForcibly().waitFor();
+		}
+
+		store = open();
+
+		long count = store.count();
+		Assertions.assertTrue(count >= KilledWriter.READY_AFTER, "recuperou só " + count);
+		List<Long> expectedIds = LongStream.rangeClosed(1, count).boxed().collect(Collectors.toList());
+		Assertions.assertEquals(expectedIds, ids(store.findAllDTOByIdIn(expectedIds)));
+		Assertions.assertEquals("Pessoa " + count, store.findDTOById(count).get().getName());
+	}
+
+	@Test
+	public void compact_ShouldKeepOnlyLiveRecords_AndSurviveReopen() throws Exception {
+		for (long version = 0; version < 50; version++) {
+			store.saveAll(List.of(person(1L, version, "Um v" + version), person(2L, version, "Dois v" + version)));
+		}
+		store.deleteAllById(List.of(2L));
+		int before = store.logSize();
+
+		store.compact();
+
+		Assertions.assertTrue(store.logSize() < before / 50, store.logSize() + " >= " + before / 50);
+		Assertions.assertEquals("Um v49", store.findDTOById(1L).get().getName());
+		store.close();
+		Files.write(directory.resolve(MappedPersonStore.COMPACTION_FILE), new byte[] { 1, 2, 3 });
+		store = open();
+		Assertions.assertEquals(1L, store.count());
+		Assertions.assertEquals("Um v49", store.findDTOById(1L).get().getName());
+		Assertions.assertFalse(Files.exists(directory.resolve(MappedPersonStore.COMPACTION_FILE)));
+	}
+
+	@Test
+	public void saveAll_ShouldGrowFile_WhenLogExceedsInitialSize() throws Exception {
+		List<PersonDTO> dtos = LongStream.rangeClosed(1, 1000).mapToObj(id -> person(id, 0L, "Pessoa " + id))
+				.collect(Collectors.toList());
+
+		store.saveAll(dtos);
+		store.close();
+		store = open();
+
+		Assertions.assertTrue(Files.size(directory.resolve(MappedPersonStore.LOG_FILE)) > INITIAL_SIZE);
+		Assertions.assertEquals(1000L, store.count());
+		Assertions.assertEquals("Pessoa 777", store.findDTOById(777L).get().getName());
+	}
+
+	@Test
+	public void offsetIndex_ShouldMatchHashMap_WhenKeysAreAddedAndRemovedRandomly() {
+		PersonOffsetIndex index = new PersonOffsetIndex(0);
+		Map<Long, Integer> expected = new HashMap<>();
+		Random random = new Random(42);
+		for (int i = 0; i < 100_000; i++) {
+			long key = random.nextInt(5000) - 100;
+			if (random.nextInt(3) == 0) {
+				Integer removed = expected.remove(key);
+				Assertions.assertEquals(removed == null ? PersonOffsetIndex.ABSENT : removed, index.remove(key));
+			} else {
+				Integer previous = expected.put(key, i);
+				Assertions.assertEquals(previous == null ? PersonOffsetIndex.ABSENT : previous, index.put(key, i));
+			}
+		}
+		Assertions.assertEquals(expected.size(), index.size());
+		expected.forEach((key, offset) -> Assertions.assertEquals(offset, index.get(key)));
+		Assertions.assertEquals(PersonOffsetIndex.ABSENT, index.get(10_000L));
+	}
+
+	private MappedPersonStore open() throws IOException {
+		return new MappedPersonStore(directory, INITIAL_SIZE, 0.5, false);
+	}
+
+	private static PersonDTO person(Long id, Long version, String name) {
+		return new PersonDTO(id, name, "072.779.685-22", "(71) 98765-4321", Instant.parse("1998-03-18T10:15:30.123Z"),
+				"Rua das Flores, 123", version);
+	}
+
+	private static List<Long> ids(List<PersonDTO> dtos) {
+		return dtos.stream().map(PersonDTO::getId).collect(Collectors.toList());
+	}
+
+	/**
+	 * Grava pessoas sem parar até ser morto com SIGKILL pelo teste.
+	 */
+	static class KilledWriter {
+
+		static final int READY_AFTER = 1000;
+
+		public static void main(String[] args) throws Exception {
+			MappedPersonStore store = new MappedPersonStore(Path.of(args[0]), INITIAL_SIZE, 0.5, false);
+			for (long id = 1;; id++) {
+				store.saveAll(List.of(person(id, 0L, "Pessoa " + id)));
+				if (id == READY_AFTER) {
+					System.out.println("ready");
+					System.out.flush();
+				}
+			}
+		}
+
+	}
+
+}
@@ -1,24 +1,57 @@
 package com.crud.practice.repositories;
 
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.dao.EmptyResultDataAccessException;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
 
+import com.crud.practice.dto.PersonDTO;
 import com.crud.practice.entities.Person;
 import com.crud.practice.tests.Factory;
+import com.crud.practice.tests.SqlCapture;
+import com.crud.practice.util.TextNormalizer;
 
-@DataJpaTest
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@Import(SqlCapture.class)
 class PersonRepositoryTests {
 
 	@Autowired
 	private PersonRepository repository;
 
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+
+	@Autowired
+	private SqlCapture sql;
+
+	@Autowired
+	private EntityManager entityManager;
+
 	private Long existingId;
 
 	private Long nonExistingId;
@@ -53,13 +86,178 @@ class PersonRepositoryTests {
 		Assertions.assertTrue(obj.isEmpty());
 	}
 
+	@Test
+	public void streamAllOrderedById_ShouldReturnAllPersonsInIdOrder() {
+		try (Stream<Person> stream = repository.streamAllOrderedById()) {
+			List<Long> ids = stream.map(Person::getId).toList();
+
+			Assertions.assertEquals(countTotalPersons, ids.size());
+			Assertions.assertEquals(ids.stream().sorted().toList(), ids);
+		}
+	}
+
+	@Test
+	public void findDTOById_ShouldReturnPersonDTO_WhenIdExists() {
+		Optional<PersonDTO> obj = repository.findDTOById(existingId);
+
+		Assertions.assertEquals("Martim Palmeira", obj.get().getName());
+		Assertions.assertEquals("072.779.685-22", obj.get().getCpf());
+	}
+
+	@Test
+	public void findDTOById_ShouldReturnEmptyOptional_WhenIdDoesNotExist() {
+		Optional<PersonDTO> obj = repository.findDTOById(nonExistingId);
+
+		Assertions.assertTrue(obj.isEmpty());
+	}
+
+	@Test
+	public void findAllDTO_ShouldReturnSortedPageWithoutLoadingEntities() {
+		Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+		statistics.clear();
+
+		Page<PersonDTO> page = repository.findAllDTO(PageRequest.of(0, 3, Sort.by("name")));
+
+		Assertions.assertEquals(countTotalPersons, page.getTotalElements());
+		Assertions.assertEquals("Beatriz Barbosa", page.getContent().get(0).getName());
+		Assertions.assertEquals(0L, statistics.getEntityLoadCount());
+	}
+
+	@Test
+	public void findAllDTOFields_ShouldSelectOnlyRequestedColumns() {
+		Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+		statistics.clear();
+
+		Page<PersonDTO> page = repository.findAllDTOFields(List.of("id", "name"), null, null,
+				PageRequest.of(0, 3, Sort.by("name")));
+
+		PersonDTO first = page.getContent().get(0);
+		Assertions.assertEquals(countTotalPersons, page.getTotalElements());
+		Assertions.assertEquals("Beatriz Barbosa", first.getName());
+		Assertions.assertNotNull(first.getId());
+		Assertions.assertNull(first.getCpf());
+		Assertions.assertNull(first.getAdress());
+		Assertions.assertEquals(0L, statistics.getEntityLoadCount());
+		Assertions.assertTrue(Arrays.stream(statistics.getQueries()).noneMatch(query -> query.contains("adress")));
+	}
+
+	@Test
+	public void findAllDTOSliceFields_ShouldFilterBirthDateRangeWithoutCounting() {
+		Slice<PersonDTO> slice = repository.findAllDTOSliceFields(List.of("id"), Instant.parse("1998-01-01T00:00:00Z"),
+				Instant.parse("2000-01-01T00:00:00Z"), PageRequest.of(0, 2, Sort.by("id")));
+
+		Assertions.assertEquals(List.of(1L, 2L), slice.getContent().stream().map(PersonDTO::getId).toList());
+		Assertions.assertTrue(slice.hasNext());
+	}
+
+	@Test
+	public void findDTOFieldsById_ShouldReturnOnlyRequestedColumns_WhenIdExists() {
+		Optional<PersonDTO> obj = repository.findDTOFieldsById(existingId, List.of("cpf"));
+
+		Assertions.assertEquals("072.779.685-22", obj.get().getCpf());
+		Assertions.assertNull(obj.get().getName());
+		Assertions.assertTrue(repository.findDTOFieldsById(nonExistingId, List.of("cpf")).isEmpty());
+	}
+
+	@Test
+	public void findByCpfNormalized_ShouldReturnPerson_WhenCpfExists() {
+		Optional<Person> obj = repository.findByCpfNormalized("07277968522");
+
+		Assertions.assertEquals(existingId, obj.get().getId());
+	}
+
+	@Test
+	public void saveAndFlush_ShouldThrowDataIntegrityViolation_WhenCpfIsDuplicated() {
+		Person person = Factory.createPersonNullId();
+		person.setCpf("07277968522");
+
+		Assertions.assertThrows(DataIntegrityViolationException.class, () -> {
+			repository.saveAndFlush(person);
+		});
+	}
+
+	@Test
+	public void findAllBySearchTokens_ShouldIgnoreCaseAndAccents() {
+		List<Person> list = repository.findAll(PersonSpecifications.hasTokensStartingWith(TextNormalizer.tokens("JOÃO")));
+
+		Assertions.assertEquals(1, list.size());
+		Assertions.assertEquals("João Carlos", list.get(0).getName());
+	}
+
+	@Test
+	public void findAllBySearchTokens_ShouldMatchEveryPrefix() {
+		Assertions.assertEquals("Pedro Araújo", repository
+				.findAll(PersonSpecifications.hasTokensStartingWith(TextNormalizer.tokens("ped arau"))).get(0).getName());
+		Assertions.assertEquals(countTotalPersons, repository
+				.findAll(PersonSpecifications.hasTokensStartingWith(TextNormalizer.tokens("rua bair")), Sort.by("name")).size());
+		Assertions.assertTrue(repository
+				.findAll(PersonSpecifications.hasTokensStartingWith(TextNormalizer.tokens("pedro carlos"))).isEmpty());
+	}
+
+	@Test
+	public void findAllBySearchTokens_ShouldFindSavedPerson_AfterNameChanges() {
+		Person person = Factory.createPersonNullId();
+		person = repository.saveAndFlush(person);
+		person.setName("Ângela Souza");
+		repository.saveAndFlush(person);
+
+		List<Person> list = repository.findAll(PersonSpecifications.hasTokensStartingWith(TextNormalizer.tokens("angel")));
+
+		Assertions.assertEquals(1, list.size());
+		Assertions.assertEquals(person.getId(), list.get(0).getId());
+		Assertions.assertTrue(repository.findAll(PersonSpecifications.hasTokensStartingWith(TextNormalizer.tokens("joão"))).stream()
+				.noneMatch(found -> found.getId().equals(list.get(0).getId())));
+	}
+
+	@Test
+	public void patch_ShouldUpdateOnlySuppliedFields_WhenIdExists() {
+		int updated = repository.patch(existingId, "Martim P.", null, null, null, null, null);
+
+		Person person = repository.findById(existingId).get();
+		Assertions.assertEquals(1, updated);
+		Assertions.assertEquals("Martim P.", person.getName());
+		Assertions.assertEquals("072.779.685-22", person.getCpf());
+		Assertions.assertNotNull(person.getBirthDate());
+	}
+
+	@Test
+	public void patch_ShouldReturnZero_WhenIdDoesNotExist() {
+		int updated = repository.patch(nonExistingId, "Martim P.", null, null, null, null, null);
+
+		Assertions.assertEquals(0, updated);
+	}
+
+	@Test
+	public void deletePersonById_ShouldDeletePersonAndSearchTokens_WhenIdExists() {
+		int deleted = repository.deletePersonById(existingId);
+
+		Assertions.assertEquals(1, deleted);
+		Assertions.assertTrue(repository.findById(existingId).isEmpty());
+		Assertions.assertTrue(repository.findAll(PersonSpecifications.hasTokensStartingWith(TextNormalizer.tokens("martim"))).isEmpty());
+	}
+
+	@Test
+	public void deletePersonById_ShouldReturnZero_WhenIdDoesNotExist() {
+		Assertions.assertEquals(0, repository.deletePersonById(nonExistingId));
+	}
+
+	@Test
+	public void deletePersonsByIdIn_ShouldDeleteOnlyExistingIds() {
+		int deleted = repository.deletePersonsByIdIn(List.of(1L, 2L, nonExistingId));
+
+		Assertions.assertEquals(2, deleted);
+		Assertions.assertEquals(countTotalPersons - 2, repository.count());
+	}
+
 	@Test
 	public void save_ShouldPersistPersonWithAutoIncrement_WhenIdIsNull() {
 		Person person = Factory.createPerson();
 
-		person = repository.save(person);
+		person = repository.saveAndFlush(person);
 
-		Assertions.assertEquals(person.getId(), countTotalPersons + 1);
+		Assertions.assertNotNull(person.getId());
+		Assertions.assertEquals(countTotalPersons + 1, repository.count());
+		Assertions.assertEquals(new PersonDTO(person), repository.findDTOById(person.getId()).get());
 	}
 
 	@Test
@@ -80,4 +278,147 @@ class PersonRepositoryTests {
 		
 	}
 
+	@Test
+	public void findByIdGreaterThan_ShouldCostOneStatementFromFirstToLastPage() {
+		List<Person> persons = new ArrayList<>();
+		for (int i = 0; i < 10000; i++) {
+			Person person = Factory.createPersonNullId();
+			person.setCpf(String.format("%011d", i));
+			persons.add(person);
+		}
+		repository.saveAll(persons);
+		repository.flush();
+
+		List<Long> ids = repository.findAll().stream().map(Person::getId).sorted().toList();
+		Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+		statistics.clear();
+		sql.clear();
+		List<Person> firstPage = repository.findByIdGreaterThanOrderByIdAsc(0L, PageRequest.of(0, 1));
+		long firstPageStatements = statistics.getPrepareStatementCount();
+		List<String> firstPageSql = sql.statements();
+
+		statistics.clear();
+		sql.clear();
+		List<Person> lastPage = repository.findByIdGreaterThanOrderByIdAsc(ids.get(ids.size() - 2), PageRequest.of(0, 1));
+		long lastPageStatements = statistics.getPrepareStatementCount();
+		List<String> lastPageSql = sql.statements();
+
+		Assertions.assertEquals(ids.get(0), firstPage.get(0).getId());
+		Assertions.assertEquals(ids.get(ids.size() - 1), lastPage.get(0).getId());
+		Assertions.assertEquals(1L, firstPageStatements);
+		Assertions.assertEquals(firstPageStatements, lastPageStatements);
+		Assertions.assertEquals(firstPageSql, lastPageSql);
+		String pageSql = lastPageSql.get(0).toLowerCase();
+		Assertions.assertFalse(pageSql.contains("offset"), pageSql);
+		Assertions.assertTrue(pageSql.matches(".*\\bwhere \\w+\\.id>\\? order by \\w+\\.id asc limit \\?.*"), pageSql);
+	}
+
+	@Test
+	public void findAllDTOByBirthDateBetween_ShouldReturnOnlyPersonsBornInRange() {
+		Page<PersonDTO> page = repository.findAllDTOByBirthDateBetween(Instant.parse("1998-01-01T00:00:00Z"),
+				Instant.parse("2000-01-01T00:00:00Z"), PageRequest.of(0, 10, Sort.by("id")));
+
+		Assertions.assertEquals(List.of(1L, 2L, 6L), page.getContent().stream().map(PersonDTO::getId).toList());
+		Assertions.assertEquals(3L, page.getTotalElements());
+	}
+
+	@Test
+	public void birthDateRange_ShouldUseBirthDateIndex_WhenTableIsLarge() {
+		insertLargeDataset();
+
+		sql.clear();
+		Page<PersonDTO> page = repository.findAllDTOByBirthDateBetween(Instant.parse("1990-01-01T00:00:00Z"),
+				Instant.parse("1991-01-01T00:00:00Z"), PageRequest.of(0, 10));
+
+		List<SqlCapture.Execution> queries = sql.executions("select ");
+		Assertions.assertEquals(2, queries.size(), queries.toString());
+		for (SqlCapture.Execution query : queries) {
+			String plan = explain(query);
+			Assertions.assertTrue(plan.toUpperCase().contains("IDX_PERSON_BIRTH_DATE"), plan);
+		}
+		Assertions.assertEquals(122L, page.getTotalElements());
+	}
+
+	@Test
+	public void hasTokensStartingWith_ShouldUseSearchTokenIndex_WhenTableIsLarge() {
+		insertLargeDataset();
+
+		sql.clear();
+		Page<Person> page = repository.findAll(PersonSpecifications.hasTokensStartingWith(List.of("fulano1234")),
+				PageRequest.of(0, 10));
+
+		List<SqlCapture.Execution> queries = sql.executions("select ");
+		Assertions.assertFalse(queries.isEmpty());
+		for (SqlCapture.Execution query : queries) {
+			String plan = explain(query);
+			Assertions.assertTrue(plan.toUpperCase().contains("IDX_PERSON_SEARCH_TOKEN"), plan);
+		}
+		Assertions.assertEquals(1L, page.getTotalElements());
+	}
+
+	@Test
+	public void countByAgeBucket_ShouldAggregateInOneStatement_WhenTableIsLarge() {
+		insertLargeDataset();
+
+		Instant today = Instant.parse("2026-10-18T12:00:00Z");
+		long bornUntilToday = repository.findAll().stream().filter(person -> !person.getBirthDate().isAfter(today)).count();
+
+		sql.clear();
+		List<Object[]> rows = repository.countByAgeBucket(today, 10);
+
+		List<SqlCapture.Execution> queries = sql.executions("select ");
+		Assertions.assertEquals(1, queries.size(), queries.toString());
+		String plan = explain(queries.get(0)).toUpperCase();
+		Assertions.assertTrue(plan.contains("GROUP BY"), plan);
+		Assertions.assertTrue(plan.contains("IDX_PERSON_BIRTH_DATE"), plan);
+		Assertions.assertEquals(bornUntilToday, rows.stream().mapToLong(row -> ((Number) row[1]).longValue()).sum());
+	}
+
+	@Test
+	public void countByAgeBucket_ShouldGroupByCompletedYears() {
+		List<Object[]> rows = repository.countByAgeBucket(Instant.parse("2026-10-18T12:00:00Z"), 2);
+
+		Assertions.assertEquals(3, rows.size());
+		Assertions.assertEquals(List.of(24, 1L), List.of(((Number) rows.get(0)[0]).intValue(), ((Number) rows.get(0)[1]).longValue()));
+		Assertions.assertEquals(List.of(26, 3L), List.of(((Number) rows.get(1)[0]).intValue(), ((Number) rows.get(1)[1]).longValue()));
+		Assertions.assertEquals(List.of(28, 2L), List.of(((Number) rows.get(2)[0]).intValue(), ((Number) rows.get(2)[1]).longValue()));
+	}
+
+	/**
+	 * 10 mil pessoas com nascimentos a cada 3 dias desde 1950 e um termo de
+	 * busca próprio (fulano0 ... fulano9999), para que o H2 prefira os índices.
+	 */
+	private void insertLargeDataset() {
+		List<Person> persons = new ArrayList<>();
+		for (int i = 0; i < 10000; i++) {
+			Person person = Factory.createPersonNullId();
+			person.setName("Fulano" + i);
+			person.setCpf(String.format("%011d", i));
+			person.setBirthDate(Instant.parse("1950-01-01T00:00:00Z").plus(i * 3L, ChronoUnit.DAYS));
+			persons.add(person);
+		}
+		repository.saveAll(persons);
+		repository.flush();
+	}
+
+	/**
+	 * Roda EXPLAIN sobre o SQL que o Hibernate gerou, com os mesmos parâmetros,
+	 * na conexão da transação do teste.
+	 */
+	private String explain(SqlCapture.Execution query) {
+		return entityManager.unwrap(Session.class).doReturningWork(connection -> {
+			try (PreparedStatement statement = connection.prepareStatement("EXPLAIN " + query.getSql())) {
+				List<Object> parameters = query.getParameters();
+				for (int i = 0; i < parameters.size(); i++) {
+					statement.setObject(i + 1, parameters.get(i));
+				}
+				try (ResultSet result = statement.executeQuery()) {
+					result.next();
+					return result.getString(1);
+				}
+			}
+		});
+	}
+
 }
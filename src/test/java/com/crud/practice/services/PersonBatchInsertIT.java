@@ -0,0 +1,93 @@
+package com.crud.practice.services;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.util.AopTestUtils;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.crud.practice.dto.PersonBatchResultDTO;
+import com.crud.practice.dto.PersonDTO;
+import com.crud.practice.tests.Factory;
+import com.crud.practice.tests.SqlCapture;
+
+@SpringBootTest
+@Import(SqlCapture.class)
+class PersonBatchInsertIT {
+
+	private static final int CHUNK_SIZE = 60;
+
+	@Autowired
+	private PersonService service;
+
+	@Autowired
+	private SqlCapture sql;
+
+	@Value("${spring.jpa.properties.hibernate.jdbc.batch_size}")
+	private int jdbcBatchSize;
+
+	private final List<Long> insertedIds = new ArrayList<>();
+
+	@AfterEach
+	void tearDown() {
+		service.deleteAll(insertedIds);
+	}
+
+	@Test
+	void insertAll_ShouldSendPersonsInJdbcBatches_WithinEachChunk() {
+		List<PersonDTO> dtos = new ArrayList<>();
+		for (int i = 0; i < 2 * CHUNK_SIZE; i++) {
+			dtos.add(person(String.format("%011d", 90_000_000_000L + i)));
+		}
+		PersonService target = AopTestUtils.getTargetObject(service);
+		Object chunkSize = ReflectionTestUtils.getField(target, "batchChunkSize");
+		ReflectionTestUtils.setField(target, "batchChunkSize", CHUNK_SIZE);
+		List<PersonBatchResultDTO> results;
+		try {
+			sql.clear();
+			results = service.insertAll(dtos);
+		} finally {
+			ReflectionTestUtils.setField(target, "batchChunkSize", chunkSize);
+		}
+		keepIds(results);
+
+		List<SqlCapture.Execution> inserts = sql.executions("insert into tb_person ");
+		int remainder = CHUNK_SIZE % jdbcBatchSize;
+		Assertions.assertEquals(List.of(jdbcBatchSize, remainder, jdbcBatchSize, remainder),
+				inserts.stream().map(SqlCapture.Execution::getBatchSize).collect(Collectors.toList()), inserts.toString());
+		Assertions.assertEquals(2 * CHUNK_SIZE, results.stream().filter(result -> result.getError() == null).count());
+	}
+
+	@Test
+	void insertAll_ShouldReportDomainMessage_WhenCpfIsDuplicated() {
+		List<PersonDTO> dtos = List.of(person("90.000.000.100"), person("072.779.685-22"));
+
+		List<PersonBatchResultDTO> results = service.insertAll(dtos);
+		keepIds(results);
+
+		Assertions.assertNotNull(results.get(0).getId());
+		Assertions.assertNull(results.get(0).getError());
+		Assertions.assertNull(results.get(1).getId());
+		Assertions.assertEquals("CPF já cadastrado: 072.779.685-22", results.get(1).getError());
+	}
+
+	private void keepIds(List<PersonBatchResultDTO> results) {
+		results.stream().map(PersonBatchResultDTO::getId).filter(Objects::nonNull).forEach(insertedIds::add);
+	}
+
+	private static PersonDTO person(String cpf) {
+		PersonDTO dto = new PersonDTO(Factory.createPersonNullId());
+		dto.setCpf(cpf);
+		return dto;
+	}
+
+}
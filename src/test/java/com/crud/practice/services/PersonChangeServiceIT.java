@@ -0,0 +1,139 @@
+package com.crud.practice.services;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.crud.practice.dto.PersonChangeDTO;
+import com.crud.practice.dto.PersonChangePageDTO;
+import com.crud.practice.dto.PersonDTO;
+import com.crud.practice.services.exceptions.BadRequestException;
+
+@SpringBootTest(properties = "app.person.changes.visibility-delay=0s")
+class PersonChangeServiceIT {
+
+	@Autowired
+	private PersonChangeService service;
+
+	@Autowired
+	private PersonService personService;
+
+	@Autowired
+	private TransactionTemplate transactionTemplate;
+
+	private String head;
+
+	@BeforeEach
+	void setUp() {
+		head = drain(null).getNext();
+	}
+
+	@Test
+	void findChanges_ShouldReturnInsertUpdateAndDeleteInOrder() {
+		PersonDTO inserted = personService.insert(person("920.000.000-01"));
+		inserted.setName("Pessoa Alterada");
+		inserted.setVersion(null);
+		personService.update(inserted, inserted.getId());
+		personService.patch(new PersonDTO(null, null, null, "(75)90000-0000", null, null, null), inserted.getId());
+		personService.delete(inserted.getId());
+
+		PersonChangePageDTO page = service.findChanges(head, 100);
+
+		Assertions.assertEquals(List.of("INSERT", "UPDATE", "UPDATE", "DELETE"),
+				page.getChanges().stream().map(PersonChangeDTO::getType).collect(Collectors.toList()));
+		Assertions.assertTrue(page.getChanges().stream().allMatch(change -> change.getPersonId().equals(inserted.getId())));
+		Assertions.assertTrue(page.getChanges().stream().allMatch(change -> change.getPerson() == null),
+				"a pessoa já foi removida, então nenhuma mudança traz o estado atual");
+		Assertions.assertFalse(page.isHasMore());
+		Assertions.assertEquals(page.getChanges().get(3).getToken(), page.getNext());
+	}
+
+	@Test
+	void findChanges_ShouldCarryCurrentStateAndResumeFromToken() {
+		PersonDTO first = personService.insert(person("920.000.000-02"));
+		PersonDTO second = personService.insert(person("920.000.000-03"));
+		try {
+			PersonChangePageDTO page = service.findChanges(head, 1);
+			Assertions.assertTrue(page.isHasMore());
+			Assertions.assertEquals(first.getId(), page.getChanges().get(0).getPerson().getId());
+
+			PersonChangePageDTO rest = service.findChanges(page.getNext(), 1);
+			Assertions.assertEquals(second.getId(), rest.getChanges().get(0).getPersonId());
+			Assertions.assertEquals("920.000.000-03", rest.getChanges().get(0).getPerson().getCpf());
+
+			PersonChangePageDTO empty = service.findChanges(service.findChanges(rest.getNext(), 100).getNext(), 100);
+			Assertions.assertTrue(empty.getChanges().isEmpty());
+		} finally {
+			personService.deleteAll(List.of(first.getId(), second.getId()));
+		}
+	}
+
+	@Test
+	void findChanges_ShouldRecordOnlyExistingIds_WhenDeletingInBulk() {
+		PersonDTO inserted = personService.insert(person("920.000.000-04"));
+		String afterInsert = drain(head).getNext();
+
+		personService.deleteAll(List.of(inserted.getId(), 999_999L));
+
+		List<PersonChangeDTO> changes = service.findChanges(afterInsert, 100).getChanges();
+		Assertions.assertEquals(1, changes.size());
+		Assertions.assertEquals("DELETE", changes.get(0).getType());
+		Assertions.assertEquals(inserted.getId(), changes.get(0).getPersonId());
+	}
+
+	@Test
+	void findChanges_ShouldNotSkipSlowTransaction_WhenFasterOneWasAlreadyRead() {
+		List<Long> ids = new ArrayList<>();
+		List<String> tokens = new ArrayList<>();
+		try {
+			transactionTemplate.executeWithoutResult(status -> {
+				ids.add(personService.insert(person("920.000.000-05")).getId());
+				CompletableFuture.runAsync(() -> {
+					ids.add(personService.insert(person("920.000.000-06")).getId());
+					PersonChangePageDTO page = service.findChanges(head, 100);
+					Assertions.assertEquals(List.of(ids.get(1)), personIds(page.getChanges()));
+					tokens.add(page.getNext());
+				}).join();
+			});
+
+			Assertions.assertEquals(List.of(ids.get(0)), personIds(service.findChanges(tokens.get(0), 100).getChanges()));
+		} finally {
+			personService.deleteAll(ids);
+		}
+	}
+
+	@Test
+	void findChanges_ShouldThrowBadRequest_WhenTokenIsInvalid() {
+		Assertions.assertThrows(BadRequestException.class, () -> service.findChanges("não é token", 10));
+	}
+
+	private PersonChangePageDTO drain(String since) {
+		List<PersonChangeDTO> all = new ArrayList<>();
+		PersonChangePageDTO page;
+		do {
+			page = service.findChanges(since, 1000);
+			all.addAll(page.getChanges());
+			since = page.getNext();
+		} while (page.isHasMore());
+		return new PersonChangePageDTO(all, since, false);
+	}
+
+	private static List<Long> personIds(List<PersonChangeDTO> changes) {
+		return changes.stream().map(PersonChangeDTO::getPersonId).collect(Collectors.toList());
+	}
+
+	private static PersonDTO person(String cpf) {
+		return new PersonDTO(null, "Pessoa do Log", cpf, "(75)98129-0360", Instant.parse("1990-01-01T00:00:00Z"),
+				"Rua do Log", null);
+	}
+
+}
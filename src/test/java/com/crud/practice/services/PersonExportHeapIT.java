@@ -0,0 +1,116 @@
+package com.crud.practice.services;
+
+import java.io.BufferedReader;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.crud.practice.PracticeApplication;
+
+/**
+ * Exporta 1M de pessoas em uma JVM separada com heap de {@value #MAX_HEAP}.
+ * A base fica em um H2 em arquivo, fora do heap do exportador, e é populada
+ * por esta JVM antes. Leva cerca de um minuto, por isso tem a tag
+ * {@value #TAG}, excluída do build normal (veja src/jmh/README.md).
+ */
+@Tag(PersonExportHeapIT.TAG)
+class PersonExportHeapIT {
+
+	static final String TAG = "heap";
+
+	private static final String MAX_HEAP = "-Xmx64m";
+
+	private static final int PERSONS = 1_000_000;
+
+	private static final long FIRST_ID = 1000L;
+
+	@TempDir
+	Path directory;
+
+	@Test
+	void exportAll_ShouldWriteEveryPerson_WhenHeapIsMuchSmallerThanTable() throws Exception {
+		String url = "jdbc:h2:file:" + directory.resolve("export");
+		long total;
+		try (ConfigurableApplicationContext context = start(url, "spring.jpa.hibernate.ddl-auto=create")) {
+			JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+			jdbcTemplate.update("INSERT INTO tb_person (id, name, cpf, cpf_normalized, phone_number, birth_date, adress, version) "
+					+ "SELECT X, CONCAT('Pessoa ', X), LPAD(X, 11, '0'), LPAD(X, 11, '0'), '(75)98129-0360', "
+					+ "TIMESTAMP '1990-01-01 00:00:00', CONCAT('Rua ', MOD(X, 997), ', número ', MOD(X, 1000)), 0 "
+					+ "FROM SYSTEM_RANGE(?, ?)", FIRST_ID, FIRST_ID + PERSONS - 1);
+			total = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM tb_person", Long.class);
+		}
+
+		String java = ProcessHandle.current().info().command().orElse("java");
+		Process exporter = new ProcessBuilder(java, MAX_HEAP, "-XX:+ExitOnOutOfMemoryError", "-cp",
+				System.getProperty("java.class.path"), Exporter.class.getName(), url).redirectErrorStream(true).start();
+		List<String> output;
+		try (BufferedReader reader = new BufferedReader(new InputStreamReader(exporter.getInputStream()))) {
+			output = reader.lines().collect(Collectors.toList());
+		}
+		Assertions.assertTrue(exporter.waitFor(10, TimeUnit.MINUTES));
+
+		Assertions.assertEquals(0, exporter.exitValue(), String.join("\n", output));
+		Assertions.assertEquals("lines=" + total, output.get(output.size() - 1));
+		Assertions.assertTrue(total > PERSONS);
+	}
+
+	private static ConfigurableApplicationContext start(String url, String... properties) {
+		List<String> args = new ArrayList<>(List.of("spring.datasource.url=" + url, "spring.cache.type=none",
+				"logging.level.root=WARN", "app.sql-metrics.enabled=false"));
+		args.addAll(List.of(properties));
+		return new SpringApplicationBuilder(PracticeApplication.class).web(WebApplicationType.NONE)
+				.run(args.stream().map(property -> "--" + property).toArray(String[]::new));
+	}
+
+	/**
+	 * Roda a exportação contra a base já populada e imprime quantas linhas
+	 * foram escritas; um OutOfMemoryError encerra a JVM com código diferente
+	 * de zero.
+	 */
+	static class Exporter {
+
+		public static void main(String[] args) throws Exception {
+			CountingOutputStream out = new CountingOutputStream();
+			try (ConfigurableApplicationContext context = start(args[0], "spring.jpa.hibernate.ddl-auto=none",
+					"app.person.approximate-total.enabled=false")) {
+				context.getBean(PersonService.class).exportAll(out);
+			}
+			System.out.println("lines=" + out.lines);
+		}
+
+	}
+
+	private static final class CountingOutputStream extends OutputStream {
+
+		private long lines;
+
+		@Override
+		public void write(int b) {
+			if (b == '\n') {
+				lines++;
+			}
+		}
+
+		@Override
+		public void write(byte[] b, int off, int len) {
+			for (int i = off; i < off + len; i++) {
+				write(b[i]);
+			}
+		}
+
+	}
+
+}
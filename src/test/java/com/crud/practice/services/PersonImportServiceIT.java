@@ -0,0 +1,96 @@
+package com.crud.practice.services;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.crud.practice.dto.PersonDTO;
+import com.crud.practice.dto.PersonImportStatusDTO;
+import com.crud.practice.entities.Person;
+import com.crud.practice.repositories.PersonRepository;
+import com.crud.practice.services.exceptions.BadRequestException;
+
+@SpringBootTest
+class PersonImportServiceIT {
+
+	private static final List<String> IMPORTED_CPFS = List.of("90000000001", "90000000002", "90000000003");
+
+	@Autowired
+	private PersonImportService service;
+
+	@Autowired
+	private PersonService personService;
+
+	@Autowired
+	private PersonRepository repository;
+
+	@BeforeEach
+	void setUp() throws Exception {
+		ReflectionTestUtils.setField(service, "chunkSize", 2);
+	}
+
+	@AfterEach
+	void tearDown() throws Exception {
+		ReflectionTestUtils.setField(service, "chunkSize", 500);
+		List<Long> ids = IMPORTED_CPFS.stream().map(repository::findByCpfNormalized)
+				.flatMap(person -> person.map(Person::getId).stream()).collect(Collectors.toList());
+		personService.deleteAll(ids);
+	}
+
+	@Test
+	void submit_ShouldImportValidLinesAndReportInvalidOnes() throws Exception {
+		String csv = "\uFEFFcpf,name,birthDate,adress,phoneNumber\n"
+				+ "900.000.000-01,Ana Lima,1990-04-02,\"Rua X, número 10\",(75)98888-0001\n"
+				+ ",Sem CPF,1990-04-02,Rua Y,\n"
+				+ "900.000.000-02,Bruno Melo,02/04/1990,Rua Z,\n"
+				+ "\n"
+				+ "072.779.685-22,Martim Duplicado,1999-01-05,Rua A,\n"
+				+ "900.000.000-03,Carla Dias,1985-12-31T10:00:00Z,Rua W,\n";
+
+		PersonImportStatusDTO status = service.submit(file(csv));
+		status = awaitFinished(status.getId());
+
+		Assertions.assertEquals("COMPLETED", status.getStatus());
+		Assertions.assertEquals(2L, status.getImported());
+		Assertions.assertEquals(3L, status.getFailed());
+		Assertions.assertEquals(List.of(3L, 4L, 6L),
+				status.getErrors().stream().map(error -> error.getLine()).sorted().collect(Collectors.toList()));
+		Assertions.assertEquals(status.getTotalBytes(), status.getBytesRead());
+
+		PersonDTO ana = personService.findByCpf("90000000001");
+		Assertions.assertEquals("Rua X, número 10", ana.getAdress());
+		Assertions.assertEquals("1990-04-02T00:00:00Z", ana.getBirthDate().toString());
+		Assertions.assertEquals("Carla Dias", personService.findByCpf("90000000003").getName());
+	}
+
+	@Test
+	void submit_ShouldThrowBadRequest_WhenHeaderHasNoCpfColumn() {
+
+		Assertions.assertThrows(BadRequestException.class, () -> {
+			service.submit(file("name,adress\nAna,Rua X\n"));
+		});
+	}
+
+	private MockMultipartFile file(String content) {
+		return new MockMultipartFile("file", "persons.csv", "text/csv", content.getBytes(StandardCharsets.UTF_8));
+	}
+
+	private PersonImportStatusDTO awaitFinished(String id) throws InterruptedException {
+		PersonImportStatusDTO status = service.findStatus(id);
+		for (int i = 0; i < 100 && status.getFinishedAt() == null; i++) {
+			Thread.sleep(100);
+			status = service.findStatus(id);
+		}
+		return status;
+	}
+
+}
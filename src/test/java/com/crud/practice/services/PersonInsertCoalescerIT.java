@@ -0,0 +1,196 @@
+package com.crud.practice.services;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.crud.practice.config.ReadWriteRoutingDataSource;
+import com.crud.practice.dto.PersonDTO;
+import com.crud.practice.entities.Person;
+import com.crud.practice.repositories.PersonRepository;
+import com.crud.practice.services.exceptions.ResourceConflictException;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+@SpringBootTest(properties = {
+		"app.person.insert-coalescing.enabled=true",
+		"app.person.insert-coalescing.max-batch-size=8",
+		"app.person.insert-coalescing.max-delay=200ms" })
+class PersonInsertCoalescerIT {
+
+	private static final int CALLERS = 12;
+
+	@Autowired
+	private PersonInsertCoalescer coalescer;
+
+	@SpyBean
+	private PersonService personService;
+
+	@Autowired
+	private PersonRepository repository;
+
+	@Autowired
+	private MeterRegistry meterRegistry;
+
+	@AfterEach
+	void tearDown() {
+		List<Long> ids = IntStream.range(0, CALLERS).mapToObj(PersonInsertCoalescerIT::cpf)
+				.map(repository::findByCpfNormalized)
+				.flatMap(person -> person.map(Person::getId).stream()).collect(Collectors.toList());
+		personService.deleteAll(ids);
+	}
+
+	@Test
+	void insert_ShouldGroupConcurrentCallersIntoBatchesAndReturnOwnIds() throws Exception {
+		double batchesBefore = meterRegistry.summary("person.insert.coalesced.batch.size").count();
+		List<PersonDTO> dtos = IntStream.range(0, CALLERS).mapToObj(i -> person(cpf(i))).collect(Collectors.toList());
+
+		List<CompletableFuture<PersonDTO>> results = insertConcurrently(dtos);
+
+		for (int i = 0; i < CALLERS; i++) {
+			PersonDTO inserted = results.get(i).join();
+			Assertions.assertNotNull(inserted.getId());
+			Assertions.assertEquals(dtos.get(i).getCpf(), inserted.getCpf());
+			Assertions.assertEquals(inserted.getId(), personService.findByCpf(cpf(i)).getId());
+		}
+		Assertions.assertEquals(CALLERS, results.stream().map(result -> result.join().getId()).distinct().count());
+		double batches = meterRegistry.summary("person.insert.coalesced.batch.size").count() - batchesBefore;
+		Assertions.assertTrue(batches < CALLERS, "esperava menos transações que chamadas, foram " + batches);
+	}
+
+	@Test
+	void insert_ShouldRecordWriteForCallerThread_WhenBatchCommitsOnCoalescerThread() {
+		List<Long> writes = new ArrayList<>();
+		long before = System.currentTimeMillis();
+		ReadWriteRoutingDataSource.bindClient(null, writes::add);
+		try {
+			coalescer.insert(person(cpf(0)));
+		} finally {
+			ReadWriteRoutingDataSource.unbindClient();
+		}
+
+		Assertions.assertEquals(1, writes.size());
+		Assertions.assertTrue(writes.get(0) >= before);
+	}
+
+	@Test
+	void insert_ShouldFailOnlyConflictingCaller_WhenBatchHasDuplicateCpf() throws Exception {
+		double fallbacksBefore = meterRegistry.counter("person.insert.coalesced.fallback").count();
+		List<PersonDTO> dtos = new ArrayList<>();
+		for (int i = 0; i < CALLERS - 1; i++) {
+			dtos.add(person(cpf(i)));
+		}
+		dtos.add(person("072.779.685-22"));
+
+		List<CompletableFuture<PersonDTO>> results = insertConcurrently(dtos);
+
+		for (int i = 0; i < CALLERS - 1; i++) {
+			Assertions.assertNotNull(results.get(i).join().getId());
+		}
+		CompletionException e = Assertions.assertThrows(CompletionException.class, () -> results.get(CALLERS - 1).join());
+		Assertions.assertTrue(e.getCause() instanceof ResourceConflictException);
+		Assertions.assertTrue(meterRegistry.counter("person.insert.coalesced.fallback").count() > fallbacksBefore);
+	}
+
+	@Test
+	void insert_ShouldNotReinsertBatch_WhenFailureHappensAfterCommit() throws Exception {
+		double fallbacksBefore = meterRegistry.counter("person.insert.coalesced.fallback").count();
+		doAnswer(invocation -> {
+			Object inserted = invocation.callRealMethod();
+			TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+
+				@Override
+				public void afterCommit() {
+					throw new IllegalStateException("falha depois do commit");
+				}
+			});
+			return inserted;
+		}).when(personService).insertInOneTransaction(any());
+		List<PersonDTO> dtos = IntStream.range(0, CALLERS).mapToObj(i -> person(cpf(i))).collect(Collectors.toList());
+
+		List<CompletableFuture<PersonDTO>> results = insertConcurrently(dtos);
+
+		for (int i = 0; i < CALLERS; i++) {
+			Assertions.assertEquals(results.get(i).join().getId(), personService.findByCpf(cpf(i)).getId());
+		}
+		Assertions.assertEquals(fallbacksBefore, meterRegistry.counter("person.insert.coalesced.fallback").count());
+	}
+
+	@Test
+	void insert_ShouldRejectCallerAndSkipPerson_WhenBatchIsNotWrittenInTime() throws Exception {
+		CountDownLatch release = new CountDownLatch(1);
+		double fallbacksBefore = meterRegistry.counter("person.insert.coalesced.fallback").count();
+		doAnswer(invocation -> {
+			release.await();
+			throw new IllegalStateException("banco lento");
+		}).when(personService).insertInOneTransaction(any());
+		ReflectionTestUtils.setField(coalescer, "waitTimeout", Duration.ofMillis(300));
+		try {
+			Assertions.assertThrows(RejectedExecutionException.class, () -> coalescer.insert(person(cpf(0))));
+		} finally {
+			ReflectionTestUtils.setField(coalescer, "waitTimeout", Duration.ofSeconds(30));
+			release.countDown();
+		}
+
+		for (int i = 0; i < 500 && meterRegistry.counter("person.insert.coalesced.fallback").count() == fallbacksBefore; i++) {
+			Thread.sleep(10);
+		}
+		Assertions.assertTrue(meterRegistry.counter("person.insert.coalesced.fallback").count() > fallbacksBefore);
+		Assertions.assertTrue(repository.findByCpfNormalized(cpf(0)).isEmpty());
+	}
+
+	private List<CompletableFuture<PersonDTO>> insertConcurrently(List<PersonDTO> dtos) throws InterruptedException {
+		ExecutorService callers = Executors.newFixedThreadPool(dtos.size());
+		try {
+			CountDownLatch start = new CountDownLatch(1);
+			List<CompletableFuture<PersonDTO>> results = new ArrayList<>();
+			for (PersonDTO dto : dtos) {
+				results.add(CompletableFuture.supplyAsync(() -> {
+					try {
+						start.await();
+					} catch (InterruptedException e) {
+						throw new IllegalStateException(e);
+					}
+					return coalescer.insert(dto);
+				}, callers));
+			}
+			start.countDown();
+			CompletableFuture.allOf(results.toArray(new CompletableFuture[0])).exceptionally(e -> null).join();
+			return results;
+		} finally {
+			callers.shutdown();
+		}
+	}
+
+	private static String cpf(int i) {
+		return String.format("910000000%02d", i);
+	}
+
+	private static PersonDTO person(String cpf) {
+		return new PersonDTO(null, "Pessoa Agrupada", cpf, "(75)98129-0360", Instant.parse("1990-01-01T00:00:00Z"),
+				"Rua Agrupada", null);
+	}
+
+}
@@ -0,0 +1,135 @@
+package com.crud.practice.services;
+
+import java.time.Instant;
+
+import javax.persistence.EntityManagerFactory;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+
+import com.crud.practice.config.CacheConfig;
+import com.crud.practice.dto.PersonDTO;
+import com.crud.practice.entities.Person;
+import com.crud.practice.repositories.PersonRepository;
+
+/**
+ * Sem @Transactional de propósito: cada chamada roda em sua própria transação,
+ * então as leituras repetidas só evitam o banco pelos caches (o de pessoas para
+ * leitura por id e o de consultas do Hibernate para as páginas).
+ */
+@SpringBootTest
+class PersonSecondLevelCacheIT {
+
+	@Autowired
+	private PersonService service;
+
+	@Autowired
+	private PersonRepository repository;
+
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+
+	@Autowired
+	private CacheManager cacheManager;
+
+	private Statistics statistics;
+
+	private Long existingId;
+
+	@BeforeEach
+	void setUp() throws Exception {
+		existingId = 4L;
+		entityManagerFactory.getCache().evictAll();
+		cacheManager.getCache(CacheConfig.PERSONS_CACHE).clear();
+		statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+		statistics.clear();
+	}
+
+	@Test
+	void findById_ShouldNotHitDatabase_WhenPersonIsInPersonsCache() {
+		service.findById(existingId);
+		long statements = statistics.getPrepareStatementCount();
+
+		PersonDTO person = service.findById(existingId);
+
+		Assertions.assertEquals(statements, statistics.getPrepareStatementCount());
+		Assertions.assertEquals("Pedro Araújo", person.getName());
+	}
+
+	@Test
+	void findById_ShouldNotFillEntityRegion() {
+		service.findById(existingId);
+		repository.findById(existingId);
+
+		Assertions.assertFalse(entityManagerFactory.getCache().contains(Person.class, existingId));
+		Assertions.assertEquals(0L, statistics.getSecondLevelCachePutCount());
+	}
+
+	@Test
+	void findAllPaged_ShouldNotHitDatabase_WhenPageIsInQueryCache() {
+		service.findAllPaged(PageRequest.of(0, 3));
+		long statements = statistics.getPrepareStatementCount();
+
+		Page<PersonDTO> page = service.findAllPaged(PageRequest.of(0, 3));
+
+		Assertions.assertEquals(statements, statistics.getPrepareStatementCount());
+		Assertions.assertEquals(2L, statistics.getQueryCacheHitCount());
+		Assertions.assertEquals(3, page.getNumberOfElements());
+	}
+
+	@Test
+	void update_ShouldInvalidateQueryCache() {
+		PersonDTO original = service.findById(existingId);
+		service.findAllPaged(PageRequest.of(0, 10));
+
+		PersonDTO changed = new PersonDTO(null, "Pedro Araújo Filho", original.getCpf(), original.getPhoneNumber(),
+				original.getBirthDate(), original.getAdress(), null);
+		service.update(changed, existingId);
+		try {
+			Assertions.assertEquals("Pedro Araújo Filho", repository.findById(existingId).get().getName());
+			Assertions.assertTrue(service.findAllPaged(PageRequest.of(0, 10)).getContent().stream()
+					.anyMatch(dto -> dto.getName().equals("Pedro Araújo Filho")));
+		} finally {
+			original.setVersion(null);
+			service.update(original, existingId);
+		}
+	}
+
+	@Test
+	void patch_ShouldReindexFromNewValues() {
+		PersonDTO original = service.findById(existingId);
+
+		PersonDTO partial = new PersonDTO();
+		partial.setName("Pedro Quintela");
+		service.patch(partial, existingId);
+		try {
+			Assertions.assertEquals("Pedro Quintela", repository.findById(existingId).get().getName());
+			Assertions.assertEquals(existingId,
+					service.search("quintela", PageRequest.of(0, 10)).getContent().get(0).getId());
+		} finally {
+			original.setVersion(null);
+			service.update(original, existingId);
+		}
+	}
+
+	@Test
+	void delete_ShouldInvalidateQueryCache() {
+		PersonDTO inserted = service.insert(new PersonDTO(null, "Temporária Cache", "900.000.001-00", null,
+				Instant.parse("1990-01-01T00:00:00Z"), "Rua L2", null));
+		long total = service.findAllPaged(PageRequest.of(0, 10)).getTotalElements();
+
+		service.delete(inserted.getId());
+
+		Assertions.assertTrue(repository.findById(inserted.getId()).isEmpty());
+		Assertions.assertEquals(total - 1, service.findAllPaged(PageRequest.of(0, 10)).getTotalElements());
+	}
+
+}
@@ -1,18 +1,32 @@
 package com.crud.practice.services;
 
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCache;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import com.crud.practice.config.CacheConfig;
+import com.crud.practice.dto.PersonBatchResultDTO;
 import com.crud.practice.dto.PersonDTO;
+import com.crud.practice.dto.PersonDeleteResultDTO;
 import com.crud.practice.repositories.PersonRepository;
+import com.crud.practice.services.exceptions.BadRequestException;
+import com.crud.practice.services.exceptions.PreconditionFailedException;
+import com.crud.practice.services.exceptions.ResourceConflictException;
 import com.crud.practice.services.exceptions.ResourceNotFoundException;
 import com.crud.practice.tests.Factory;
 
@@ -26,6 +40,12 @@ class PersonServiceIT {
 	@Autowired
 	private PersonRepository repository;
 
+	@Autowired
+	private CacheManager cacheManager;
+
+	@Autowired
+	private TransactionTemplate transactionTemplate;
+
 	private Long existingId;
 
 	private Long notExistingId;
@@ -58,6 +78,26 @@ class PersonServiceIT {
 		});
 	}
 
+	@Test
+	void exportAll_ShouldWriteOnePersonPerLine() throws Exception {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+		service.exportAll(out);
+
+		String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+		Assertions.assertEquals(this.countTotalPerson, lines.length);
+		Assertions.assertTrue(lines[0].startsWith("{\"id\":1,"));
+	}
+
+	@Test
+	void deleteAll_ShouldDeleteExistingIdsAndIgnoreOthers() {
+		PersonDeleteResultDTO result = service.deleteAll(List.of(existingId, 2L, 2L, notExistingId));
+
+		Assertions.assertEquals(3, result.getRequested());
+		Assertions.assertEquals(2, result.getDeleted());
+		Assertions.assertEquals(countTotalPerson - 2L, repository.count());
+	}
+
 	@Test
 	void findAllPaged_ShouldReturnPage0With10PersonsDTO() {
 		pageable = PageRequest.of(0, 10);
@@ -90,16 +130,148 @@ class PersonServiceIT {
 		Assertions.assertEquals("João Carlos", pageDTO.getContent().get(2).getName());
 	}
 
+	@Test
+	void findByCpf_ShouldReturnPerson_WithOrWithoutPunctuation() {
+		Assertions.assertEquals(existingId, service.findByCpf("072.779.685-22").getId());
+		Assertions.assertEquals(existingId, service.findByCpf("07277968522").getId());
+	}
+
+	@Test
+	void insert_ShouldThrowResourceConflict_WhenCpfAlreadyExists() {
+		personDTO.setCpf("07277968522");
+
+		Assertions.assertThrows(ResourceConflictException.class, () -> {
+			service.insert(personDTO);
+		});
+	}
+
+	@Test
+	void insertAndPatch_ShouldThrowBadRequest_WhenCpfDoesNotHaveElevenDigits() {
+		personDTO.setCpf("086.395.593-321");
+		PersonDTO partial = new PersonDTO();
+		partial.setCpf("0863955933");
+
+		Assertions.assertThrows(BadRequestException.class, () -> service.insert(personDTO));
+		Assertions.assertThrows(BadRequestException.class, () -> service.update(personDTO, existingId));
+		Assertions.assertThrows(BadRequestException.class, () -> service.patch(partial, existingId));
+		Assertions.assertEquals("CPF deve ter 11 dígitos: 086.395.593-321",
+				service.insertAll(List.of(personDTO)).get(0).getError());
+		Assertions.assertEquals(this.countTotalPerson, repository.count());
+	}
+
+	@Test
+	void insert_ShouldAcceptSeveralPersonsWithoutCpf() {
+		personDTO.setCpf(null);
+		PersonDTO first = service.insert(personDTO);
+		PersonDTO second = service.insert(personDTO);
+
+		service.update(second, second.getId());
+
+		Assertions.assertNotEquals(first.getId(), second.getId());
+		Assertions.assertEquals(this.countTotalPerson + 2, repository.count());
+	}
+
+	@Test
+	void insert_ShouldStoreNullNormalizedCpf_WhenCpfHasNoDigits() {
+		personDTO.setCpf("abc");
+		PersonDTO first = service.insert(personDTO);
+		personDTO.setCpf("---");
+		service.insert(personDTO);
+
+		Assertions.assertNull(repository.findById(first.getId()).get().getCpfNormalized());
+		Assertions.assertEquals(this.countTotalPerson + 2, repository.count());
+		Assertions.assertThrows(ResourceNotFoundException.class, () -> service.findByCpf("abc"));
+	}
+
+	@Test
+	void patch_ShouldClearNormalizedCpf_WhenNewCpfHasNoDigits() {
+		PersonDTO partial = new PersonDTO();
+		partial.setCpf("sem cpf");
+
+		service.patch(partial, existingId);
+
+		Assertions.assertNull(repository.findById(existingId).get().getCpfNormalized());
+		Assertions.assertEquals("sem cpf", service.findById(existingId).getCpf());
+	}
+
+	@Test
+	@Transactional(propagation = Propagation.NOT_SUPPORTED)
+	void findById_ShouldServeCopiesFromCache() {
+		CaffeineCache cache = (CaffeineCache) cacheManager.getCache(CacheConfig.PERSONS_CACHE);
+		cache.clear();
+		long hitsBefore = cache.getNativeCache().stats().hitCount();
+
+		PersonDTO first = service.findById(existingId);
+		first.setName("Alterado pelo chamador");
+		first.setVersion(99L);
+		PersonDTO second = service.findById(existingId);
+
+		Assertions.assertNotSame(first, second);
+		Assertions.assertEquals(repository.findDTOById(existingId).get(), second);
+		Assertions.assertEquals(hitsBefore + 1, cache.getNativeCache().stats().hitCount());
+	}
+
+	@Test
+	@Transactional(propagation = Propagation.NOT_SUPPORTED)
+	void update_ShouldEvictCachedPersonOnlyAfterCommit() {
+		CaffeineCache cache = (CaffeineCache) cacheManager.getCache(CacheConfig.PERSONS_CACHE);
+		PersonDTO inserted = service.insert(person("98765432100"));
+		try {
+			service.findById(inserted.getId());
+			transactionTemplate.executeWithoutResult(status -> {
+				inserted.setName("Nome Atualizado");
+				service.update(inserted, inserted.getId());
+
+				Assertions.assertNotNull(cache.getNativeCache().getIfPresent(inserted.getId()));
+				Assertions.assertEquals("Nome Atualizado", service.findById(inserted.getId()).getName());
+			});
+
+			Assertions.assertNull(cache.getNativeCache().getIfPresent(inserted.getId()));
+			Assertions.assertEquals("Nome Atualizado", service.findById(inserted.getId()).getName());
+		} finally {
+			service.delete(inserted.getId());
+		}
+	}
+
+	@Test
+	@Transactional(propagation = Propagation.NOT_SUPPORTED)
+	void update_ShouldKeepCachedPerson_WhenTransactionRollsBack() {
+		CaffeineCache cache = (CaffeineCache) cacheManager.getCache(CacheConfig.PERSONS_CACHE);
+		cache.clear();
+		PersonDTO cached = service.findById(existingId);
+
+		transactionTemplate.executeWithoutResult(status -> {
+			service.update(personDTO, existingId);
+			status.setRollbackOnly();
+		});
+
+		Assertions.assertEquals(cached, cache.getNativeCache().getIfPresent(existingId));
+		Assertions.assertEquals(cached, service.findById(existingId));
+	}
+
 	@Test
 	void insert_ShoudSavePersonInDataBase() {
 
 		personDTO = service.insert(personDTO);
 
 		Assertions.assertTrue(repository.count() == this.countTotalPerson + 1);
-		Assertions.assertTrue(personDTO.getId() == this.countTotalPerson + 1);
+		Assertions.assertTrue(personDTO.getId() > this.countTotalPerson);
 		Assertions.assertNotNull(personDTO);
 	}
 
+	@Test
+	void insertAll_ShouldSaveEveryPersonAndReturnGeneratedIds() {
+		List<PersonDTO> dtos = List.of(Factory.creatPersonDTO(), Factory.creatPersonDTO(), Factory.creatPersonDTO());
+		dtos.get(1).setCpf("086.395.593-33");
+		dtos.get(2).setCpf("086.395.593-34");
+
+		List<PersonBatchResultDTO> results = service.insertAll(dtos);
+
+		Assertions.assertEquals(3, results.size());
+		Assertions.assertTrue(results.stream().allMatch(result -> result.getId() != null && result.getError() == null));
+		Assertions.assertEquals(this.countTotalPerson + 3, repository.count());
+	}
+
 	@Test
 	void update_ShouldUpdatePerson_WhenIdExists() {
 
@@ -109,6 +281,47 @@ class PersonServiceIT {
 		Assertions.assertNotNull(dto);
 	}
 
+	@Test
+	void update_ShouldIncrementVersion_WhenVersionMatches() {
+		personDTO.setVersion(0L);
+
+		PersonDTO dto = service.update(personDTO, existingId);
+
+		Assertions.assertEquals(1L, dto.getVersion());
+		Assertions.assertEquals(1L, service.findById(existingId).getVersion());
+	}
+
+	@Test
+	void update_ShouldThrowPreconditionFailed_WhenVersionIsStale() {
+		personDTO.setVersion(5L);
+
+		Assertions.assertThrows(PreconditionFailedException.class, () -> {
+			service.update(personDTO, existingId);
+		});
+	}
+
+	@Test
+	void patch_ShouldKeepMissingFieldsAndReindexName_WhenIdExists() {
+		PersonDTO partial = new PersonDTO();
+		partial.setName("Ângela Souza");
+
+		service.patch(partial, existingId);
+
+		PersonDTO dto = service.findById(existingId);
+		Assertions.assertEquals("Ângela Souza", dto.getName());
+		Assertions.assertEquals("072.779.685-22", dto.getCpf());
+		Assertions.assertEquals(1L, dto.getVersion());
+		Assertions.assertEquals(existingId, service.search("angela", PageRequest.of(0, 10)).getContent().get(0).getId());
+	}
+
+	@Test
+	void patch_ShouldThrowResourceNotFound_WhenIdDoesNotExist() {
+
+		Assertions.assertThrows(ResourceNotFoundException.class, () -> {
+			service.patch(personDTO, notExistingId);
+		});
+	}
+
 	@Test
 	void update_ShouldThrowResourceNotFound_WhenIdDoesNotExist() {
 		
@@ -117,4 +330,10 @@ class PersonServiceIT {
 		});
 	}
 
+	private static PersonDTO person(String cpf) {
+		PersonDTO dto = new PersonDTO(Factory.createPersonNullId());
+		dto.setCpf(cpf);
+		return dto;
+	}
+
 }
@@ -0,0 +1,156 @@
+package com.crud.practice.services;
+
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.List;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.crud.practice.config.CacheConfig;
+import com.crud.practice.dto.PersonDTO;
+import com.crud.practice.entities.PersonChange;
+import com.crud.practice.repositories.PersonChangeRepository;
+import com.crud.practice.repositories.PersonRepository;
+import com.crud.practice.repositories.PersonStore;
+import com.crud.practice.services.exceptions.ResourceNotFoundException;
+import com.crud.practice.tests.Factory;
+
+@SpringBootTest(properties = { "spring.profiles.active=test,mapped-store", "app.person.changes.visibility-delay=0s" })
+class PersonServiceMappedStoreIT {
+
+	@TempDir
+	static Path storeDirectory;
+
+	@DynamicPropertySource
+	static void storeProperties(DynamicPropertyRegistry registry) {
+		registry.add("app.person.store.directory", storeDirectory::toString);
+	}
+
+	@Autowired
+	private PersonService service;
+
+	@Autowired
+	private PersonStore store;
+
+	@Autowired
+	private PersonStoreSynchronizer synchronizer;
+
+	@Autowired
+	private PersonRepository repository;
+
+	@Autowired
+	private PersonChangeRepository changeRepository;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Autowired
+	private TransactionTemplate transactionTemplate;
+
+	@Autowired
+	private CacheManager cacheManager;
+
+	private Long existingId;
+
+	@BeforeEach
+	void setUp() {
+		existingId = 1L;
+		cacheManager.getCache(CacheConfig.PERSONS_CACHE).clear();
+	}
+
+	@Test
+	void store_ShouldBeLoadedFromDatabase_WhenStartedEmpty() {
+		Assertions.assertEquals(repository.count(), store.count());
+		Assertions.assertEquals(repository.findDTOById(existingId).get(), store.findDTOById(existingId).get());
+	}
+
+	@Test
+	void findById_ShouldReadFromStore_WhenProfileIsActive() {
+		String name = repository.findDTOById(existingId).get().getName();
+		jdbcTemplate.update("UPDATE tb_person SET name = 'Fora do serviço' WHERE id = ?", existingId);
+		try {
+			Assertions.assertEquals(name, service.findById(existingId).getName());
+		} finally {
+			jdbcTemplate.update("UPDATE tb_person SET name = ? WHERE id = ?", name, existingId);
+		}
+	}
+
+	@Test
+	void writes_ShouldReachStoreAfterCommit() {
+		PersonDTO inserted = service.insert(person("11144477735"));
+		Assertions.assertEquals(inserted.getCpf(), service.findById(inserted.getId()).getCpf());
+
+		inserted.setName("Nome Atualizado");
+		PersonDTO updated = service.update(inserted, inserted.getId());
+		PersonDTO stored = store.findDTOById(inserted.getId()).get();
+		Assertions.assertEquals("Nome Atualizado", stored.getName());
+		Assertions.assertEquals(updated.getVersion(), stored.getVersion());
+
+		PersonDTO patch = new PersonDTO();
+		patch.setPhoneNumber("(11) 90000-0000");
+		service.patch(patch, inserted.getId());
+		stored = store.findDTOById(inserted.getId()).get();
+		Assertions.assertEquals("(11) 90000-0000", stored.getPhoneNumber());
+		Assertions.assertEquals(repository.findDTOById(inserted.getId()).get().getVersion(), stored.getVersion());
+
+		service.delete(inserted.getId());
+		cacheManager.getCache(CacheConfig.PERSONS_CACHE).clear();
+		Assertions.assertTrue(store.findDTOById(inserted.getId()).isEmpty());
+		Assertions.assertThrows(ResourceNotFoundException.class, () -> service.findById(inserted.getId()));
+	}
+
+	@Test
+	void writes_ShouldNotReachStore_WhenTransactionRollsBack() {
+		long before = store.count();
+
+		Long id = transactionTemplate.execute(status -> {
+			status.setRollbackOnly();
+			return service.insert(person("52998224725")).getId();
+		});
+
+		Assertions.assertEquals(before, store.count());
+		Assertions.assertTrue(store.findDTOById(id).isEmpty());
+	}
+
+	@Test
+	void synchronize_ShouldApplyWritesFromOtherInstances_AndNotResurrectDeletedPerson() {
+		PersonDTO inserted = service.insert(person("39053344705"));
+		PersonDTO stale = store.findDTOById(inserted.getId()).get();
+
+		transactionTemplate.executeWithoutResult(status -> {
+			repository.patch(inserted.getId(), "Outra Instância", null, null, null, null, null);
+			changeRepository.save(new PersonChange(inserted.getId(), PersonChange.Type.UPDATE, Instant.now()));
+		});
+		synchronizer.synchronize();
+		Assertions.assertEquals("Outra Instância", store.findDTOById(inserted.getId()).get().getName());
+
+		transactionTemplate.executeWithoutResult(status -> {
+			repository.deletePersonById(inserted.getId());
+			changeRepository.save(new PersonChange(inserted.getId(), PersonChange.Type.DELETE, Instant.now()));
+		});
+		synchronizer.synchronize();
+		Assertions.assertTrue(store.findDTOById(inserted.getId()).isEmpty());
+
+		stale.setVersion(stale.getVersion() + 10);
+		store.saveAll(List.of(stale));
+		Assertions.assertTrue(store.findDTOById(inserted.getId()).isEmpty());
+		Assertions.assertEquals(0, synchronizer.synchronize());
+	}
+
+	private static PersonDTO person(String cpf) {
+		PersonDTO dto = new PersonDTO(Factory.createPersonNullId());
+		dto.setCpf(cpf);
+		return dto;
+	}
+
+}
@@ -0,0 +1,126 @@
+package com.crud.practice.services;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.Statement;
+import java.time.Duration;
+
+import javax.persistence.EntityManagerFactory;
+import javax.sql.DataSource;
+
+import org.hibernate.SessionFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+
+import com.crud.practice.config.CacheConfig;
+import com.crud.practice.config.ReadWriteRoutingDataSource;
+import com.crud.practice.dto.PersonDTO;
+import com.zaxxer.hikari.HikariDataSource;
+
+/**
+ * Como {@link PersonServiceReplicaRoutingIT}, mas com o cache de pessoas e o
+ * cache de segundo nível ligados, como em produção. A réplica tem o nome da
+ * pessoa 1 alterado, então o nome lido mostra se o dado veio da réplica.
+ */
+@SpringBootTest(properties = {
+		"spring.datasource.url=jdbc:h2:mem:caching-primary;DB_CLOSE_DELAY=-1",
+		"app.datasource.replica.enabled=true",
+		"app.datasource.replica.url=" + PersonServiceReplicaCachingIT.REPLICA_URL,
+		"app.datasource.replica.lag-window=0s",
+		"app.datasource.replica.retry-interval=0s",
+		"app.person.l2-cache.enabled=true",
+		"spring.cache.type=caffeine" })
+class PersonServiceReplicaCachingIT {
+
+	static final String REPLICA_URL = "jdbc:h2:mem:caching-replica;DB_CLOSE_DELAY=-1";
+
+	private static final String PRIMARY_NAME = "Martim Palmeira";
+
+	private static final String REPLICA_NAME = "Martim Palmeira (réplica)";
+
+	@Autowired
+	private PersonService service;
+
+	@Autowired
+	private DataSource dataSource;
+
+	@Autowired
+	@Qualifier("primaryDataSource")
+	private HikariDataSource primaryDataSource;
+
+	@Autowired
+	private CacheManager cacheManager;
+
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+
+	private ReadWriteRoutingDataSource routing;
+
+	private Cache persons;
+
+	@BeforeEach
+	void setUp() throws Exception {
+		routing = dataSource.unwrap(ReadWriteRoutingDataSource.class);
+		persons = cacheManager.getCache(CacheConfig.PERSONS_CACHE);
+		persons.clear();
+		Path script = Files.createTempFile("caching-primary", ".sql");
+		try {
+			try (Connection primary = primaryDataSource.getConnection(); Statement st = primary.createStatement()) {
+				st.execute("SCRIPT TO '" + script + "'");
+			}
+			try (Connection replica = DriverManager.getConnection(REPLICA_URL, "sa", "");
+					Statement st = replica.createStatement()) {
+				st.execute("DROP ALL OBJECTS");
+				st.execute("RUNSCRIPT FROM '" + script + "'");
+				st.executeUpdate("UPDATE tb_person SET name = '" + REPLICA_NAME + "' WHERE id = 1");
+			}
+		} finally {
+			Files.deleteIfExists(script);
+		}
+	}
+
+	@AfterEach
+	void tearDown() {
+		routing.setLagWindow(Duration.ZERO);
+		ReadWriteRoutingDataSource.unbindClient();
+		persons.clear();
+	}
+
+	@Test
+	void findById_ShouldNotCachePersonReadFromReplica() {
+		Assertions.assertEquals(REPLICA_NAME, service.findById(1L).getName());
+		Assertions.assertNull(persons.get(1L));
+
+		routing.setLagWindow(Duration.ofMinutes(1));
+		ReadWriteRoutingDataSource.bindClient(System.currentTimeMillis(), null);
+
+		Assertions.assertEquals(PRIMARY_NAME, service.findById(1L).getName());
+		Assertions.assertEquals(PRIMARY_NAME, persons.get(1L, PersonDTO.class).getName());
+	}
+
+	@Test
+	void findAllPaged_ShouldNotServeReplicaPageToClientWithinLagWindow() {
+		PageRequest firstPage = PageRequest.of(0, 10, Sort.by("id"));
+		Assertions.assertEquals(REPLICA_NAME, service.findAllPaged(firstPage).getContent().get(0).getName());
+		Assertions.assertEquals(REPLICA_NAME, service.findAllPaged(firstPage).getContent().get(0).getName());
+
+		routing.setLagWindow(Duration.ofMinutes(1));
+		ReadWriteRoutingDataSource.bindClient(System.currentTimeMillis(), null);
+
+		Assertions.assertEquals(PRIMARY_NAME, service.findAllPaged(firstPage).getContent().get(0).getName());
+		Assertions.assertFalse(entityManagerFactory.unwrap(SessionFactory.class).getSessionFactoryOptions()
+				.isQueryCacheEnabled());
+	}
+
+}
@@ -0,0 +1,192 @@
+package com.crud.practice.services;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.cookie;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+
+import javax.servlet.http.Cookie;
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import com.crud.practice.config.ReadWriteRoutingDataSource;
+import com.crud.practice.config.ReadYourWritesFilter;
+import com.crud.practice.dto.PersonDTO;
+import com.zaxxer.hikari.HikariDataSource;
+
+/**
+ * Dois bancos H2 em memória fazem o papel de primário e réplica. A réplica
+ * recebe uma cópia do primário com o nome da pessoa 1 alterado, então o nome
+ * lido mostra de qual banco a consulta veio.
+ */
+@AutoConfigureMockMvc
+@SpringBootTest(properties = {
+		"spring.datasource.url=jdbc:h2:mem:routing-primary;DB_CLOSE_DELAY=-1",
+		"app.datasource.replica.enabled=true",
+		"app.datasource.replica.url=" + PersonServiceReplicaRoutingIT.REPLICA_URL,
+		"app.datasource.replica.lag-window=0s",
+		"app.datasource.replica.retry-interval=0s",
+		"app.datasource.replica.hikari.connection-timeout=250",
+		"app.datasource.replica.hikari.maximum-pool-size=2",
+		"app.person.l2-cache.enabled=false",
+		"app.person.insert-coalescing.enabled=true",
+		"spring.cache.type=none" })
+class PersonServiceReplicaRoutingIT {
+
+	static final String REPLICA_URL = "jdbc:h2:mem:routing-replica;DB_CLOSE_DELAY=-1";
+
+	private static final String CPF = "072.779.685-22";
+
+	private static final String PRIMARY_NAME = "Martim Palmeira";
+
+	private static final String REPLICA_NAME = "Martim Palmeira (réplica)";
+
+	@Autowired
+	private PersonService service;
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private DataSource dataSource;
+
+	@Autowired
+	@Qualifier("primaryDataSource")
+	private HikariDataSource primaryDataSource;
+
+	@Autowired
+	@Qualifier("replicaDataSource")
+	private HikariDataSource replicaDataSource;
+
+	private ReadWriteRoutingDataSource routing;
+
+	@BeforeEach
+	void setUp() throws Exception {
+		routing = dataSource.unwrap(ReadWriteRoutingDataSource.class);
+		Path script = Files.createTempFile("routing-primary", ".sql");
+		try {
+			try (Connection primary = primaryDataSource.getConnection(); Statement st = primary.createStatement()) {
+				st.execute("SCRIPT TO '" + script + "'");
+			}
+			try (Connection replica = DriverManager.getConnection(REPLICA_URL, "sa", "");
+					Statement st = replica.createStatement()) {
+				st.execute("DROP ALL OBJECTS");
+				st.execute("RUNSCRIPT FROM '" + script + "'");
+				st.executeUpdate("UPDATE tb_person SET name = '" + REPLICA_NAME + "' WHERE id = 1");
+			}
+		} finally {
+			Files.deleteIfExists(script);
+		}
+	}
+
+	@AfterEach
+	void tearDown() {
+		routing.setLagWindow(Duration.ZERO);
+		ReadWriteRoutingDataSource.unbindClient();
+	}
+
+	@Test
+	void findByCpf_ShouldReadFromReplica_WhenTransactionIsReadOnly() {
+		Assertions.assertEquals(REPLICA_NAME, service.findByCpf(CPF).getName());
+	}
+
+	@Test
+	void update_ShouldWriteToPrimary_WhenTransactionIsReadWrite() throws SQLException {
+		PersonDTO dto = service.findByCpf(CPF);
+		dto.setName("Martim Atualizado");
+		dto.setVersion(null);
+		service.update(dto, 1L);
+		try {
+			Assertions.assertEquals("Martim Atualizado", nameOnPrimary());
+			Assertions.assertEquals(REPLICA_NAME, service.findByCpf(CPF).getName());
+		} finally {
+			dto.setName(PRIMARY_NAME);
+			service.update(dto, 1L);
+		}
+	}
+
+	@Test
+	void findByCpf_ShouldReadFromPrimary_WhenWriteCommittedWithinLagWindow() {
+		routing.setLagWindow(Duration.ofMinutes(1));
+		PersonDTO dto = service.findByCpf(CPF);
+		dto.setName(PRIMARY_NAME);
+		dto.setVersion(null);
+		service.update(dto, 1L);
+
+		Assertions.assertEquals(PRIMARY_NAME, service.findByCpf(CPF).getName());
+	}
+
+	@Test
+	void findByCpf_ShouldReadFromReplica_WhenOnlyAnotherClientWroteWithinLagWindow() {
+		routing.setLagWindow(Duration.ofMinutes(1));
+		PersonDTO dto = service.findByCpf(CPF);
+		dto.setVersion(null);
+		service.update(dto, 1L);
+
+		Assertions.assertEquals(REPLICA_NAME, CompletableFuture.supplyAsync(() -> service.findByCpf(CPF)).join().getName());
+	}
+
+	@Test
+	void findById_ShouldReadFromPrimary_OnlyForClientPresentingWriteCookie() throws Exception {
+		routing.setLagWindow(Duration.ofMinutes(1));
+		Cookie lastWrite = mockMvc.perform(patch("/persons/1").contentType(MediaType.APPLICATION_JSON)
+				.content("{\"name\": \"" + PRIMARY_NAME + "\"}"))
+				.andExpect(status().isNoContent())
+				.andExpect(cookie().exists(ReadYourWritesFilter.COOKIE))
+				.andReturn().getResponse().getCookie(ReadYourWritesFilter.COOKIE);
+
+		mockMvc.perform(get("/persons/1").cookie(lastWrite))
+				.andExpect(jsonPath("$.name").value(PRIMARY_NAME));
+		mockMvc.perform(get("/persons/1"))
+				.andExpect(jsonPath("$.name").value(REPLICA_NAME));
+	}
+
+	@Test
+	void insert_ShouldSetWriteCookie_WhenInsertIsCoalesced() throws Exception {
+		String location = mockMvc.perform(post("/persons").contentType(MediaType.APPLICATION_JSON)
+				.content("{\"name\": \"Pessoa Agrupada\", \"cpf\": \"91000000099\"}"))
+				.andExpect(status().isCreated())
+				.andExpect(cookie().exists(ReadYourWritesFilter.COOKIE))
+				.andReturn().getResponse().getHeader("Location");
+
+		service.delete(Long.valueOf(location.substring(location.lastIndexOf('/') + 1)));
+	}
+
+	@Test
+	void findByCpf_ShouldFallBackToPrimary_WhenReplicaIsUnavailable() throws SQLException {
+		try (Connection first = replicaDataSource.getConnection();
+				Connection second = replicaDataSource.getConnection()) {
+			Assertions.assertEquals(PRIMARY_NAME, service.findByCpf(CPF).getName());
+		}
+	}
+
+	private String nameOnPrimary() throws SQLException {
+		try (Connection primary = primaryDataSource.getConnection(); Statement st = primary.createStatement();
+				var rs = st.executeQuery("SELECT name FROM tb_person WHERE id = 1")) {
+			rs.next();
+			return rs.getString(1);
+		}
+	}
+
+}
@@ -1,12 +1,14 @@
 package com.crud.practice.services;
 
-import static org.mockito.Mockito.doNothing;
-import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import java.time.Instant;
+import java.time.LocalDate;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 import javax.persistence.EntityNotFoundException;
 
@@ -17,16 +19,26 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentMatchers;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
-import org.springframework.dao.EmptyResultDataAccessException;
+import org.springframework.cache.CacheManager;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 
+import com.crud.practice.dto.PersonAgeBucketDTO;
+import com.crud.practice.dto.PersonCursorPageDTO;
 import com.crud.practice.dto.PersonDTO;
 import com.crud.practice.entities.Person;
+import com.crud.practice.entities.PersonChange;
+import com.crud.practice.repositories.PersonChangeRepository;
 import com.crud.practice.repositories.PersonRepository;
+import com.crud.practice.services.exceptions.BadRequestException;
+import com.crud.practice.services.exceptions.PreconditionFailedException;
+import com.crud.practice.services.exceptions.ResourceConflictException;
 import com.crud.practice.services.exceptions.ResourceNotFoundException;
 import com.crud.practice.tests.Factory;
 
@@ -39,6 +51,15 @@ class PersonServiceTests {
 	@Mock
 	private PersonRepository repository;
 
+	@Mock
+	private PersonChangeRepository changeRepository;
+
+	@Mock
+	private PersonTotalCounter totalCounter;
+
+	@Mock
+	private CacheManager cacheManager;
+
 	private Long existingId;
 
 	private Long notExistingId;
@@ -60,15 +81,28 @@ class PersonServiceTests {
 		personDTO = Factory.creatPersonDTO();
 		personNullId = Factory.createPersonNullId();
 
-		doNothing().when(repository).deleteById(existingId);
-		doThrow(EmptyResultDataAccessException.class).when(repository).deleteById(notExistingId);
+		when(repository.deletePersonById(existingId)).thenReturn(1);
+		when(repository.deletePersonById(notExistingId)).thenReturn(0);
+
+		when(repository.findAllDTO(ArgumentMatchers.any())).thenReturn(page.map(PersonDTO::new));
+		when(repository.findAll(ArgumentMatchers.<Specification<Person>>any(), (Pageable) ArgumentMatchers.any())).thenReturn(page);
 
-		when(repository.findAll((Pageable) ArgumentMatchers.any())).thenReturn(page);
+		when(repository.findByIdGreaterThanOrderByIdAsc(ArgumentMatchers.eq(0L), ArgumentMatchers.any()))
+				.thenReturn(List.of(person, Factory.createPerson()));
 
-		when(repository.findById(existingId)).thenReturn(Optional.of(person));
-		when(repository.findById(notExistingId)).thenReturn(Optional.empty());
+		when(repository.findDTOById(existingId)).thenReturn(Optional.of(personDTO));
+		when(repository.findDTOById(notExistingId)).thenReturn(Optional.empty());
 
 		when(repository.save(ArgumentMatchers.any())).thenReturn(person);
+		when(repository.saveAndFlush(ArgumentMatchers.any())).thenReturn(person);
+
+		when(repository.findByCpfNormalized("08639559332")).thenReturn(Optional.of(person));
+		when(repository.existsByCpfNormalized("07277968522")).thenReturn(true);
+
+		when(repository.patch(ArgumentMatchers.eq(existingId), ArgumentMatchers.any(), ArgumentMatchers.any(),
+				ArgumentMatchers.any(), ArgumentMatchers.any(), ArgumentMatchers.any(), ArgumentMatchers.any())).thenReturn(1);
+		when(repository.patch(ArgumentMatchers.eq(notExistingId), ArgumentMatchers.any(), ArgumentMatchers.any(),
+				ArgumentMatchers.any(), ArgumentMatchers.any(), ArgumentMatchers.any(), ArgumentMatchers.any())).thenReturn(0);
 
 		when(repository.getById(existingId)).thenReturn(person);
 		when(repository.getById(notExistingId)).thenThrow(EntityNotFoundException.class);
@@ -82,7 +116,11 @@ class PersonServiceTests {
 			service.delete(existingId);
 		});
 
-		verify(repository).deleteById(existingId);
+		verify(repository).deletePersonById(existingId);
+		verify(repository, never()).findById(existingId);
+		verify(changeRepository).saveAll(ArgumentMatchers.<List<PersonChange>>argThat(changes -> changes.size() == 1
+				&& changes.get(0).getPersonId().equals(existingId) && changes.get(0).getType() == PersonChange.Type.DELETE));
+		verify(totalCounter).adjustAfterCommit(-1);
 	}
 	
 	@Test
@@ -92,7 +130,9 @@ class PersonServiceTests {
 			service.delete(notExistingId);
 		});
 		
-		verify(repository).deleteById(notExistingId);
+		verify(repository).deletePersonById(notExistingId);
+		verify(changeRepository, never()).saveAll(ArgumentMatchers.any());
+		verify(totalCounter, never()).adjustAfterCommit(ArgumentMatchers.anyLong());
 	}
 	
 	@Test
@@ -102,7 +142,114 @@ class PersonServiceTests {
 		
 		Assertions.assertTrue(!pageDTO.isEmpty());
 		
-		verify(repository).findAll(pageable);
+		verify(repository).findAllDTO(pageable);
+	}
+	
+	@Test
+	void findAllSliced_ShouldNotRunCountQuery() {
+		Pageable pageable = PageRequest.of(0, 10);
+		when(repository.findAllDTOSlice(pageable)).thenReturn(new SliceImpl<>(List.of(personDTO), pageable, true));
+		
+		Slice<PersonDTO> slice = service.findAllSliced(pageable);
+		
+		Assertions.assertTrue(slice.hasNext());
+		verify(repository, never()).findAllDTO(ArgumentMatchers.any());
+		verify(repository, never()).count();
+	}
+	
+	@Test
+	void findAllFields_ShouldSelectRequestedColumnsWithoutBirthDateFilter() {
+		Pageable pageable = PageRequest.of(0, 10);
+		Set<String> fields = PersonService.parseFields(" name , id,name");
+		service.findAllFields(fields, null, null, pageable);
+		
+		Assertions.assertEquals(List.of("name", "id"), List.copyOf(fields));
+		verify(repository).findAllDTOFields(fields, null, null, pageable);
+	}
+	
+	@Test
+	void parseFields_ShouldThrowBadRequestException_WhenFieldIsUnknownOrMissing() {
+		Assertions.assertThrows(BadRequestException.class, () -> PersonService.parseFields("id,senha"));
+		Assertions.assertThrows(BadRequestException.class, () -> PersonService.parseFields(" , "));
+	}
+	
+	@Test
+	void search_ShouldReturnPageOfPersonDTO() {
+		Pageable pageable = PageRequest.of(0, 10);
+		Page<PersonDTO> pageDTO = service.search("joão", pageable);
+		
+		Assertions.assertFalse(pageDTO.isEmpty());
+		
+		verify(repository).findAll(ArgumentMatchers.<Specification<Person>>any(), ArgumentMatchers.eq(pageable));
+	}
+	
+	@Test
+	void findAllByBirthDate_ShouldQueryHalfOpenRangeCoveringBornTo() {
+		Pageable pageable = PageRequest.of(0, 10);
+		service.findAllByBirthDate(LocalDate.of(1998, 1, 1), LocalDate.of(1999, 12, 31), pageable);
+		
+		verify(repository).findAllDTOByBirthDateBetween(Instant.parse("1998-01-01T00:00:00Z"),
+				Instant.parse("2000-01-01T00:00:00Z"), pageable);
+	}
+	
+	@Test
+	void findAllByBirthDate_ShouldThrowBadRequestException_WhenBornFromIsAfterBornTo() {
+		
+		Assertions.assertThrows(BadRequestException.class, () -> {
+			service.findAllByBirthDate(LocalDate.of(2000, 1, 1), LocalDate.of(1999, 1, 1), PageRequest.of(0, 10));
+		});
+	}
+	
+	@Test
+	void ageHistogram_ShouldMapRowsToBuckets() {
+		when(repository.countByAgeBucket(ArgumentMatchers.any(), ArgumentMatchers.eq(10)))
+				.thenReturn(List.of(new Object[] { 20, 4L }, new Object[] { 30, 2L }));
+		
+		List<PersonAgeBucketDTO> buckets = service.ageHistogram(10);
+		
+		Assertions.assertEquals(List.of(new PersonAgeBucketDTO(20, 29, 4L), new PersonAgeBucketDTO(30, 39, 2L)), buckets);
+	}
+	
+	@Test
+	void ageHistogram_ShouldThrowBadRequestException_WhenBucketSizeIsNotPositive() {
+		
+		Assertions.assertThrows(BadRequestException.class, () -> {
+			service.ageHistogram(0);
+		});
+	}
+	
+	@Test
+	void search_ShouldThrowBadRequestException_WhenQueryHasNoTerms() {
+		
+		Assertions.assertThrows(BadRequestException.class, () -> {
+			service.search(" - ", PageRequest.of(0, 10));
+		});
+	}
+	
+	@Test
+	void findAllByCursor_ShouldReturnNextCursor_WhenThereAreMorePersons() {
+		PersonCursorPageDTO cursorPage = service.findAllByCursor(null, 1);
+		
+		Assertions.assertEquals(1, cursorPage.getContent().size());
+		Assertions.assertNotNull(cursorPage.getNextCursor());
+		
+		verify(repository).findByIdGreaterThanOrderByIdAsc(0L, PageRequest.of(0, 2));
+	}
+	
+	@Test
+	void findAllByCursor_ShouldReturnNullCursor_WhenLastPage() {
+		PersonCursorPageDTO cursorPage = service.findAllByCursor(null, 10);
+		
+		Assertions.assertEquals(2, cursorPage.getContent().size());
+		Assertions.assertNull(cursorPage.getNextCursor());
+	}
+	
+	@Test
+	void findAllByCursor_ShouldThrowBadRequestException_WhenCursorIsInvalid() {
+		
+		Assertions.assertThrows(BadRequestException.class, () -> {
+			service.findAllByCursor("invalido", 10);
+		});
 	}
 	
 	@Test
@@ -113,7 +260,7 @@ class PersonServiceTests {
 		
 		Assertions.assertNotNull(dto);
 		
-		verify(repository).findById(existingId);		
+		verify(repository).findDTOById(existingId);		
 	}
 	
 	@Test
@@ -123,7 +270,7 @@ class PersonServiceTests {
 			service.findById(notExistingId);
 		});
 		
-		verify(repository).findById(notExistingId);
+		verify(repository).findDTOById(notExistingId);
 	}
 	
 	@Test
@@ -136,6 +283,34 @@ class PersonServiceTests {
 		verify(repository).save(personNullId);
 	}
 	
+	@Test
+	void insert_ShouldThrowResourceConflictException_WhenCpfAlreadyExists() {
+		personDTO.setCpf("072.779.685-22");
+		
+		Assertions.assertThrows(ResourceConflictException.class, () -> {
+			service.insert(personDTO);
+		});
+		
+		verify(repository, never()).save(ArgumentMatchers.any());
+	}
+	
+	@Test
+	void findByCpf_ShouldReturnPersonDTO_WhenCpfExists() {
+		PersonDTO dto = service.findByCpf("086.395.593-32");
+		
+		Assertions.assertEquals(existingId, dto.getId());
+		
+		verify(repository).findByCpfNormalized("08639559332");
+	}
+	
+	@Test
+	void findByCpf_ShouldThrowResourceNotFoundException_WhenCpfDoesNotExist() {
+		
+		Assertions.assertThrows(ResourceNotFoundException.class, () -> {
+			service.findByCpf("000.000.000-00");
+		});
+	}
+	
 	@Test
 	void update_ShouldReturnPersonDTO_WhenIdExists() {
 		personDTO = service.update(personDTO, existingId);
@@ -143,13 +318,39 @@ class PersonServiceTests {
 		Assertions.assertNotNull(personDTO);
 		
 		verify(repository).getById(existingId);
-		verify(repository).save(person);
+		verify(repository).saveAndFlush(person);
 	}
 	
+	@Test
+	void update_ShouldThrowPreconditionFailedException_WhenVersionIsStale() {
+		person.setVersion(3L);
+		personDTO.setVersion(2L);
+		
+		Assertions.assertThrows(PreconditionFailedException.class, () -> {
+			service.update(personDTO, existingId);
+		});
+		
+		verify(repository, never()).saveAndFlush(ArgumentMatchers.any());
+	}
 	
+	@Test
+	void patch_ShouldUpdateWithoutLoadingEntity_WhenOnlyPhoneIsSent() {
+		PersonDTO partial = new PersonDTO();
+		partial.setPhoneNumber("(75)99999-0000");
+		
+		service.patch(partial, existingId);
+		
+		verify(repository).patch(existingId, null, null, null, "(75)99999-0000", null, null);
+		verify(repository, never()).getById(ArgumentMatchers.any());
+		verify(repository, never()).findById(ArgumentMatchers.any());
+	}
 	
-	
-	
+	@Test
+	void patch_ShouldThrowResourceNotFoundException_WhenIdDoesNotExist() {
+		
+		Assertions.assertThrows(ResourceNotFoundException.class, () -> {
+			service.patch(personDTO, notExistingId);
+		});
+	}
 	
 }
-	
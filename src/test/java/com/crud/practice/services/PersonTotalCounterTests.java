@@ -0,0 +1,93 @@
+package com.crud.practice.services;
+
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.util.concurrent.Executor;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentMatchers;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.crud.practice.repositories.PersonRepository;
+
+@ExtendWith(SpringExtension.class)
+class PersonTotalCounterTests {
+
+	@InjectMocks
+	private PersonTotalCounter counter;
+
+	@Mock
+	private PersonRepository repository;
+
+	@Mock
+	private Executor executor;
+
+	@BeforeEach
+	void setUp() {
+		ReflectionTestUtils.setField(counter, "enabled", true);
+		ReflectionTestUtils.setField(counter, "refreshInterval", Duration.ofMinutes(1));
+		when(repository.count()).thenReturn(6L, 10L);
+		Mockito.doAnswer(invocation -> {
+			invocation.<Runnable>getArgument(0).run();
+			return null;
+		}).when(executor).execute(ArgumentMatchers.any());
+	}
+
+	@Test
+	void approximateTotal_ShouldCountOnceAndAdjustWithoutCounting() {
+		Assertions.assertEquals(6L, counter.approximateTotal());
+
+		counter.adjustAfterCommit(3);
+		counter.adjustAfterCommit(-1);
+
+		Assertions.assertEquals(8L, counter.approximateTotal());
+		verify(repository, times(1)).count();
+	}
+
+	@Test
+	void approximateTotal_ShouldRecountInBackground_WhenValueIsStale() {
+		ReflectionTestUtils.setField(counter, "refreshInterval", Duration.ZERO);
+		counter.approximateTotal();
+
+		counter.approximateTotal();
+
+		verify(executor).execute(ArgumentMatchers.any());
+		Assertions.assertEquals(10L, counter.approximateTotal());
+	}
+
+	@Test
+	void adjustAfterCommit_ShouldWaitForCommit_WhenTransactionIsActive() {
+		counter.approximateTotal();
+		TransactionSynchronizationManager.initSynchronization();
+		try {
+			counter.adjustAfterCommit(5);
+			Assertions.assertEquals(6L, counter.approximateTotal());
+
+			TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+		} finally {
+			TransactionSynchronizationManager.clearSynchronization();
+		}
+		Assertions.assertEquals(11L, counter.approximateTotal());
+	}
+
+	@Test
+	void approximateTotal_ShouldReturnNull_WhenDisabled() {
+		ReflectionTestUtils.setField(counter, "enabled", false);
+
+		Assertions.assertNull(counter.approximateTotal());
+		verify(repository, Mockito.never()).count();
+	}
+
+}
@@ -0,0 +1,52 @@
+package com.crud.practice.tests;
+
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.ResultMatcher;
+
+import com.crud.practice.config.SqlMetricsFilter;
+
+/**
+ * Orçamento de comandos SQL para testes com MockMvc. Lê o cabeçalho
+ * X-Query-Count escrito por SqlMetricsFilter e falha quando o endpoint executa
+ * mais comandos do que o declarado:
+ *
+ * <pre>
+ * mockMvc.perform(get("/persons")).andExpect(QueryBudget.atMost(2));
+ * </pre>
+ */
+public final class QueryBudget {
+
+	private QueryBudget() {
+	}
+
+	public static ResultMatcher atMost(long maxQueries) {
+		return result -> {
+			long queries = queryCount(result.getRequest(), result.getResponse());
+			if (queries > maxQueries) {
+				throw new AssertionError(String.format("%s %s executou %d comandos SQL, acima do orçamento de %d",
+						result.getRequest().getMethod(), result.getRequest().getRequestURI(), queries, maxQueries));
+			}
+		};
+	}
+
+	public static ResultMatcher exactly(long expectedQueries) {
+		return result -> {
+			long queries = queryCount(result.getRequest(), result.getResponse());
+			if (queries != expectedQueries) {
+				throw new AssertionError(String.format("%s %s executou %d comandos SQL, esperado %d",
+						result.getRequest().getMethod(), result.getRequest().getRequestURI(), queries, expectedQueries));
+			}
+		};
+	}
+
+	private static long queryCount(MockHttpServletRequest request, MockHttpServletResponse response) {
+		String header = response.getHeader(SqlMetricsFilter.QUERY_COUNT_HEADER);
+		if (header == null) {
+			throw new AssertionError(String.format("%s %s não trouxe o cabeçalho %s; SqlMetricsFilter está ativo?",
+					request.getMethod(), request.getRequestURI(), SqlMetricsFilter.QUERY_COUNT_HEADER));
+		}
+		return Long.parseLong(header);
+	}
+
+}
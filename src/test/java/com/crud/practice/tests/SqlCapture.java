@@ -0,0 +1,152 @@
+package com.crud.practice.tests;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.config.BeanPostProcessor;
+
+import com.crud.practice.config.SqlMetricsConfig;
+
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+import net.ttddyy.dsproxy.proxy.ParameterSetOperation;
+import net.ttddyy.dsproxy.support.ProxyDataSource;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+
+/**
+ * Registra cada comando SQL executado pelo DataSource "dataSource", com os
+ * parâmetros do primeiro conjunto e o tamanho do lote quando a execução é um
+ * executeBatch. Importe no teste e leia depois da chamada:
+ *
+ * <pre>
+ * &#64;DataJpaTest
+ * &#64;Import(SqlCapture.class)
+ * class ...Tests {
+ *     &#64;Autowired
+ *     private SqlCapture sql;
+ * }
+ * </pre>
+ *
+ * Se o DataSource já estiver envolvido por {@link SqlMetricsConfig}, o
+ * listener é acrescentado ao mesmo proxy.
+ */
+public class SqlCapture implements BeanPostProcessor, QueryExecutionListener {
+
+	private final List<Execution> executions = new ArrayList<>();
+
+	@Override
+	public Object postProcessAfterInitialization(Object bean, String beanName) {
+		if (!SqlMetricsConfig.DATA_SOURCE_NAME.equals(beanName) || !(bean instanceof DataSource)) {
+			return bean;
+		}
+		if (bean instanceof ProxyDataSource) {
+			((ProxyDataSource) bean).getProxyConfig().getQueryListener().addListener(this);
+			return bean;
+		}
+		return ProxyDataSourceBuilder.create((DataSource) bean).name(SqlMetricsConfig.DATA_SOURCE_NAME).countQuery()
+				.listener(this).build();
+	}
+
+	@Override
+	public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+	}
+
+	@Override
+	public synchronized void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+		for (QueryInfo query : queryInfoList) {
+			executions.add(new Execution(query.getQuery(), parameters(query),
+					execInfo.isBatch() ? execInfo.getBatchSize() : 0));
+		}
+	}
+
+	public synchronized void clear() {
+		executions.clear();
+	}
+
+	/**
+	 * SQL de cada comando executado desde o último {@link #clear()}, na ordem.
+	 */
+	public synchronized List<String> statements() {
+		return executions.stream().map(Execution::getSql).collect(Collectors.toList());
+	}
+
+	/**
+	 * Comandos executados cujo SQL começa com o prefixo informado, sem
+	 * diferenciar maiúsculas (por exemplo "insert into tb_person ").
+	 */
+	public synchronized List<Execution> executions(String sqlPrefix) {
+		String prefix = sqlPrefix.toLowerCase(Locale.ROOT);
+		return executions.stream().filter(execution -> execution.getSql().toLowerCase(Locale.ROOT).startsWith(prefix))
+				.collect(Collectors.toList());
+	}
+
+	/**
+	 * Valores do primeiro conjunto de parâmetros, na ordem dos marcadores; um
+	 * setNull vira null.
+	 */
+	private static List<Object> parameters(QueryInfo query) {
+		if (query.getParametersList().isEmpty()) {
+			return Collections.emptyList();
+		}
+		SortedMap<Integer, Object> byIndex = new TreeMap<>();
+		for (ParameterSetOperation operation : query.getParametersList().get(0)) {
+			Object[] args = operation.getArgs();
+			if (args.length < 2 || !(args[0] instanceof Integer)) {
+				continue;
+			}
+			boolean isNull = operation.getMethod().getName().equals("setNull");
+			byIndex.put((Integer) args[0], isNull ? null : args[1]);
+		}
+		return new ArrayList<>(byIndex.values());
+	}
+
+	public static final class Execution {
+
+		private final String sql;
+
+		private final List<Object> parameters;
+
+		private final int batchSize;
+
+		Execution(String sql, List<Object> parameters, int batchSize) {
+			this.sql = sql;
+			this.parameters = parameters;
+			this.batchSize = batchSize;
+		}
+
+		public String getSql() {
+			return sql;
+		}
+
+		/**
+		 * Parâmetros do primeiro conjunto, para executar o mesmo comando de novo
+		 * (por exemplo com EXPLAIN na frente).
+		 */
+		public List<Object> getParameters() {
+			return parameters;
+		}
+
+		/**
+		 * Quantidade de conjuntos de parâmetros enviados em um executeBatch,
+		 * ou 0 quando o comando não foi executado em lote.
+		 */
+		public int getBatchSize() {
+			return batchSize;
+		}
+
+		@Override
+		public String toString() {
+			return batchSize > 0 ? sql + " [lote de " + batchSize + "]" : sql;
+		}
+
+	}
+
+}